@@ -0,0 +1,128 @@
+/*
+ * Copyright 2026 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.firebase.example;
+
+import com.google.api.core.ApiFuture;
+import com.google.api.core.ApiFutureCallback;
+import com.google.api.core.ApiFutures;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Helpers for calling the Admin SDK without parking a platform thread per request.
+ *
+ * <p>{@link #toCompletableFuture(ApiFuture, Executor)} adapts the SDK's {@link ApiFuture}s,
+ * and {@link #newBlockingFlowExecutor(int)} provides an executor for code that still has to
+ * call {@code get()}. On Java 21 and later that executor starts a virtual thread per task, so
+ * thousands of blocked flows share a handful of carrier threads. The project targets Java 8,
+ * so virtual threads are looked up reflectively and a bounded platform thread pool is used
+ * when they are not available.
+ */
+public final class AdminFutures {
+
+  private AdminFutures() {
+  }
+
+  /**
+   * Returns a {@link CompletableFuture} that completes with {@code future}. Completion, and any
+   * non-async stages chained on the result, run on {@code executor}. Cancelling the result also
+   * cancels {@code future}.
+   */
+  public static <V> CompletableFuture<V> toCompletableFuture(
+      final ApiFuture<V> future, Executor executor) {
+    final CompletableFuture<V> result = new CompletableFuture<V>() {
+      @Override
+      public boolean cancel(boolean mayInterruptIfRunning) {
+        future.cancel(mayInterruptIfRunning);
+        return super.cancel(mayInterruptIfRunning);
+      }
+    };
+    ApiFutures.addCallback(future, new ApiFutureCallback<V>() {
+      @Override
+      public void onSuccess(V value) {
+        result.complete(value);
+      }
+
+      @Override
+      public void onFailure(Throwable t) {
+        result.completeExceptionally(t);
+      }
+    }, executor);
+    return result;
+  }
+
+  /** Runs a blocking flow, such as one of the snippets, on {@code executor}. */
+  public static <V> CompletableFuture<V> callAsync(
+      final Callable<V> flow, Executor executor) {
+    final CompletableFuture<V> result = new CompletableFuture<>();
+    executor.execute(() -> {
+      try {
+        result.complete(flow.call());
+      } catch (Throwable t) {
+        result.completeExceptionally(t);
+      }
+    });
+    return result;
+  }
+
+  /** Returns true if the running JVM supports virtual threads. */
+  public static boolean isVirtualThreadsSupported() {
+    return virtualThreadFactoryMethod() != null;
+  }
+
+  /**
+   * Returns an executor for blocking flows. Uses a virtual thread per task when the JVM supports
+   * it; otherwise falls back to a pool of {@code fallbackThreads} daemon platform threads.
+   */
+  public static ExecutorService newBlockingFlowExecutor(int fallbackThreads) {
+    Method factory = virtualThreadFactoryMethod();
+    if (factory != null) {
+      try {
+        return (ExecutorService) factory.invoke(null);
+      } catch (IllegalAccessException | InvocationTargetException e) {
+        // Fall through to platform threads.
+      }
+    }
+
+    final AtomicInteger count = new AtomicInteger();
+    ThreadPoolExecutor executor = new ThreadPoolExecutor(fallbackThreads, fallbackThreads,
+        60, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(), runnable -> {
+          Thread thread = new Thread(runnable, "blocking-flow-" + count.incrementAndGet());
+          thread.setDaemon(true);
+          return thread;
+        });
+    executor.allowCoreThreadTimeOut(true);
+    return executor;
+  }
+
+  private static Method virtualThreadFactoryMethod() {
+    try {
+      return Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+    } catch (NoSuchMethodException e) {
+      return null;
+    }
+  }
+}
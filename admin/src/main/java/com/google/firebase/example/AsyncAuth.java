@@ -0,0 +1,116 @@
+/*
+ * Copyright 2026 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.firebase.example;
+
+import com.google.firebase.auth.DeleteUsersResult;
+import com.google.firebase.auth.FirebaseAuth;
+import com.google.firebase.auth.FirebaseToken;
+import com.google.firebase.auth.GetUsersResult;
+import com.google.firebase.auth.ListUsersPage;
+import com.google.firebase.auth.UserIdentifier;
+import com.google.firebase.auth.UserRecord;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+import static com.google.firebase.example.AdminFutures.toCompletableFuture;
+
+/**
+ * Non-blocking view of the {@link FirebaseAuth} operations used in {@link FirebaseAuthSnippets}.
+ *
+ * <p>Every method returns a {@link CompletableFuture} that completes on the executor passed to
+ * the constructor, so callers can compose Auth calls without blocking on {@code get()}.
+ */
+public final class AsyncAuth {
+
+  private final FirebaseAuth auth;
+  private final Executor executor;
+
+  public AsyncAuth(FirebaseAuth auth, Executor executor) {
+    if (auth == null || executor == null) {
+      throw new IllegalArgumentException("auth and executor must not be null");
+    }
+    this.auth = auth;
+    this.executor = executor;
+  }
+
+  public CompletableFuture<GetUsersResult> getUsers(Collection<UserIdentifier> identifiers) {
+    return toCompletableFuture(auth.getUsersAsync(identifiers), executor);
+  }
+
+  public CompletableFuture<DeleteUsersResult> deleteUsers(List<String> uids) {
+    return toCompletableFuture(auth.deleteUsersAsync(uids), executor);
+  }
+
+  public CompletableFuture<UserRecord> getUser(String uid) {
+    return toCompletableFuture(auth.getUserAsync(uid), executor);
+  }
+
+  public CompletableFuture<UserRecord> getUserByEmail(String email) {
+    return toCompletableFuture(auth.getUserByEmailAsync(email), executor);
+  }
+
+  public CompletableFuture<UserRecord> getUserByPhoneNumber(String phoneNumber) {
+    return toCompletableFuture(auth.getUserByPhoneNumberAsync(phoneNumber), executor);
+  }
+
+  public CompletableFuture<UserRecord> createUser(UserRecord.CreateRequest request) {
+    return toCompletableFuture(auth.createUserAsync(request), executor);
+  }
+
+  public CompletableFuture<UserRecord> updateUser(UserRecord.UpdateRequest request) {
+    return toCompletableFuture(auth.updateUserAsync(request), executor);
+  }
+
+  public CompletableFuture<Void> setCustomUserClaims(String uid, Map<String, Object> claims) {
+    return toCompletableFuture(auth.setCustomUserClaimsAsync(uid, claims), executor);
+  }
+
+  public CompletableFuture<ListUsersPage> listUsers(String pageToken) {
+    return toCompletableFuture(auth.listUsersAsync(pageToken), executor);
+  }
+
+  public CompletableFuture<ListUsersPage> listUsers(String pageToken, int maxResults) {
+    return toCompletableFuture(auth.listUsersAsync(pageToken, maxResults), executor);
+  }
+
+  public CompletableFuture<Void> deleteUser(String uid) {
+    return toCompletableFuture(auth.deleteUserAsync(uid), executor);
+  }
+
+  public CompletableFuture<String> createCustomToken(String uid) {
+    return toCompletableFuture(auth.createCustomTokenAsync(uid), executor);
+  }
+
+  public CompletableFuture<String> createCustomToken(String uid, Map<String, Object> claims) {
+    return toCompletableFuture(auth.createCustomTokenAsync(uid, claims), executor);
+  }
+
+  public CompletableFuture<FirebaseToken> verifyIdToken(String idToken) {
+    return toCompletableFuture(auth.verifyIdTokenAsync(idToken), executor);
+  }
+
+  public CompletableFuture<FirebaseToken> verifyIdToken(String idToken, boolean checkRevoked) {
+    return toCompletableFuture(auth.verifyIdTokenAsync(idToken, checkRevoked), executor);
+  }
+
+  public CompletableFuture<Void> revokeRefreshTokens(String uid) {
+    return toCompletableFuture(auth.revokeRefreshTokensAsync(uid), executor);
+  }
+}
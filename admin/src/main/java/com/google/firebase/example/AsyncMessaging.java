@@ -0,0 +1,67 @@
+/*
+ * Copyright 2026 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.firebase.example;
+
+import com.google.firebase.messaging.FirebaseMessaging;
+import com.google.firebase.messaging.Message;
+import com.google.firebase.messaging.TopicManagementResponse;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+import static com.google.firebase.example.AdminFutures.toCompletableFuture;
+
+/**
+ * Non-blocking view of the {@link FirebaseMessaging} operations used in
+ * {@link FirebaseMessagingSnippets}.
+ *
+ * <p>Every method returns a {@link CompletableFuture} that completes on the executor passed to
+ * the constructor.
+ */
+public final class AsyncMessaging {
+
+  private final FirebaseMessaging messaging;
+  private final Executor executor;
+
+  public AsyncMessaging(FirebaseMessaging messaging, Executor executor) {
+    if (messaging == null || executor == null) {
+      throw new IllegalArgumentException("messaging and executor must not be null");
+    }
+    this.messaging = messaging;
+    this.executor = executor;
+  }
+
+  public CompletableFuture<String> send(Message message) {
+    return toCompletableFuture(messaging.sendAsync(message), executor);
+  }
+
+  public CompletableFuture<String> send(Message message, boolean dryRun) {
+    return toCompletableFuture(messaging.sendAsync(message, dryRun), executor);
+  }
+
+  public CompletableFuture<TopicManagementResponse> subscribeToTopic(
+      List<String> registrationTokens, String topic) {
+    return toCompletableFuture(
+        messaging.subscribeToTopicAsync(registrationTokens, topic), executor);
+  }
+
+  public CompletableFuture<TopicManagementResponse> unsubscribeFromTopic(
+      List<String> registrationTokens, String topic) {
+    return toCompletableFuture(
+        messaging.unsubscribeFromTopicAsync(registrationTokens, topic), executor);
+  }
+}
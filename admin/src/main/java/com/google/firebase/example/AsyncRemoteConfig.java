@@ -0,0 +1,70 @@
+/*
+ * Copyright 2026 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.firebase.example;
+
+import com.google.firebase.remoteconfig.FirebaseRemoteConfig;
+import com.google.firebase.remoteconfig.ListVersionsPage;
+import com.google.firebase.remoteconfig.Template;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+import static com.google.firebase.example.AdminFutures.toCompletableFuture;
+
+/**
+ * Non-blocking view of the {@link FirebaseRemoteConfig} operations used in
+ * {@link FirebaseRemoteConfigSnippets}.
+ *
+ * <p>Every method returns a {@link CompletableFuture} that completes on the executor passed to
+ * the constructor.
+ */
+public final class AsyncRemoteConfig {
+
+  private final FirebaseRemoteConfig remoteConfig;
+  private final Executor executor;
+
+  public AsyncRemoteConfig(FirebaseRemoteConfig remoteConfig, Executor executor) {
+    if (remoteConfig == null || executor == null) {
+      throw new IllegalArgumentException("remoteConfig and executor must not be null");
+    }
+    this.remoteConfig = remoteConfig;
+    this.executor = executor;
+  }
+
+  public CompletableFuture<Template> getTemplate() {
+    return toCompletableFuture(remoteConfig.getTemplateAsync(), executor);
+  }
+
+  public CompletableFuture<Template> getTemplateAtVersion(long versionNumber) {
+    return toCompletableFuture(remoteConfig.getTemplateAtVersionAsync(versionNumber), executor);
+  }
+
+  public CompletableFuture<Template> validateTemplate(Template template) {
+    return toCompletableFuture(remoteConfig.validateTemplateAsync(template), executor);
+  }
+
+  public CompletableFuture<Template> publishTemplate(Template template) {
+    return toCompletableFuture(remoteConfig.publishTemplateAsync(template), executor);
+  }
+
+  public CompletableFuture<Template> rollback(long versionNumber) {
+    return toCompletableFuture(remoteConfig.rollbackAsync(versionNumber), executor);
+  }
+
+  public CompletableFuture<ListVersionsPage> listVersions() {
+    return toCompletableFuture(remoteConfig.listVersionsAsync(), executor);
+  }
+}
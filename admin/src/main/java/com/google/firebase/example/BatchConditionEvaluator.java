@@ -0,0 +1,439 @@
+/*
+ * Copyright 2026 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.firebase.example;
+
+import com.google.firebase.remoteconfig.Template;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Evaluates the conditions of a Remote Config template for millions of users at once, for
+ * audience sizing or to precompute per-user config offline.
+ *
+ * <p>Users are passed as {@link Columns}, one array per attribute. The rows are split into
+ * blocks of 64 and the blocks are evaluated in parallel on a {@link ForkJoinPool}. Within a
+ * block every condition is tested against each row with the same compiled
+ * {@link ConditionExpression} trees {@link RemoteConfigEvaluator} uses, and the outcomes are
+ * packed into one 64-bit word per condition. Parameter values are then resolved a word at a
+ * time with bitwise operations: in priority order each conditional value takes the rows its
+ * condition matches that no earlier condition claimed, and the default takes the rest. Because
+ * each task owns whole words, no synchronization is needed on the result arrays.
+ */
+public final class BatchConditionEvaluator {
+
+  private static final int ROWS_PER_WORD = 64;
+  // 256 words, or 16384 rows, per leaf task.
+  private static final int WORDS_PER_TASK = 256;
+
+  private final RemoteConfigEvaluator evaluator;
+  // For each parameter, its distinct explicit values, and for each of its conditional values and
+  // its default the index into that list, or -1 for the in-app default.
+  private final String[][] distinctValues;
+  private final int[][] conditionalSlots;
+  private final int[] defaultSlots;
+
+  private BatchConditionEvaluator(RemoteConfigEvaluator evaluator) {
+    this.evaluator = evaluator;
+    int parameters = evaluator.parameterNames.length;
+    this.distinctValues = new String[parameters][];
+    this.conditionalSlots = new int[parameters][];
+    this.defaultSlots = new int[parameters];
+    for (int p = 0; p < parameters; p++) {
+      List<String> values = new ArrayList<>();
+      Map<String, Integer> slots = new HashMap<>();
+      String[] conditionalValues = evaluator.conditionalValues[p];
+      conditionalSlots[p] = new int[conditionalValues.length];
+      for (int i = 0; i < conditionalValues.length; i++) {
+        conditionalSlots[p][i] = slotOf(conditionalValues[i], values, slots);
+      }
+      defaultSlots[p] = slotOf(evaluator.defaultValues[p], values, slots);
+      distinctValues[p] = values.toArray(new String[0]);
+    }
+  }
+
+  /**
+   * Compiles the conditions and parameters of {@code template}.
+   *
+   * @throws IllegalArgumentException if a condition cannot be compiled or a parameter refers to
+   *     a condition the template does not define.
+   */
+  public static BatchConditionEvaluator compile(Template template) {
+    return new BatchConditionEvaluator(RemoteConfigEvaluator.compile(template));
+  }
+
+  /** Evaluates all conditions and parameters for {@code columns} on the common pool. */
+  public Result evaluate(Columns columns) {
+    return evaluate(columns, ForkJoinPool.commonPool());
+  }
+
+  /** Evaluates all conditions and parameters for {@code columns} on {@code pool}. */
+  public Result evaluate(Columns columns, ForkJoinPool pool) {
+    int words = (columns.size + ROWS_PER_WORD - 1) / ROWS_PER_WORD;
+    long[][] matches = new long[evaluator.conditions.length][words];
+    long[][][] assignments = new long[distinctValues.length][][];
+    for (int p = 0; p < distinctValues.length; p++) {
+      assignments[p] = new long[distinctValues[p].length][words];
+    }
+    pool.invoke(new EvaluateTask(columns, matches, assignments, 0, words));
+    return new Result(columns.size, matches, assignments);
+  }
+
+  private final class EvaluateTask extends RecursiveAction {
+
+    private static final long serialVersionUID = 1L;
+
+    // Tasks are never serialized; the columns are only shared between the pool's threads.
+    private final transient Columns columns;
+    private final long[][] matches;
+    private final long[][][] assignments;
+    private final int fromWord;
+    private final int toWord;
+
+    EvaluateTask(Columns columns, long[][] matches, long[][][] assignments, int fromWord,
+        int toWord) {
+      this.columns = columns;
+      this.matches = matches;
+      this.assignments = assignments;
+      this.fromWord = fromWord;
+      this.toWord = toWord;
+    }
+
+    @Override
+    protected void compute() {
+      if (toWord - fromWord > WORDS_PER_TASK) {
+        int middle = (fromWord + toWord) >>> 1;
+        invokeAll(new EvaluateTask(columns, matches, assignments, fromWord, middle),
+            new EvaluateTask(columns, matches, assignments, middle, toWord));
+        return;
+      }
+      Row row = new Row(columns);
+      ConditionExpression[] conditions = evaluator.conditions;
+      int[][] conditionalIndexes = evaluator.conditionalIndexes;
+      for (int word = fromWord; word < toWord; word++) {
+        int base = word * ROWS_PER_WORD;
+        int rows = Math.min(ROWS_PER_WORD, columns.size - base);
+        for (int c = 0; c < conditions.length; c++) {
+          long bits = 0;
+          for (int i = 0; i < rows; i++) {
+            row.index = base + i;
+            if (conditions[c].test(row)) {
+              bits |= 1L << i;
+            }
+          }
+          matches[c][word] = bits;
+        }
+
+        long allRows = rows == ROWS_PER_WORD ? -1L : (1L << rows) - 1;
+        for (int p = 0; p < assignments.length; p++) {
+          long unclaimed = allRows;
+          int[] indexes = conditionalIndexes[p];
+          for (int i = 0; i < indexes.length && unclaimed != 0; i++) {
+            long hits = matches[indexes[i]][word] & unclaimed;
+            if (conditionalSlots[p][i] >= 0) {
+              assignments[p][conditionalSlots[p][i]][word] |= hits;
+            }
+            unclaimed &= ~hits;
+          }
+          if (defaultSlots[p] >= 0) {
+            assignments[p][defaultSlots[p]][word] |= unclaimed;
+          }
+        }
+      }
+    }
+  }
+
+  /** The outcome of a batch evaluation. Its bit sets are shared and must not be modified. */
+  public final class Result {
+
+    private final int size;
+    private final Map<String, BitSet> matches = new LinkedHashMap<>();
+    private final Map<String, Map<String, BitSet>> assignments = new LinkedHashMap<>();
+
+    private Result(int size, long[][] matchWords, long[][][] assignmentWords) {
+      this.size = size;
+      for (int c = 0; c < matchWords.length; c++) {
+        matches.put(evaluator.conditionNames[c], BitSet.valueOf(matchWords[c]));
+      }
+      for (int p = 0; p < assignmentWords.length; p++) {
+        Map<String, BitSet> rowsByValue = new LinkedHashMap<>();
+        for (int slot = 0; slot < assignmentWords[p].length; slot++) {
+          rowsByValue.put(distinctValues[p][slot], BitSet.valueOf(assignmentWords[p][slot]));
+        }
+        assignments.put(evaluator.parameterNames[p], Collections.unmodifiableMap(rowsByValue));
+      }
+    }
+
+    /** Number of users evaluated. */
+    public int size() {
+      return size;
+    }
+
+    /** Returns the rows {@code condition} holds for, or null if there is no such condition. */
+    public BitSet getMatches(String condition) {
+      return matches.get(condition);
+    }
+
+    /** Returns the number of users {@code condition} holds for. */
+    public int getMatchCount(String condition) {
+      BitSet rows = matches.get(condition);
+      return rows != null ? rows.cardinality() : 0;
+    }
+
+    /**
+     * Returns the rows that get each explicit value of {@code parameter}. Rows missing from every
+     * set resolve to the in-app default. Returns an empty map for unknown parameters.
+     */
+    public Map<String, BitSet> getAssignments(String parameter) {
+      Map<String, BitSet> rowsByValue = assignments.get(parameter);
+      return rowsByValue != null ? rowsByValue : Collections.<String, BitSet>emptyMap();
+    }
+
+    /** Returns the value {@code parameter} resolves to for {@code row}, or null for the in-app
+     * default. */
+    public String getValue(String parameter, int row) {
+      for (Map.Entry<String, BitSet> entry : getAssignments(parameter).entrySet()) {
+        if (entry.getValue().get(row)) {
+          return entry.getKey();
+        }
+      }
+      return null;
+    }
+
+    /** Returns how many users get each explicit value of {@code parameter}. */
+    public Map<String, Integer> getValueCounts(String parameter) {
+      Map<String, Integer> counts = new LinkedHashMap<>();
+      for (Map.Entry<String, BitSet> entry : getAssignments(parameter).entrySet()) {
+        counts.put(entry.getKey(), entry.getValue().cardinality());
+      }
+      return counts;
+    }
+  }
+
+  /**
+   * User attributes in columnar form: row {@code i} of every column describes user {@code i}.
+   * Columns that are not set, and null entries, mean the attribute is unknown.
+   */
+  public static final class Columns {
+
+    private final int size;
+    private final String[] appId;
+    private final String[] appVersion;
+    private final String[] appBuild;
+    private final String[] deviceOs;
+    private final String[] deviceLanguage;
+    private final String[] deviceCountry;
+    private final String[] randomizationId;
+    private final Map<String, String[]> userProperties;
+    private final Map<String, String[]> customSignals;
+    private final long nowMillis;
+
+    private Columns(Builder builder) {
+      this.size = builder.size;
+      this.appId = builder.appId;
+      this.appVersion = builder.appVersion;
+      this.appBuild = builder.appBuild;
+      this.deviceOs = builder.deviceOs;
+      this.deviceLanguage = builder.deviceLanguage;
+      this.deviceCountry = builder.deviceCountry;
+      this.randomizationId = builder.randomizationId;
+      this.userProperties = new HashMap<>(builder.userProperties);
+      this.customSignals = new HashMap<>(builder.customSignals);
+      this.nowMillis = builder.nowMillis != null ? builder.nowMillis : System.currentTimeMillis();
+    }
+
+    /** Starts a set of columns for {@code size} users. */
+    public static Builder builder(int size) {
+      return new Builder(size);
+    }
+
+    public int size() {
+      return size;
+    }
+
+    public static final class Builder {
+
+      private final int size;
+      private String[] appId;
+      private String[] appVersion;
+      private String[] appBuild;
+      private String[] deviceOs;
+      private String[] deviceLanguage;
+      private String[] deviceCountry;
+      private String[] randomizationId;
+      private Long nowMillis;
+      private final Map<String, String[]> userProperties = new HashMap<>();
+      private final Map<String, String[]> customSignals = new HashMap<>();
+
+      private Builder(int size) {
+        if (size < 0) {
+          throw new IllegalArgumentException("size must not be negative");
+        }
+        this.size = size;
+      }
+
+      public Builder setAppId(String[] appId) {
+        this.appId = checkLength(appId);
+        return this;
+      }
+
+      public Builder setAppVersion(String[] appVersion) {
+        this.appVersion = checkLength(appVersion);
+        return this;
+      }
+
+      public Builder setAppBuild(String[] appBuild) {
+        this.appBuild = checkLength(appBuild);
+        return this;
+      }
+
+      public Builder setDeviceOs(String[] deviceOs) {
+        this.deviceOs = checkLength(deviceOs);
+        return this;
+      }
+
+      public Builder setDeviceLanguage(String[] deviceLanguage) {
+        this.deviceLanguage = checkLength(deviceLanguage);
+        return this;
+      }
+
+      public Builder setDeviceCountry(String[] deviceCountry) {
+        this.deviceCountry = checkLength(deviceCountry);
+        return this;
+      }
+
+      /** Sets the per-installation IDs {@code percent} conditions hash. */
+      public Builder setRandomizationId(String[] randomizationId) {
+        this.randomizationId = checkLength(randomizationId);
+        return this;
+      }
+
+      /** Sets the time all rows are evaluated at. Defaults to the time {@link #build()} is
+       * called. */
+      public Builder setNowMillis(long nowMillis) {
+        this.nowMillis = nowMillis;
+        return this;
+      }
+
+      public Builder putUserProperty(String name, String[] values) {
+        userProperties.put(name, checkLength(values));
+        return this;
+      }
+
+      public Builder putCustomSignal(String name, String[] values) {
+        customSignals.put(name, checkLength(values));
+        return this;
+      }
+
+      public Columns build() {
+        return new Columns(this);
+      }
+
+      private String[] checkLength(String[] column) {
+        if (column != null && column.length != size) {
+          throw new IllegalArgumentException(
+              "column has " + column.length + " rows, expected " + size);
+        }
+        return column;
+      }
+    }
+  }
+
+  /** A cursor over one row of {@link Columns}; reused for every row a task evaluates. */
+  private static final class Row implements ConditionExpression.Attributes {
+
+    private final Columns columns;
+    int index;
+
+    Row(Columns columns) {
+      this.columns = columns;
+    }
+
+    private String at(String[] column) {
+      return column != null ? column[index] : null;
+    }
+
+    @Override
+    public String getAppId() {
+      return at(columns.appId);
+    }
+
+    @Override
+    public String getAppVersion() {
+      return at(columns.appVersion);
+    }
+
+    @Override
+    public String getAppBuild() {
+      return at(columns.appBuild);
+    }
+
+    @Override
+    public String getDeviceOs() {
+      return at(columns.deviceOs);
+    }
+
+    @Override
+    public String getDeviceLanguage() {
+      return at(columns.deviceLanguage);
+    }
+
+    @Override
+    public String getDeviceCountry() {
+      return at(columns.deviceCountry);
+    }
+
+    @Override
+    public String getRandomizationId() {
+      return at(columns.randomizationId);
+    }
+
+    @Override
+    public long getNowMillis() {
+      return columns.nowMillis;
+    }
+
+    @Override
+    public String getUserProperty(String name) {
+      return at(columns.userProperties.get(name));
+    }
+
+    @Override
+    public String getCustomSignal(String name) {
+      return at(columns.customSignals.get(name));
+    }
+  }
+
+  private static int slotOf(String value, List<String> values, Map<String, Integer> slots) {
+    if (value == null) {
+      return -1;
+    }
+    Integer slot = slots.get(value);
+    if (slot == null) {
+      slot = values.size();
+      values.add(value);
+      slots.put(value, slot);
+    }
+    return slot;
+  }
+}
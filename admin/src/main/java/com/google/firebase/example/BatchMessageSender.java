@@ -0,0 +1,273 @@
+/*
+ * Copyright 2026 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.firebase.example;
+
+import com.google.api.core.ApiFuture;
+import com.google.api.core.ApiFutureCallback;
+import com.google.api.core.ApiFutures;
+import com.google.api.core.SettableApiFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.firebase.messaging.BatchResponse;
+import com.google.firebase.messaging.FirebaseMessaging;
+import com.google.firebase.messaging.Message;
+import com.google.firebase.messaging.SendResponse;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coalesces individual messages into {@code sendAllAsync} batch calls.
+ *
+ * <p>{@link #send(Message)} queues a message and returns a future for its message ID. Queued
+ * messages are sent as soon as a batch is full, or once the oldest of them has waited for the
+ * configured delay. The number of batches in flight is bounded; when the limit is reached,
+ * {@link #send(Message)} blocks until a batch completes, so a fast producer cannot queue
+ * unbounded work.
+ *
+ * <p>Close the sender to flush queued messages and wait for outstanding batches.
+ */
+public final class BatchMessageSender implements Closeable {
+
+  /** Largest number of messages accepted by {@code sendAllAsync}. */
+  public static final int MAX_MESSAGES_PER_BATCH = 500;
+
+  private final FirebaseMessaging messaging;
+  private final int maxBatchSize;
+  private final long maxDelayMillis;
+  private final int maxConcurrentBatches;
+  private final boolean dryRun;
+  private final Semaphore batchPermits;
+  private final ScheduledExecutorService scheduler;
+
+  private final Object lock = new Object();
+  private List<Pending> pending;
+  private boolean closed;
+
+  private BatchMessageSender(Builder builder) {
+    this.messaging = builder.messaging;
+    this.maxBatchSize = builder.maxBatchSize;
+    this.maxDelayMillis = builder.maxDelayMillis;
+    this.maxConcurrentBatches = builder.maxConcurrentBatches;
+    this.dryRun = builder.dryRun;
+    this.batchPermits = new Semaphore(maxConcurrentBatches);
+    this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "batch-message-sender");
+      thread.setDaemon(true);
+      return thread;
+    });
+  }
+
+  public static Builder builder(FirebaseMessaging messaging) {
+    return new Builder(messaging);
+  }
+
+  /**
+   * Queues {@code message} for the next batch. The returned future completes with the message
+   * ID, or fails with the {@code FirebaseMessagingException} reported for this message or for
+   * the whole batch.
+   *
+   * @throws IllegalStateException if the sender has been closed.
+   */
+  public ApiFuture<String> send(Message message) throws InterruptedException {
+    if (message == null) {
+      throw new IllegalArgumentException("message must not be null");
+    }
+    SettableApiFuture<String> future = SettableApiFuture.create();
+    List<Pending> full = null;
+    synchronized (lock) {
+      if (closed) {
+        throw new IllegalStateException("sender is closed");
+      }
+      if (pending == null) {
+        final List<Pending> batch = new ArrayList<>(maxBatchSize);
+        pending = batch;
+        scheduler.schedule(() -> flushIfCurrent(batch), maxDelayMillis, TimeUnit.MILLISECONDS);
+      }
+      pending.add(new Pending(message, future));
+      if (pending.size() >= maxBatchSize) {
+        full = pending;
+        pending = null;
+      }
+    }
+    if (full != null) {
+      dispatch(full);
+    }
+    return future;
+  }
+
+  /** Sends any queued messages now, without waiting for the batch to fill. */
+  public void flush() throws InterruptedException {
+    List<Pending> batch;
+    synchronized (lock) {
+      batch = pending;
+      pending = null;
+    }
+    if (batch != null) {
+      dispatch(batch);
+    }
+  }
+
+  /** Flushes queued messages and waits until every batch has completed. */
+  @Override
+  public void close() {
+    synchronized (lock) {
+      if (closed) {
+        return;
+      }
+      closed = true;
+    }
+    try {
+      flush();
+      // Let a timed flush that is already running finish; later ones find nothing queued.
+      scheduler.shutdown();
+      scheduler.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+      batchPermits.acquire(maxConcurrentBatches);
+      batchPermits.release(maxConcurrentBatches);
+    } catch (InterruptedException e) {
+      scheduler.shutdownNow();
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private void flushIfCurrent(List<Pending> batch) {
+    synchronized (lock) {
+      if (pending != batch) {
+        // Already sent because it filled up or was flushed.
+        return;
+      }
+      pending = null;
+    }
+    try {
+      dispatch(batch);
+    } catch (InterruptedException e) {
+      for (Pending p : batch) {
+        p.future.setException(e);
+      }
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private void dispatch(final List<Pending> batch) throws InterruptedException {
+    batchPermits.acquire();
+    List<Message> messages = new ArrayList<>(batch.size());
+    for (Pending p : batch) {
+      messages.add(p.message);
+    }
+
+    ApiFuture<BatchResponse> response;
+    try {
+      response = messaging.sendAllAsync(messages, dryRun);
+    } catch (RuntimeException e) {
+      batchPermits.release();
+      for (Pending p : batch) {
+        p.future.setException(e);
+      }
+      return;
+    }
+    ApiFutures.addCallback(response, new ApiFutureCallback<BatchResponse>() {
+      @Override
+      public void onSuccess(BatchResponse result) {
+        batchPermits.release();
+        // Responses are in the same order as the messages in the batch.
+        List<SendResponse> responses = result.getResponses();
+        for (int i = 0; i < batch.size(); i++) {
+          SendResponse sendResponse = responses.get(i);
+          if (sendResponse.isSuccessful()) {
+            batch.get(i).future.set(sendResponse.getMessageId());
+          } else {
+            batch.get(i).future.setException(sendResponse.getException());
+          }
+        }
+      }
+
+      @Override
+      public void onFailure(Throwable t) {
+        batchPermits.release();
+        for (Pending p : batch) {
+          p.future.setException(t);
+        }
+      }
+    }, MoreExecutors.directExecutor());
+  }
+
+  private static final class Pending {
+
+    final Message message;
+    final SettableApiFuture<String> future;
+
+    Pending(Message message, SettableApiFuture<String> future) {
+      this.message = message;
+      this.future = future;
+    }
+  }
+
+  public static final class Builder {
+
+    private final FirebaseMessaging messaging;
+    private int maxBatchSize = MAX_MESSAGES_PER_BATCH;
+    private long maxDelayMillis = 50;
+    private int maxConcurrentBatches = 4;
+    private boolean dryRun;
+
+    private Builder(FirebaseMessaging messaging) {
+      if (messaging == null) {
+        throw new IllegalArgumentException("messaging must not be null");
+      }
+      this.messaging = messaging;
+    }
+
+    public Builder setMaxBatchSize(int maxBatchSize) {
+      if (maxBatchSize < 1 || maxBatchSize > MAX_MESSAGES_PER_BATCH) {
+        throw new IllegalArgumentException(
+            "maxBatchSize must be between 1 and " + MAX_MESSAGES_PER_BATCH);
+      }
+      this.maxBatchSize = maxBatchSize;
+      return this;
+    }
+
+    /** Sets how long a queued message may wait for its batch to fill. */
+    public Builder setMaxDelay(long delay, TimeUnit unit) {
+      if (delay < 0) {
+        throw new IllegalArgumentException("delay must not be negative");
+      }
+      this.maxDelayMillis = unit.toMillis(delay);
+      return this;
+    }
+
+    public Builder setMaxConcurrentBatches(int maxConcurrentBatches) {
+      if (maxConcurrentBatches < 1) {
+        throw new IllegalArgumentException("maxConcurrentBatches must be at least 1");
+      }
+      this.maxConcurrentBatches = maxConcurrentBatches;
+      return this;
+    }
+
+    /** Validates every message with FCM without delivering it. */
+    public Builder setDryRun(boolean dryRun) {
+      this.dryRun = dryRun;
+      return this;
+    }
+
+    public BatchMessageSender build() {
+      return new BatchMessageSender(this);
+    }
+  }
+}
@@ -0,0 +1,304 @@
+/*
+ * Copyright 2026 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.firebase.example;
+
+import com.google.firebase.auth.DeleteUsersResult;
+import com.google.firebase.auth.ErrorInfo;
+import com.google.firebase.auth.FirebaseAuth;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Deletes a stream of uids with chunked, rate-limited and concurrent {@code deleteUsersAsync}
+ * calls.
+ *
+ * <p>Uids are grouped into chunks of at most {@link #MAX_UIDS_PER_REQUEST}. Each chunk takes a
+ * permit from a {@link TokenBucket} before it is sent, and at most {@code maxInFlight} chunks are
+ * outstanding at once. Uids reported in {@link DeleteUsersResult#getErrors()} are retried in a
+ * new chunk, and chunks whose whole request failed are resent; both wait out an exponential
+ * backoff first, until {@code maxAttempts} is reached. Progress is reported to an optional
+ * {@link ProgressListener} after every response.
+ */
+public final class BulkUserDeleter {
+
+  /** Maximum number of uids the Auth backend accepts in one {@code deleteUsers} call. */
+  public static final int MAX_UIDS_PER_REQUEST = 1000;
+
+  private static final long INITIAL_BACKOFF_MILLIS = 500;
+  private static final long MAX_BACKOFF_MILLIS = 30_000;
+
+  /** Receives a snapshot after every completed {@code deleteUsersAsync} call. */
+  public interface ProgressListener {
+
+    void onProgress(Progress progress);
+  }
+
+  /** Running totals of a deletion job. */
+  public static final class Progress {
+
+    private final long submitted;
+    private final long deleted;
+    private final long failed;
+    private final long retried;
+    private final long elapsedNanos;
+
+    Progress(long submitted, long deleted, long failed, long retried, long elapsedNanos) {
+      this.submitted = submitted;
+      this.deleted = deleted;
+      this.failed = failed;
+      this.retried = retried;
+      this.elapsedNanos = elapsedNanos;
+    }
+
+    /** Number of distinct uids read from the input so far. */
+    public long getSubmitted() {
+      return submitted;
+    }
+
+    public long getDeleted() {
+      return deleted;
+    }
+
+    /** Number of uids that failed on their final attempt. */
+    public long getFailed() {
+      return failed;
+    }
+
+    /** Number of uid deletions that were scheduled again after a failure. */
+    public long getRetried() {
+      return retried;
+    }
+
+    public long getElapsedMillis() {
+      return TimeUnit.NANOSECONDS.toMillis(elapsedNanos);
+    }
+
+    /** Deleted uids per second since the job started. */
+    public double getThroughput() {
+      return elapsedNanos == 0 ? 0 : deleted * 1e9 / elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+      return String.format("submitted=%d, deleted=%d, failed=%d, retried=%d, %.1f uids/s",
+          submitted, deleted, failed, retried, getThroughput());
+    }
+  }
+
+  /** A uid that could not be deleted within the configured number of attempts. */
+  public static final class Failure {
+
+    private final String uid;
+    private final String reason;
+
+    Failure(String uid, String reason) {
+      this.uid = uid;
+      this.reason = reason;
+    }
+
+    public String getUid() {
+      return uid;
+    }
+
+    public String getReason() {
+      return reason;
+    }
+
+    @Override
+    public String toString() {
+      return uid + ": " + reason;
+    }
+  }
+
+  /** Outcome of a {@link #deleteAll} run. */
+  public static final class Result {
+
+    private final Progress progress;
+    private final List<Failure> failures;
+
+    Result(Progress progress, List<Failure> failures) {
+      this.progress = progress;
+      this.failures = Collections.unmodifiableList(failures);
+    }
+
+    public Progress getProgress() {
+      return progress;
+    }
+
+    public List<Failure> getFailures() {
+      return failures;
+    }
+  }
+
+  private final FirebaseAuth auth;
+  private final int chunkSize;
+  private final int maxInFlight;
+  private final int maxAttempts;
+  private final TokenBucket rateLimiter;
+  private final ProgressListener progressListener;
+
+  private BulkUserDeleter(Builder builder) {
+    this.auth = builder.auth;
+    this.chunkSize = builder.chunkSize;
+    this.maxInFlight = builder.maxInFlight;
+    this.maxAttempts = builder.maxAttempts;
+    this.rateLimiter = new TokenBucket(builder.requestsPerSecond);
+    this.progressListener = builder.progressListener;
+  }
+
+  public static Builder builder(FirebaseAuth auth) {
+    return new Builder(auth);
+  }
+
+  /**
+   * Deletes every uid produced by {@code uids}, blocking until all chunks, including retries,
+   * have completed.
+   */
+  public Result deleteAll(Iterator<String> uids) throws InterruptedException {
+    Run run = new Run();
+    run.executor.run(uids, chunkSize, auth::deleteUsersAsync, run);
+
+    List<Failure> failures;
+    synchronized (run.failures) {
+      failures = new ArrayList<>(run.failures);
+    }
+    return new Result(run.snapshot(), failures);
+  }
+
+  private final class Run
+      implements ChunkedRetryExecutor.Handler<String, DeleteUsersResult> {
+
+    final long startNanos = System.nanoTime();
+    final ChunkedRetryExecutor<String, DeleteUsersResult> executor = new ChunkedRetryExecutor<>(
+        maxInFlight, maxAttempts, rateLimiter, INITIAL_BACKOFF_MILLIS, MAX_BACKOFF_MILLIS,
+        false);
+    final List<Failure> failures = new ArrayList<>();
+    final AtomicLong deleted = new AtomicLong();
+    final AtomicLong failed = new AtomicLong();
+
+    @Override
+    public void onSuccess(ChunkedRetryExecutor.Chunk<String> chunk, DeleteUsersResult result) {
+      deleted.addAndGet(result.getSuccessCount());
+      List<String> retryUids = new ArrayList<>();
+      for (ErrorInfo error : result.getErrors()) {
+        String uid = chunk.getItems().get(error.getIndex());
+        if (!chunk.isLastAttempt()) {
+          retryUids.add(uid);
+        } else {
+          fail(uid, error.getReason());
+        }
+      }
+      executor.retry(chunk, retryUids);
+      reportProgress();
+    }
+
+    @Override
+    public void onFailure(ChunkedRetryExecutor.Chunk<String> chunk, Throwable t) {
+      if (!chunk.isLastAttempt()) {
+        executor.retry(chunk, chunk.getItems());
+      } else {
+        for (String uid : chunk.getItems()) {
+          fail(uid, String.valueOf(t.getMessage()));
+        }
+      }
+      reportProgress();
+    }
+
+    private void fail(String uid, String reason) {
+      failed.incrementAndGet();
+      synchronized (failures) {
+        failures.add(new Failure(uid, reason));
+      }
+    }
+
+    private void reportProgress() {
+      if (progressListener != null) {
+        progressListener.onProgress(snapshot());
+      }
+    }
+
+    Progress snapshot() {
+      return new Progress(executor.getSubmitted(), deleted.get(), failed.get(),
+          executor.getRetried(), System.nanoTime() - startNanos);
+    }
+  }
+
+  public static final class Builder {
+
+    private final FirebaseAuth auth;
+    private int chunkSize = MAX_UIDS_PER_REQUEST;
+    private int maxInFlight = 4;
+    private int maxAttempts = 3;
+    // The bulk delete endpoint is rate limited to 1 QPS per project by default.
+    private double requestsPerSecond = 1;
+    private ProgressListener progressListener;
+
+    private Builder(FirebaseAuth auth) {
+      if (auth == null) {
+        throw new IllegalArgumentException("auth must not be null");
+      }
+      this.auth = auth;
+    }
+
+    public Builder setChunkSize(int chunkSize) {
+      if (chunkSize < 1 || chunkSize > MAX_UIDS_PER_REQUEST) {
+        throw new IllegalArgumentException(
+            "chunkSize must be between 1 and " + MAX_UIDS_PER_REQUEST);
+      }
+      this.chunkSize = chunkSize;
+      return this;
+    }
+
+    public Builder setMaxInFlight(int maxInFlight) {
+      if (maxInFlight < 1) {
+        throw new IllegalArgumentException("maxInFlight must be at least 1");
+      }
+      this.maxInFlight = maxInFlight;
+      return this;
+    }
+
+    /** Sets the total number of attempts per uid, including the first one. */
+    public Builder setMaxAttempts(int maxAttempts) {
+      if (maxAttempts < 1) {
+        throw new IllegalArgumentException("maxAttempts must be at least 1");
+      }
+      this.maxAttempts = maxAttempts;
+      return this;
+    }
+
+    public Builder setRequestsPerSecond(double requestsPerSecond) {
+      if (!(requestsPerSecond > 0)) {
+        throw new IllegalArgumentException("requestsPerSecond must be positive");
+      }
+      this.requestsPerSecond = requestsPerSecond;
+      return this;
+    }
+
+    public Builder setProgressListener(ProgressListener progressListener) {
+      this.progressListener = progressListener;
+      return this;
+    }
+
+    public BulkUserDeleter build() {
+      return new BulkUserDeleter(this);
+    }
+  }
+}
@@ -0,0 +1,205 @@
+/*
+ * Copyright 2026 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.firebase.example;
+
+import com.google.api.core.ApiFutureCallback;
+import com.google.api.core.ApiFutures;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.firebase.auth.FirebaseAuth;
+import com.google.firebase.auth.GetUsersResult;
+import com.google.firebase.auth.UserIdentifier;
+import com.google.firebase.auth.UserRecord;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Resolves an unbounded stream of user identifiers with pipelined {@code getUsersAsync} calls.
+ *
+ * <p>Identifiers are grouped into chunks of at most {@link #MAX_IDENTIFIERS_PER_REQUEST} and up
+ * to {@code maxInFlight} chunks are outstanding at any time. Once that limit is reached the
+ * caller blocks until a request completes, so memory use does not depend on the input size.
+ * Found users and unmatched identifiers are delivered to a single {@link ResultHandler} as the
+ * responses arrive.
+ */
+public final class BulkUserLookup {
+
+  /** Maximum number of identifiers the Auth backend accepts in one lookup. */
+  public static final int MAX_IDENTIFIERS_PER_REQUEST = 100;
+
+  /**
+   * Receives lookup results. Calls are serialized, so implementations do not need to be
+   * thread-safe, but they should return quickly since they run on SDK callback threads.
+   */
+  public interface ResultHandler {
+
+    void onUserFound(UserRecord user);
+
+    void onUserNotFound(UserIdentifier identifier);
+  }
+
+  /** Totals for a completed {@link #lookup} run. */
+  public static final class Summary {
+
+    private final long requests;
+    private final long found;
+    private final long notFound;
+
+    Summary(long requests, long found, long notFound) {
+      this.requests = requests;
+      this.found = found;
+      this.notFound = notFound;
+    }
+
+    public long getRequests() {
+      return requests;
+    }
+
+    public long getFound() {
+      return found;
+    }
+
+    public long getNotFound() {
+      return notFound;
+    }
+
+    @Override
+    public String toString() {
+      return "requests=" + requests + ", found=" + found + ", notFound=" + notFound;
+    }
+  }
+
+  private final FirebaseAuth auth;
+  private final int maxInFlight;
+  private final int chunkSize;
+
+  public BulkUserLookup(FirebaseAuth auth, int maxInFlight) {
+    this(auth, maxInFlight, MAX_IDENTIFIERS_PER_REQUEST);
+  }
+
+  public BulkUserLookup(FirebaseAuth auth, int maxInFlight, int chunkSize) {
+    if (auth == null) {
+      throw new IllegalArgumentException("auth must not be null");
+    }
+    if (maxInFlight < 1) {
+      throw new IllegalArgumentException("maxInFlight must be at least 1");
+    }
+    if (chunkSize < 1 || chunkSize > MAX_IDENTIFIERS_PER_REQUEST) {
+      throw new IllegalArgumentException(
+          "chunkSize must be between 1 and " + MAX_IDENTIFIERS_PER_REQUEST);
+    }
+    this.auth = auth;
+    this.maxInFlight = maxInFlight;
+    this.chunkSize = chunkSize;
+  }
+
+  /**
+   * Looks up every identifier produced by {@code identifiers}, blocking until all responses have
+   * been handed to {@code handler}.
+   *
+   * <p>If a request fails, no further chunks are issued, the requests already in flight are
+   * drained, and the first failure is rethrown.
+   */
+  public Summary lookup(Iterator<? extends UserIdentifier> identifiers,
+      ResultHandler handler) throws InterruptedException, ExecutionException {
+    Run run = new Run(handler);
+    List<UserIdentifier> chunk = new ArrayList<>(chunkSize);
+    try {
+      while (identifiers.hasNext() && run.failure.get() == null) {
+        chunk.add(identifiers.next());
+        if (chunk.size() == chunkSize) {
+          run.submit(chunk);
+          chunk = new ArrayList<>(chunkSize);
+        }
+      }
+      if (!chunk.isEmpty() && run.failure.get() == null) {
+        run.submit(chunk);
+      }
+    } finally {
+      run.awaitInFlight();
+    }
+
+    Throwable failure = run.failure.get();
+    if (failure != null) {
+      throw new ExecutionException(failure);
+    }
+    return new Summary(run.requests, run.found, run.notFound);
+  }
+
+  private final class Run {
+
+    private final ResultHandler handler;
+    private final Semaphore permits = new Semaphore(maxInFlight);
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+    // Guarded by "this"; the handler is invoked under the same lock.
+    private long requests;
+    private long found;
+    private long notFound;
+
+    Run(ResultHandler handler) {
+      this.handler = handler;
+    }
+
+    void submit(List<UserIdentifier> chunk) throws InterruptedException {
+      permits.acquire();
+      try {
+        ApiFutures.addCallback(auth.getUsersAsync(chunk), new ApiFutureCallback<GetUsersResult>() {
+          @Override
+          public void onSuccess(GetUsersResult result) {
+            try {
+              deliver(result);
+            } catch (RuntimeException e) {
+              failure.compareAndSet(null, e);
+            } finally {
+              permits.release();
+            }
+          }
+
+          @Override
+          public void onFailure(Throwable t) {
+            failure.compareAndSet(null, t);
+            permits.release();
+          }
+        }, MoreExecutors.directExecutor());
+      } catch (RuntimeException e) {
+        permits.release();
+        throw e;
+      }
+    }
+
+    private synchronized void deliver(GetUsersResult result) {
+      requests++;
+      for (UserRecord user : result.getUsers()) {
+        found++;
+        handler.onUserFound(user);
+      }
+      for (UserIdentifier identifier : result.getNotFound()) {
+        notFound++;
+        handler.onUserNotFound(identifier);
+      }
+    }
+
+    void awaitInFlight() throws InterruptedException {
+      permits.acquire(maxInFlight);
+      permits.release(maxInFlight);
+    }
+  }
+}
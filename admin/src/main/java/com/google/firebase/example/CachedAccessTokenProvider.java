@@ -0,0 +1,219 @@
+/*
+ * Copyright 2026 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.firebase.example;
+
+import com.google.auth.oauth2.AccessToken;
+import com.google.auth.oauth2.GoogleCredentials;
+
+import java.io.Closeable;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collection;
+import java.util.Date;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serves OAuth2 access tokens for raw REST calls from a single parsed set of credentials.
+ *
+ * <p>The cached token is returned as long as it is valid for more than the refresh margin. A
+ * background refresh is scheduled for when the margin is reached, so request threads normally
+ * never wait on the OAuth server. The margin is capped at half the token's lifetime and refreshes
+ * are at least {@link #MIN_REFRESH_DELAY_MILLIS} apart, so short-lived tokens do not cause a
+ * refresh loop. If a caller finds the token past its refresh time it triggers a refresh but keeps
+ * using the still valid token; only callers that find no valid token block. Concurrent refresh
+ * requests are collapsed into a single call to {@link GoogleCredentials#refreshAccessToken()}.
+ */
+public final class CachedAccessTokenProvider implements Closeable {
+
+  public static final long DEFAULT_REFRESH_MARGIN_MILLIS = TimeUnit.MINUTES.toMillis(5);
+
+  /** Shortest time between a refresh and the next one while the token is still valid. */
+  public static final long MIN_REFRESH_DELAY_MILLIS = TimeUnit.SECONDS.toMillis(30);
+
+  private static final long RETRY_DELAY_MILLIS = TimeUnit.SECONDS.toMillis(10);
+
+  private final GoogleCredentials credentials;
+  private final long refreshMarginMillis;
+  private final ScheduledExecutorService executor;
+  private final Object lock = new Object();
+
+  private volatile AccessToken token;
+  // When the cached token should next be refreshed.
+  private volatile long refreshAtMillis;
+  // Guarded by lock.
+  private CompletableFuture<AccessToken> refreshing;
+  private ScheduledFuture<?> scheduledRefresh;
+
+  public CachedAccessTokenProvider(GoogleCredentials credentials) {
+    this(credentials, DEFAULT_REFRESH_MARGIN_MILLIS);
+  }
+
+  public CachedAccessTokenProvider(GoogleCredentials credentials, long refreshMarginMillis) {
+    if (credentials == null) {
+      throw new IllegalArgumentException("credentials must not be null");
+    }
+    if (refreshMarginMillis < 0) {
+      throw new IllegalArgumentException("refreshMarginMillis must not be negative");
+    }
+    this.credentials = credentials;
+    this.refreshMarginMillis = refreshMarginMillis;
+    ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, runnable -> {
+      Thread thread = new Thread(runnable, "access-token-refresh");
+      thread.setDaemon(true);
+      return thread;
+    });
+    executor.setRemoveOnCancelPolicy(true);
+    this.executor = executor;
+  }
+
+  /** Reads a service account key file once and scopes the resulting credentials. */
+  public static CachedAccessTokenProvider fromServiceAccount(
+      String path, Collection<String> scopes) throws IOException {
+    try (InputStream serviceAccount = new FileInputStream(path)) {
+      return new CachedAccessTokenProvider(
+          GoogleCredentials.fromStream(serviceAccount).createScoped(scopes));
+    }
+  }
+
+  /** Returns a token value suitable for an {@code Authorization: Bearer} header. */
+  public String getAccessToken() throws IOException {
+    return getToken().getTokenValue();
+  }
+
+  public AccessToken getToken() throws IOException {
+    AccessToken current = token;
+    if (current != null) {
+      long now = System.currentTimeMillis();
+      if (now < refreshAtMillis) {
+        return current;
+      }
+      if (now < expirationMillis(current)) {
+        refreshAsync();
+        return current;
+      }
+    }
+    return await(refreshAsync());
+  }
+
+  @Override
+  public void close() {
+    executor.shutdownNow();
+  }
+
+  private CompletableFuture<AccessToken> refreshAsync() {
+    synchronized (lock) {
+      if (refreshing == null) {
+        final CompletableFuture<AccessToken> future = new CompletableFuture<>();
+        refreshing = future;
+        try {
+          executor.execute(() -> refresh(future));
+        } catch (RejectedExecutionException e) {
+          refreshing = null;
+          future.completeExceptionally(new IOException("Token provider is closed", e));
+        }
+      }
+      return refreshing;
+    }
+  }
+
+  private void refresh(CompletableFuture<AccessToken> future) {
+    AccessToken refreshed;
+    try {
+      refreshed = credentials.refreshAccessToken();
+    } catch (IOException | RuntimeException e) {
+      synchronized (lock) {
+        refreshing = null;
+      }
+      future.completeExceptionally(e);
+      // Keep trying in the background while the old token is still usable, without letting
+      // every caller start another attempt in the meantime.
+      AccessToken current = token;
+      if (current != null && System.currentTimeMillis() < expirationMillis(current)) {
+        refreshAtMillis = System.currentTimeMillis() + RETRY_DELAY_MILLIS;
+        schedule(RETRY_DELAY_MILLIS);
+      }
+      return;
+    }
+
+    long now = System.currentTimeMillis();
+    long expiresAt = expirationMillis(refreshed);
+    refreshAtMillis = refreshTime(now, expiresAt);
+    token = refreshed;
+    synchronized (lock) {
+      refreshing = null;
+    }
+    future.complete(refreshed);
+
+    if (expiresAt != Long.MAX_VALUE) {
+      schedule(refreshAtMillis - now);
+    }
+  }
+
+  /**
+   * Returns when a token obtained at {@code now} should be refreshed: {@code refreshMarginMillis}
+   * before it expires, but no later than halfway through its lifetime and no sooner than
+   * {@link #MIN_REFRESH_DELAY_MILLIS} from now, unless it expires first.
+   */
+  private long refreshTime(long now, long expiresAt) {
+    if (expiresAt == Long.MAX_VALUE) {
+      return Long.MAX_VALUE;
+    }
+    long margin = Math.min(refreshMarginMillis, (expiresAt - now) / 2);
+    return Math.min(expiresAt, Math.max(expiresAt - margin, now + MIN_REFRESH_DELAY_MILLIS));
+  }
+
+  private void schedule(long delayMillis) {
+    synchronized (lock) {
+      if (scheduledRefresh != null) {
+        scheduledRefresh.cancel(false);
+      }
+      try {
+        scheduledRefresh = executor.schedule(
+            this::refreshAsync, Math.max(0, delayMillis), TimeUnit.MILLISECONDS);
+      } catch (RejectedExecutionException e) {
+        // Closed; nothing left to refresh for.
+        scheduledRefresh = null;
+      }
+    }
+  }
+
+  private static long expirationMillis(AccessToken token) {
+    Date expirationTime = token.getExpirationTime();
+    return expirationTime != null ? expirationTime.getTime() : Long.MAX_VALUE;
+  }
+
+  private static AccessToken await(CompletableFuture<AccessToken> future) throws IOException {
+    try {
+      return future.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted while refreshing access token", e);
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof IOException) {
+        throw (IOException) cause;
+      }
+      throw new IOException("Failed to refresh access token", cause);
+    }
+  }
+}
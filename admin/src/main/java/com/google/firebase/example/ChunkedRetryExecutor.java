@@ -0,0 +1,275 @@
+/*
+ * Copyright 2026 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.firebase.example;
+
+import com.google.api.core.ApiFuture;
+import com.google.api.core.ApiFutureCallback;
+import com.google.api.core.ApiFutures;
+import com.google.common.util.concurrent.MoreExecutors;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sends a stream of items in chunks, with at most {@code maxInFlight} requests outstanding, an
+ * optional {@link TokenBucket} permit per request, and retries after an exponential backoff.
+ *
+ * <p>The {@link Handler} decides what to do with each response and calls {@link #retry} for the
+ * items that should be sent again. An executor runs a single job.
+ */
+final class ChunkedRetryExecutor<T, R> {
+
+  /** Sends one chunk of items. */
+  interface Sender<T, R> {
+
+    ApiFuture<R> send(List<T> items);
+  }
+
+  /** Receives the outcome of every request, on the thread that completed it. */
+  interface Handler<T, R> {
+
+    void onSuccess(Chunk<T> chunk, R response);
+
+    void onFailure(Chunk<T> chunk, Throwable t);
+  }
+
+  /** Items sent together in one request. */
+  static final class Chunk<T> {
+
+    private final List<T> items;
+    private final int attempt;
+    private final boolean lastAttempt;
+    private final long notBeforeNanos;
+    private volatile long sentNanos;
+
+    private Chunk(List<T> items, int attempt, boolean lastAttempt, long notBeforeNanos) {
+      this.items = items;
+      this.attempt = attempt;
+      this.lastAttempt = lastAttempt;
+      this.notBeforeNanos = notBeforeNanos;
+    }
+
+    List<T> getItems() {
+      return items;
+    }
+
+    int getAttempt() {
+      return attempt;
+    }
+
+    /** Whether the items of this chunk may no longer be retried. */
+    boolean isLastAttempt() {
+      return lastAttempt;
+    }
+
+    /** The {@link System#nanoTime()} at which the request for this chunk was sent. */
+    long getSentNanos() {
+      return sentNanos;
+    }
+  }
+
+  private final int maxInFlight;
+  private final int maxAttempts;
+  private final TokenBucket rateLimiter;
+  private final long initialBackoffMillis;
+  private final long maxBackoffMillis;
+  private final boolean jitter;
+
+  private final Semaphore permits;
+  private final ConcurrentLinkedQueue<Chunk<T>> retries = new ConcurrentLinkedQueue<>();
+  private final AtomicLong submitted = new AtomicLong();
+  private final AtomicLong retried = new AtomicLong();
+  // No request is sent before this time.
+  private final AtomicLong pausedUntilNanos = new AtomicLong(System.nanoTime());
+
+  private Sender<T, R> sender;
+  private Handler<T, R> handler;
+
+  /**
+   * Creates an executor for one job. {@code rateLimiter} may be null, and {@code jitter} adds up
+   * to the same again as the backoff, chosen at random, to each retry delay.
+   */
+  ChunkedRetryExecutor(int maxInFlight, int maxAttempts, TokenBucket rateLimiter,
+      long initialBackoffMillis, long maxBackoffMillis, boolean jitter) {
+    this.maxInFlight = maxInFlight;
+    this.maxAttempts = maxAttempts;
+    this.rateLimiter = rateLimiter;
+    this.initialBackoffMillis = initialBackoffMillis;
+    this.maxBackoffMillis = maxBackoffMillis;
+    this.jitter = jitter;
+    this.permits = new Semaphore(maxInFlight);
+  }
+
+  /**
+   * Sends every item produced by {@code items} in chunks of {@code chunkSize}, blocking until all
+   * requests, including retries, have completed.
+   */
+  void run(Iterator<T> items, int chunkSize, Sender<T, R> sender, Handler<T, R> handler)
+      throws InterruptedException {
+    if (this.handler != null) {
+      throw new IllegalStateException("executor has already run");
+    }
+    this.sender = sender;
+    this.handler = handler;
+    List<T> chunk = new ArrayList<>(chunkSize);
+    try {
+      while (items.hasNext()) {
+        submitDueRetries();
+        chunk.add(items.next());
+        if (chunk.size() == chunkSize) {
+          submitted.addAndGet(chunk.size());
+          submit(newChunk(chunk, 1, 0));
+          chunk = new ArrayList<>(chunkSize);
+        }
+      }
+      if (!chunk.isEmpty()) {
+        submitted.addAndGet(chunk.size());
+        submit(newChunk(chunk, 1, 0));
+      }
+
+      // Retries are only scheduled by completing chunks, so keep draining until a full wait
+      // on the in-flight requests leaves nothing behind.
+      do {
+        submitAllRetries();
+        awaitInFlight();
+      } while (!retries.isEmpty());
+    } finally {
+      awaitInFlight();
+    }
+  }
+
+  /**
+   * Schedules {@code items} from {@code chunk} to be sent again after the backoff for its attempt.
+   * Does nothing if {@code items} is empty, and must not be called with items of a chunk on its
+   * last attempt.
+   */
+  void retry(Chunk<T> chunk, List<T> items) {
+    retry(chunk, items, 0);
+  }
+
+  /** Like {@link #retry(Chunk, List)}, but waits at least {@code minDelayNanos}. */
+  void retry(Chunk<T> chunk, List<T> items, long minDelayNanos) {
+    if (items.isEmpty()) {
+      return;
+    }
+    if (chunk.isLastAttempt()) {
+      throw new IllegalStateException("chunk is on its last attempt");
+    }
+    retried.addAndGet(items.size());
+    retries.add(newChunk(items, chunk.getAttempt() + 1,
+        System.nanoTime() + Math.max(backoffNanos(chunk.getAttempt()), minDelayNanos)));
+  }
+
+  /** Holds back every request, including new chunks, until {@code deadlineNanos}. */
+  void pauseUntil(long deadlineNanos) {
+    long current;
+    while ((current = pausedUntilNanos.get()) - deadlineNanos < 0
+        && !pausedUntilNanos.compareAndSet(current, deadlineNanos)) {
+      // Retry until the later deadline is recorded.
+    }
+  }
+
+  /** Number of items read from the input so far. */
+  long getSubmitted() {
+    return submitted.get();
+  }
+
+  /** Number of item sends that were scheduled again after a failure. */
+  long getRetried() {
+    return retried.get();
+  }
+
+  private Chunk<T> newChunk(List<T> items, int attempt, long notBeforeNanos) {
+    return new Chunk<>(items, attempt, attempt >= maxAttempts, notBeforeNanos);
+  }
+
+  /** Sends the retries whose backoff has passed, so new chunks are not held up behind them. */
+  private void submitDueRetries() throws InterruptedException {
+    for (Iterator<Chunk<T>> it = retries.iterator(); it.hasNext(); ) {
+      Chunk<T> chunk = it.next();
+      if (chunk.notBeforeNanos - System.nanoTime() <= 0 && retries.remove(chunk)) {
+        submit(chunk);
+      }
+    }
+  }
+
+  private void submitAllRetries() throws InterruptedException {
+    Chunk<T> chunk;
+    while ((chunk = retries.poll()) != null) {
+      sleepUntil(chunk.notBeforeNanos);
+      submit(chunk);
+    }
+  }
+
+  private void submit(final Chunk<T> chunk) throws InterruptedException {
+    permits.acquire();
+    try {
+      sleepUntil(pausedUntilNanos.get());
+      if (rateLimiter != null) {
+        rateLimiter.acquire();
+      }
+      chunk.sentNanos = System.nanoTime();
+      ApiFutures.addCallback(sender.send(chunk.items), new ApiFutureCallback<R>() {
+        @Override
+        public void onSuccess(R response) {
+          try {
+            handler.onSuccess(chunk, response);
+          } finally {
+            permits.release();
+          }
+        }
+
+        @Override
+        public void onFailure(Throwable t) {
+          try {
+            handler.onFailure(chunk, t);
+          } finally {
+            permits.release();
+          }
+        }
+      }, MoreExecutors.directExecutor());
+    } catch (InterruptedException | RuntimeException e) {
+      permits.release();
+      throw e;
+    }
+  }
+
+  private void awaitInFlight() throws InterruptedException {
+    permits.acquire(maxInFlight);
+    permits.release(maxInFlight);
+  }
+
+  private long backoffNanos(int attempt) {
+    long millis = Math.min(initialBackoffMillis << Math.min(attempt - 1, 16), maxBackoffMillis);
+    if (jitter) {
+      millis += ThreadLocalRandom.current().nextLong(millis);
+    }
+    return TimeUnit.MILLISECONDS.toNanos(millis);
+  }
+
+  private static void sleepUntil(long deadlineNanos) throws InterruptedException {
+    long delay = deadlineNanos - System.nanoTime();
+    if (delay > 0) {
+      TimeUnit.NANOSECONDS.sleep(delay);
+    }
+  }
+}
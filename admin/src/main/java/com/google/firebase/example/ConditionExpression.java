@@ -0,0 +1,879 @@
+/*
+ * Copyright 2026 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.firebase.example;
+
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * A Remote Config condition expression, such as
+ * {@code device.os == 'ios' && device.country in ['us', 'uk']}, compiled into a predicate tree.
+ *
+ * <p>{@link #compile(String)} parses the expression once and precomputes everything an
+ * evaluation needs: string operands are normalized, numbers and version numbers are parsed,
+ * lists become hash sets and regular expressions are compiled. {@link #test} then walks the
+ * tree with short-circuit {@code &&} and {@code ||} and no parsing, typically in well under a
+ * microsecond. Compiled expressions are immutable and thread-safe.
+ *
+ * <p>Supported targets are {@code app.id}, {@code app.version}, {@code app.build},
+ * {@code device.os}, {@code device.language}, {@code device.country}, {@code device.dateTime},
+ * {@code app.userProperty['name']}, {@code app.customSignal['name']}, {@code percent} and
+ * {@code percent('seed')}. They can be compared with {@code == != < <= > >=}, tested with
+ * {@code in [...]} and the method operators {@code .contains}, {@code .notContains},
+ * {@code .exactlyMatches}, {@code .matches} and {@code .<op>([...])}, and combined with
+ * {@code && || !} and parentheses. {@code app.version} compares as dotted version numbers and
+ * {@code percent} uses the same SHA-256 bucketing as Remote Config's server-side evaluation.
+ */
+public final class ConditionExpression {
+
+  private final String source;
+  private final Node root;
+
+  private ConditionExpression(String source, Node root) {
+    this.source = source;
+    this.root = root;
+  }
+
+  /**
+   * Compiles {@code expression}.
+   *
+   * @throws IllegalArgumentException if the expression is malformed or uses an unsupported
+   *     target or operator.
+   */
+  public static ConditionExpression compile(String expression) {
+    if (expression == null) {
+      throw new IllegalArgumentException("expression must not be null");
+    }
+    return new ConditionExpression(expression, new Parser(expression).parse());
+  }
+
+  /** Returns true if the expression holds for {@code context}. */
+  public boolean test(EvaluationContext context) {
+    return root.test(context);
+  }
+
+  /** Like {@link #test(EvaluationContext)}, for callers that supply attributes another way. */
+  boolean test(Attributes attributes) {
+    return root.test(attributes);
+  }
+
+  public String getSource() {
+    return source;
+  }
+
+  @Override
+  public String toString() {
+    return source;
+  }
+
+  /**
+   * The attributes conditions can refer to. {@link EvaluationContext} implements it for a single
+   * app instance; batch evaluators implement it as a cursor over columnar data.
+   */
+  interface Attributes {
+
+    String getAppId();
+
+    String getAppVersion();
+
+    String getAppBuild();
+
+    String getDeviceOs();
+
+    String getDeviceLanguage();
+
+    String getDeviceCountry();
+
+    String getRandomizationId();
+
+    long getNowMillis();
+
+    String getUserProperty(String name);
+
+    String getCustomSignal(String name);
+  }
+
+  private abstract static class Node {
+
+    abstract boolean test(Attributes context);
+  }
+
+  private static final class Constant extends Node {
+
+    final boolean value;
+
+    Constant(boolean value) {
+      this.value = value;
+    }
+
+    @Override
+    boolean test(Attributes context) {
+      return value;
+    }
+  }
+
+  private static final class And extends Node {
+
+    final Node[] operands;
+
+    And(List<Node> operands) {
+      this.operands = operands.toArray(new Node[0]);
+    }
+
+    @Override
+    boolean test(Attributes context) {
+      for (Node operand : operands) {
+        if (!operand.test(context)) {
+          return false;
+        }
+      }
+      return true;
+    }
+  }
+
+  private static final class Or extends Node {
+
+    final Node[] operands;
+
+    Or(List<Node> operands) {
+      this.operands = operands.toArray(new Node[0]);
+    }
+
+    @Override
+    boolean test(Attributes context) {
+      for (Node operand : operands) {
+        if (operand.test(context)) {
+          return true;
+        }
+      }
+      return false;
+    }
+  }
+
+  private static final class Not extends Node {
+
+    final Node operand;
+
+    Not(Node operand) {
+      this.operand = operand;
+    }
+
+    @Override
+    boolean test(Attributes context) {
+      return !operand.test(context);
+    }
+  }
+
+  private enum Target {
+    APP_ID("app.id", false),
+    APP_VERSION("app.version", false),
+    APP_BUILD("app.build", false),
+    DEVICE_OS("device.os", true),
+    DEVICE_LANGUAGE("device.language", true),
+    DEVICE_COUNTRY("device.country", true),
+    USER_PROPERTY("app.userProperty", false),
+    CUSTOM_SIGNAL("app.customSignal", false);
+
+    final String path;
+    final boolean caseInsensitive;
+
+    Target(String path, boolean caseInsensitive) {
+      this.path = path;
+      this.caseInsensitive = caseInsensitive;
+    }
+
+    boolean isKeyed() {
+      return this == USER_PROPERTY || this == CUSTOM_SIGNAL;
+    }
+
+    String valueOf(Attributes context, String key) {
+      switch (this) {
+        case APP_ID:
+          return context.getAppId();
+        case APP_VERSION:
+          return context.getAppVersion();
+        case APP_BUILD:
+          return context.getAppBuild();
+        case DEVICE_OS:
+          return context.getDeviceOs();
+        case DEVICE_LANGUAGE:
+          return context.getDeviceLanguage();
+        case DEVICE_COUNTRY:
+          return context.getDeviceCountry();
+        case USER_PROPERTY:
+          return context.getUserProperty(key);
+        default:
+          return context.getCustomSignal(key);
+      }
+    }
+
+    static Target forPath(String path) {
+      for (Target target : values()) {
+        if (target.path.equals(path)) {
+          return target;
+        }
+      }
+      return null;
+    }
+  }
+
+  private enum Operator {
+    EQ, NE, LT, LE, GT, GE, IN, CONTAINS, NOT_CONTAINS, EXACTLY_MATCHES, MATCHES;
+
+    boolean isOrdering() {
+      return this == LT || this == LE || this == GT || this == GE;
+    }
+
+    boolean accepts(int comparison) {
+      switch (this) {
+        case EQ:
+          return comparison == 0;
+        case NE:
+          return comparison != 0;
+        case LT:
+          return comparison < 0;
+        case LE:
+          return comparison <= 0;
+        case GT:
+          return comparison > 0;
+        default:
+          return comparison >= 0;
+      }
+    }
+
+    static Operator forSymbol(String symbol) {
+      switch (symbol) {
+        case "==":
+          return EQ;
+        case "!=":
+          return NE;
+        case "<":
+          return LT;
+        case "<=":
+          return LE;
+        case ">":
+          return GT;
+        case ">=":
+          return GE;
+        default:
+          return null;
+      }
+    }
+
+    static Operator forMethod(String name) {
+      switch (name) {
+        case "contains":
+          return CONTAINS;
+        case "notContains":
+          return NOT_CONTAINS;
+        case "exactlyMatches":
+          return EXACTLY_MATCHES;
+        case "matches":
+          return MATCHES;
+        case "in":
+          return IN;
+        default:
+          return null;
+      }
+    }
+  }
+
+  private static final class Comparison extends Node {
+
+    final Target target;
+    final String key;
+    final Operator operator;
+    final String[] strings;
+    final Set<String> stringSet;
+    // NaN where an operand is not a number.
+    final double[] numbers;
+    final boolean anyNumber;
+    // One parsed version per operand for app.version, otherwise null.
+    final int[][] versions;
+    final Pattern[] patterns;
+
+    Comparison(Target target, String key, Operator operator, List<String> operands) {
+      this.target = target;
+      this.key = key;
+      this.operator = operator;
+      this.strings = new String[operands.size()];
+      this.numbers = new double[operands.size()];
+      boolean anyNumber = false;
+      for (int i = 0; i < strings.length; i++) {
+        strings[i] = normalize(operands.get(i));
+        numbers[i] = parseNumber(strings[i]);
+        anyNumber |= !Double.isNaN(numbers[i]);
+      }
+      this.anyNumber = anyNumber;
+      this.stringSet = new HashSet<>(operands.size() * 2);
+      for (String string : strings) {
+        stringSet.add(string);
+      }
+      if (target == Target.APP_VERSION) {
+        this.versions = new int[strings.length][];
+        for (int i = 0; i < strings.length; i++) {
+          versions[i] = parseVersion(strings[i]);
+        }
+      } else {
+        this.versions = null;
+      }
+      if (operator == Operator.MATCHES) {
+        // Values of case-insensitive targets are lower-cased, so their patterns must ignore case.
+        int flags = target.caseInsensitive ? Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE : 0;
+        this.patterns = new Pattern[strings.length];
+        for (int i = 0; i < strings.length; i++) {
+          patterns[i] = Pattern.compile(operands.get(i), flags);
+        }
+      } else {
+        this.patterns = null;
+      }
+    }
+
+    @Override
+    boolean test(Attributes context) {
+      String value = target.valueOf(context, key);
+      if (value == null) {
+        return false;
+      }
+      value = normalize(value);
+      switch (operator) {
+        case EQ:
+        case IN:
+        case EXACTLY_MATCHES:
+          return equalsAny(value);
+        case NE:
+          return !equalsAny(value);
+        case CONTAINS:
+          return containsAny(value);
+        case NOT_CONTAINS:
+          return !containsAny(value);
+        case MATCHES:
+          for (Pattern pattern : patterns) {
+            if (pattern.matcher(value).matches()) {
+              return true;
+            }
+          }
+          return false;
+        default:
+          return operator.accepts(compare(value));
+      }
+    }
+
+    private String normalize(String value) {
+      return target.caseInsensitive ? value.toLowerCase(Locale.ROOT) : value;
+    }
+
+    private boolean equalsAny(String value) {
+      if (stringSet.contains(value)) {
+        return true;
+      }
+      if (versions != null) {
+        int[] parsed = parseVersion(value);
+        for (int[] version : versions) {
+          if (compareVersions(parsed, version) == 0) {
+            return true;
+          }
+        }
+        return false;
+      }
+      if (anyNumber) {
+        double number = parseNumber(value);
+        for (double operand : numbers) {
+          if (number == operand) {
+            return true;
+          }
+        }
+      }
+      return false;
+    }
+
+    private boolean containsAny(String value) {
+      for (String string : strings) {
+        if (value.contains(string)) {
+          return true;
+        }
+      }
+      return false;
+    }
+
+    private int compare(String value) {
+      if (versions != null) {
+        return compareVersions(parseVersion(value), versions[0]);
+      }
+      if (!Double.isNaN(numbers[0])) {
+        double number = parseNumber(value);
+        if (!Double.isNaN(number)) {
+          return Double.compare(number, numbers[0]);
+        }
+      }
+      return value.compareTo(strings[0]);
+    }
+  }
+
+  private static final class Percent extends Node {
+
+    private static final BigInteger MICRO_PERCENT_RANGE = BigInteger.valueOf(100_000_000L);
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+      try {
+        return MessageDigest.getInstance("SHA-256");
+      } catch (NoSuchAlgorithmException e) {
+        throw new IllegalStateException(e);
+      }
+    });
+
+    final String seedPrefix;
+    final long lowerExclusive;
+    final long upperInclusive;
+
+    Percent(String seed, long lowerExclusive, long upperInclusive) {
+      this.seedPrefix = seed.isEmpty() ? "" : seed + ".";
+      this.lowerExclusive = lowerExclusive;
+      this.upperInclusive = upperInclusive;
+    }
+
+    @Override
+    boolean test(Attributes context) {
+      String randomizationId = context.getRandomizationId();
+      if (randomizationId == null) {
+        return false;
+      }
+      long microPercent = microPercentile(seedPrefix + randomizationId);
+      return microPercent > lowerExclusive && microPercent <= upperInclusive;
+    }
+
+    static long microPercentile(String value) {
+      byte[] hash = SHA_256.get().digest(value.getBytes(StandardCharsets.UTF_8));
+      return new BigInteger(1, hash).mod(MICRO_PERCENT_RANGE).longValue();
+    }
+  }
+
+  private static final class DateTimeComparison extends Node {
+
+    final Operator operator;
+    final long millis;
+
+    DateTimeComparison(Operator operator, long millis) {
+      this.operator = operator;
+      this.millis = millis;
+    }
+
+    @Override
+    boolean test(Attributes context) {
+      return operator.accepts(Long.compare(context.getNowMillis(), millis));
+    }
+  }
+
+  static double parseNumber(String value) {
+    if (value.isEmpty()) {
+      return Double.NaN;
+    }
+    char first = value.charAt(0);
+    if (!(first >= '0' && first <= '9') && first != '-' && first != '.') {
+      return Double.NaN;
+    }
+    try {
+      return Double.parseDouble(value);
+    } catch (NumberFormatException e) {
+      return Double.NaN;
+    }
+  }
+
+  static int[] parseVersion(String value) {
+    String[] parts = value.split("\\.");
+    int[] version = new int[parts.length];
+    for (int i = 0; i < parts.length; i++) {
+      int number = 0;
+      String part = parts[i];
+      for (int j = 0; j < part.length() && Character.isDigit(part.charAt(j)); j++) {
+        number = number * 10 + (part.charAt(j) - '0');
+      }
+      version[i] = number;
+    }
+    return version;
+  }
+
+  static int compareVersions(int[] a, int[] b) {
+    for (int i = 0; i < Math.max(a.length, b.length); i++) {
+      int x = i < a.length ? a[i] : 0;
+      int y = i < b.length ? b[i] : 0;
+      if (x != y) {
+        return x < y ? -1 : 1;
+      }
+    }
+    return 0;
+  }
+
+  private static final class Token {
+
+    static final int IDENT = 0;
+    static final int STRING = 1;
+    static final int NUMBER = 2;
+    static final int SYMBOL = 3;
+    static final int END = 4;
+
+    final int type;
+    final String text;
+    final int position;
+
+    Token(int type, String text, int position) {
+      this.type = type;
+      this.text = text;
+      this.position = position;
+    }
+
+    boolean is(String symbol) {
+      return type == SYMBOL && text.equals(symbol);
+    }
+
+    boolean isIdent(String name) {
+      return type == IDENT && text.equals(name);
+    }
+  }
+
+  /** Recursive descent parser; {@code ||} binds looser than {@code &&}, which binds looser than
+   * {@code !}. */
+  private static final class Parser {
+
+    private static final String[] SYMBOLS = {
+        "&&", "||", "==", "!=", "<=", ">=", "<", ">", "!", "(", ")", "[", "]", ",", "."};
+
+    private final String expression;
+    private final List<Token> tokens;
+    private int index;
+
+    Parser(String expression) {
+      this.expression = expression;
+      this.tokens = tokenize(expression);
+    }
+
+    Node parse() {
+      Node node = parseOr();
+      if (peek().type != Token.END) {
+        throw error(peek(), "Unexpected '" + peek().text + "'");
+      }
+      return node;
+    }
+
+    private Node parseOr() {
+      List<Node> operands = new ArrayList<>();
+      operands.add(parseAnd());
+      while (accept("||")) {
+        operands.add(parseAnd());
+      }
+      return operands.size() == 1 ? operands.get(0) : new Or(operands);
+    }
+
+    private Node parseAnd() {
+      List<Node> operands = new ArrayList<>();
+      operands.add(parseUnary());
+      while (accept("&&")) {
+        operands.add(parseUnary());
+      }
+      return operands.size() == 1 ? operands.get(0) : new And(operands);
+    }
+
+    private Node parseUnary() {
+      if (accept("!")) {
+        return new Not(parseUnary());
+      }
+      if (accept("(")) {
+        Node node = parseOr();
+        expect(")");
+        return node;
+      }
+      Token token = peek();
+      if (token.isIdent("true") || token.isIdent("false")) {
+        index++;
+        return new Constant(token.text.equals("true"));
+      }
+      if (token.isIdent("percent")) {
+        index++;
+        return parsePercent();
+      }
+      return parseComparison();
+    }
+
+    private Node parsePercent() {
+      String seed = "";
+      if (accept("(")) {
+        seed = expectType(Token.STRING, "a seed string").text;
+        expect(")");
+      }
+      if (peek().isIdent("between")) {
+        index++;
+        long lower = microPercent(expectType(Token.NUMBER, "a percentage"));
+        if (!peek().isIdent("and")) {
+          throw error(peek(), "Expected 'and'");
+        }
+        index++;
+        long upper = microPercent(expectType(Token.NUMBER, "a percentage"));
+        return new Percent(seed, lower, upper);
+      }
+      Token operatorToken = next();
+      Operator operator = operatorToken.type == Token.SYMBOL
+          ? Operator.forSymbol(operatorToken.text) : null;
+      if (operator == null || operator == Operator.NE) {
+        throw error(operatorToken, "Expected a comparison or 'between' after percent");
+      }
+      long bound = microPercent(expectType(Token.NUMBER, "a percentage"));
+      switch (operator) {
+        case LT:
+          return new Percent(seed, -1, bound - 1);
+        case LE:
+          return new Percent(seed, -1, bound);
+        case GT:
+          return new Percent(seed, bound, Long.MAX_VALUE);
+        case GE:
+          return new Percent(seed, bound - 1, Long.MAX_VALUE);
+        default:
+          return new Percent(seed, bound - 1, bound);
+      }
+    }
+
+    private Node parseComparison() {
+      Token start = expectType(Token.IDENT, "a condition target");
+      StringBuilder path = new StringBuilder(start.text);
+      // A dot continues the path unless it introduces a method operator such as .contains(.
+      while (peek().is(".") && peekAt(1).type == Token.IDENT && !peekAt(2).is("(")) {
+        index++;
+        path.append('.').append(next().text);
+      }
+      String key = null;
+      if (accept("[")) {
+        key = expectType(Token.STRING, "a property name").text;
+        expect("]");
+      }
+      if (path.toString().equals("device.dateTime")) {
+        return parseDateTime(start);
+      }
+      Target target = Target.forPath(path.toString());
+      if (target == null) {
+        throw error(start, "Unsupported target '" + path + "'");
+      }
+      if (target.isKeyed() != (key != null)) {
+        throw error(start, target.isKeyed()
+            ? "Expected a property name for " + path : "Unexpected property name for " + path);
+      }
+
+      Operator operator;
+      List<String> operands;
+      Token operatorToken = peek();
+      if (accept(".")) {
+        operatorToken = next();
+        operator = operatorToken.type == Token.IDENT
+            ? Operator.forMethod(operatorToken.text)
+            : Operator.forSymbol(operatorToken.text);
+        expect("(");
+        operands = parseList();
+        expect(")");
+      } else if (operatorToken.isIdent("in")) {
+        index++;
+        operator = Operator.IN;
+        operands = parseList();
+      } else {
+        index++;
+        operator = operatorToken.type == Token.SYMBOL
+            ? Operator.forSymbol(operatorToken.text) : null;
+        operands = new ArrayList<>();
+        operands.add(parseLiteral());
+      }
+      if (operator == null) {
+        throw error(operatorToken, "Unsupported operator '" + operatorToken.text + "'");
+      }
+      if (operator.isOrdering() && operands.size() != 1) {
+        throw error(operatorToken, "Ordering operators take exactly one operand");
+      }
+      try {
+        return new Comparison(target, key, operator, operands);
+      } catch (PatternSyntaxException e) {
+        throw error(operatorToken, "Invalid regular expression: " + e.getDescription());
+      }
+    }
+
+    private Node parseDateTime(Token start) {
+      Token operatorToken = next();
+      Operator operator = operatorToken.type == Token.SYMBOL
+          ? Operator.forSymbol(operatorToken.text) : null;
+      if (operator == null) {
+        throw error(operatorToken, "Expected a comparison after device.dateTime");
+      }
+      Token function = expectType(Token.IDENT, "dateTime(...)");
+      if (!function.text.equals("dateTime")) {
+        throw error(function, "Expected dateTime(...)");
+      }
+      expect("(");
+      Token dateTime = expectType(Token.STRING, "a date and time");
+      ZoneId zone = ZoneOffset.UTC;
+      if (accept(",")) {
+        Token zoneToken = expectType(Token.STRING, "a time zone");
+        try {
+          zone = ZoneId.of(zoneToken.text);
+        } catch (RuntimeException e) {
+          throw error(zoneToken, "Unknown time zone '" + zoneToken.text + "'");
+        }
+      }
+      expect(")");
+      try {
+        long millis = LocalDateTime.parse(dateTime.text).atZone(zone).toInstant().toEpochMilli();
+        return new DateTimeComparison(operator, millis);
+      } catch (DateTimeParseException e) {
+        throw error(dateTime, "Invalid date and time '" + dateTime.text + "'");
+      }
+    }
+
+    private List<String> parseList() {
+      expect("[");
+      List<String> values = new ArrayList<>();
+      values.add(parseLiteral());
+      while (accept(",")) {
+        values.add(parseLiteral());
+      }
+      expect("]");
+      return values;
+    }
+
+    private String parseLiteral() {
+      Token token = next();
+      if (token.type == Token.STRING || token.type == Token.NUMBER
+          || token.isIdent("true") || token.isIdent("false")) {
+        return token.text;
+      }
+      throw error(token, "Expected a string or number");
+    }
+
+    private long microPercent(Token token) {
+      double percent = Double.parseDouble(token.text);
+      if (percent < 0 || percent > 100) {
+        throw error(token, "Percentages must be between 0 and 100");
+      }
+      return Math.round(percent * 1_000_000);
+    }
+
+    private Token peek() {
+      return tokens.get(index);
+    }
+
+    private Token peekAt(int offset) {
+      return tokens.get(Math.min(index + offset, tokens.size() - 1));
+    }
+
+    private Token next() {
+      Token token = tokens.get(index);
+      if (token.type != Token.END) {
+        index++;
+      }
+      return token;
+    }
+
+    private boolean accept(String symbol) {
+      if (peek().is(symbol)) {
+        index++;
+        return true;
+      }
+      return false;
+    }
+
+    private void expect(String symbol) {
+      if (!accept(symbol)) {
+        throw error(peek(), "Expected '" + symbol + "'");
+      }
+    }
+
+    private Token expectType(int type, String description) {
+      Token token = next();
+      if (token.type != type) {
+        throw error(token, "Expected " + description);
+      }
+      return token;
+    }
+
+    private IllegalArgumentException error(Token token, String message) {
+      return new IllegalArgumentException(
+          message + " at position " + token.position + " in condition: " + expression);
+    }
+
+    private static List<Token> tokenize(String expression) {
+      List<Token> tokens = new ArrayList<>();
+      int i = 0;
+      while (i < expression.length()) {
+        char c = expression.charAt(i);
+        if (Character.isWhitespace(c)) {
+          i++;
+        } else if (c == '\'' || c == '"') {
+          StringBuilder text = new StringBuilder();
+          int start = i++;
+          while (i < expression.length() && expression.charAt(i) != c) {
+            char next = expression.charAt(i++);
+            if (next == '\\' && i < expression.length()) {
+              next = expression.charAt(i++);
+            }
+            text.append(next);
+          }
+          if (i >= expression.length()) {
+            throw new IllegalArgumentException("Unterminated string at position " + start
+                + " in condition: " + expression);
+          }
+          i++;
+          tokens.add(new Token(Token.STRING, text.toString(), start));
+        } else if (Character.isDigit(c) || (c == '-' && i + 1 < expression.length()
+            && Character.isDigit(expression.charAt(i + 1)))) {
+          int start = i++;
+          while (i < expression.length()
+              && (Character.isDigit(expression.charAt(i)) || expression.charAt(i) == '.')) {
+            i++;
+          }
+          tokens.add(new Token(Token.NUMBER, expression.substring(start, i), start));
+        } else if (Character.isLetter(c) || c == '_') {
+          int start = i;
+          while (i < expression.length() && (Character.isLetterOrDigit(expression.charAt(i))
+              || expression.charAt(i) == '_')) {
+            i++;
+          }
+          tokens.add(new Token(Token.IDENT, expression.substring(start, i), start));
+        } else {
+          String symbol = null;
+          for (String candidate : SYMBOLS) {
+            if (expression.startsWith(candidate, i)) {
+              symbol = candidate;
+              break;
+            }
+          }
+          if (symbol == null) {
+            throw new IllegalArgumentException("Unexpected character '" + c + "' at position "
+                + i + " in condition: " + expression);
+          }
+          tokens.add(new Token(Token.SYMBOL, symbol, i));
+          i += symbol.length();
+        }
+      }
+      tokens.add(new Token(Token.END, "end of expression", expression.length()));
+      return tokens;
+    }
+  }
+}
@@ -0,0 +1,291 @@
+/*
+ * Copyright 2026 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.firebase.example;
+
+import com.google.api.core.ApiFuture;
+import com.google.api.core.ApiFutureCallback;
+import com.google.api.core.ApiFutures;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.firebase.auth.FirebaseAuth;
+import com.google.firebase.auth.GetUsersResult;
+import com.google.firebase.auth.UserIdentifier;
+import com.google.firebase.auth.UserRecord;
+import com.google.gson.Gson;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Applies a custom claims change to many users, writing only the users whose claims change.
+ *
+ * <p>Current claims are read with {@code getUsersAsync} in chunks of
+ * {@link BulkUserLookup#MAX_IDENTIFIERS_PER_REQUEST}, with a few lookups kept in flight ahead
+ * of the one being processed. For every user the {@link ClaimsUpdate} computes the complete new
+ * claims map; users whose claims would not change are skipped, and the rest are written with
+ * {@code setCustomUserClaimsAsync} under a concurrency limit and a {@link TokenBucket}. In dry
+ * run mode nothing is written and the {@link Report} shows how many writes would happen.
+ */
+public final class CustomClaimsMigration {
+
+  /** Computes the desired claims for a user. */
+  public interface ClaimsUpdate {
+
+    /**
+     * Returns the complete claims map {@code user} should have, or null to leave the user
+     * unchanged. {@code currentClaims} is a mutable copy that may be modified and returned.
+     */
+    Map<String, Object> apply(UserRecord user, Map<String, Object> currentClaims);
+  }
+
+  /** Returns an update that adds {@code claims} to each user's existing claims. */
+  public static ClaimsUpdate merging(final Map<String, Object> claims) {
+    return new ClaimsUpdate() {
+      @Override
+      public Map<String, Object> apply(UserRecord user, Map<String, Object> currentClaims) {
+        currentClaims.putAll(claims);
+        return currentClaims;
+      }
+    };
+  }
+
+  /** Counts for a migration run. */
+  public static final class Report {
+
+    private final boolean dryRun;
+    private final long scanned;
+    private final long notFound;
+    private final long unchanged;
+    private final long changed;
+    private final long written;
+    private final long failed;
+
+    Report(boolean dryRun, long scanned, long notFound, long unchanged, long changed,
+        long written, long failed) {
+      this.dryRun = dryRun;
+      this.scanned = scanned;
+      this.notFound = notFound;
+      this.unchanged = unchanged;
+      this.changed = changed;
+      this.written = written;
+      this.failed = failed;
+    }
+
+    public boolean isDryRun() {
+      return dryRun;
+    }
+
+    /** Number of users that were found and evaluated. */
+    public long getScanned() {
+      return scanned;
+    }
+
+    public long getNotFound() {
+      return notFound;
+    }
+
+    /** Users skipped because their claims already match. */
+    public long getUnchanged() {
+      return unchanged;
+    }
+
+    /** Users whose claims differ; in a dry run these are the writes that would happen. */
+    public long getChanged() {
+      return changed;
+    }
+
+    public long getWritten() {
+      return written;
+    }
+
+    public long getFailed() {
+      return failed;
+    }
+
+    @Override
+    public String toString() {
+      return (dryRun ? "[dry run] " : "") + "scanned=" + scanned + ", notFound=" + notFound
+          + ", unchanged=" + unchanged + ", changed=" + changed + ", written=" + written
+          + ", failed=" + failed;
+    }
+  }
+
+  private final FirebaseAuth auth;
+  private final ClaimsUpdate update;
+  private final int lookupsInFlight;
+  private final int maxConcurrentWrites;
+  private final TokenBucket writeLimiter;
+  private final boolean dryRun;
+  private final Gson gson = new Gson();
+
+  private CustomClaimsMigration(Builder builder) {
+    this.auth = builder.auth;
+    this.update = builder.update;
+    this.lookupsInFlight = builder.lookupsInFlight;
+    this.maxConcurrentWrites = builder.maxConcurrentWrites;
+    this.writeLimiter = new TokenBucket(builder.writesPerSecond);
+    this.dryRun = builder.dryRun;
+  }
+
+  public static Builder builder(FirebaseAuth auth, ClaimsUpdate update) {
+    return new Builder(auth, update);
+  }
+
+  /** Migrates every user matched by {@code identifiers}, blocking until all writes finish. */
+  public Report run(Iterator<? extends UserIdentifier> identifiers)
+      throws InterruptedException, ExecutionException {
+    final Semaphore writePermits = new Semaphore(maxConcurrentWrites);
+    final AtomicLong written = new AtomicLong();
+    final AtomicLong failed = new AtomicLong();
+    long scanned = 0;
+    long notFound = 0;
+    long unchanged = 0;
+    long changed = 0;
+
+    ArrayDeque<ApiFuture<GetUsersResult>> lookups = new ArrayDeque<>();
+    try {
+      while (identifiers.hasNext() || !lookups.isEmpty()) {
+        while (identifiers.hasNext() && lookups.size() < lookupsInFlight) {
+          lookups.add(auth.getUsersAsync(nextChunk(identifiers)));
+        }
+
+        GetUsersResult result = lookups.poll().get();
+        notFound += result.getNotFound().size();
+        for (UserRecord user : result.getUsers()) {
+          scanned++;
+          Map<String, Object> current = user.getCustomClaims();
+          Map<String, Object> desired = update.apply(user, new HashMap<>(current));
+          if (desired == null || sameClaims(current, desired)) {
+            unchanged++;
+            continue;
+          }
+          changed++;
+          if (!dryRun) {
+            write(user.getUid(), desired, writePermits, written, failed);
+          }
+        }
+      }
+    } finally {
+      for (ApiFuture<GetUsersResult> lookup : lookups) {
+        lookup.cancel(false);
+      }
+      writePermits.acquire(maxConcurrentWrites);
+    }
+
+    return new Report(dryRun, scanned, notFound, unchanged, changed, written.get(), failed.get());
+  }
+
+  private List<UserIdentifier> nextChunk(Iterator<? extends UserIdentifier> identifiers) {
+    List<UserIdentifier> chunk = new ArrayList<>(BulkUserLookup.MAX_IDENTIFIERS_PER_REQUEST);
+    while (identifiers.hasNext() && chunk.size() < BulkUserLookup.MAX_IDENTIFIERS_PER_REQUEST) {
+      chunk.add(identifiers.next());
+    }
+    return chunk;
+  }
+
+  private void write(final String uid, Map<String, Object> claims, final Semaphore permits,
+      final AtomicLong written, final AtomicLong failed) throws InterruptedException {
+    permits.acquire();
+    try {
+      writeLimiter.acquire();
+      ApiFutures.addCallback(auth.setCustomUserClaimsAsync(uid, claims),
+          new ApiFutureCallback<Void>() {
+            @Override
+            public void onSuccess(Void result) {
+              written.incrementAndGet();
+              permits.release();
+            }
+
+            @Override
+            public void onFailure(Throwable t) {
+              failed.incrementAndGet();
+              System.out.println("Failed to update claims for " + uid + ": " + t.getMessage());
+              permits.release();
+            }
+          }, MoreExecutors.directExecutor());
+    } catch (InterruptedException | RuntimeException e) {
+      permits.release();
+      throw e;
+    }
+  }
+
+  // Claims read from the backend hold numbers as BigDecimal, so compare their JSON form rather
+  // than relying on Map.equals.
+  private boolean sameClaims(Map<String, Object> current, Map<String, Object> desired) {
+    if (current.isEmpty() || desired.isEmpty()) {
+      return current.isEmpty() && desired.isEmpty();
+    }
+    return gson.toJsonTree(current).equals(gson.toJsonTree(desired));
+  }
+
+  public static final class Builder {
+
+    private final FirebaseAuth auth;
+    private final ClaimsUpdate update;
+    private int lookupsInFlight = 4;
+    private int maxConcurrentWrites = 16;
+    private double writesPerSecond = 100;
+    private boolean dryRun;
+
+    private Builder(FirebaseAuth auth, ClaimsUpdate update) {
+      if (auth == null || update == null) {
+        throw new IllegalArgumentException("auth and update must not be null");
+      }
+      this.auth = auth;
+      this.update = update;
+    }
+
+    /** Sets how many {@code getUsersAsync} chunks are requested ahead of processing. */
+    public Builder setLookupsInFlight(int lookupsInFlight) {
+      if (lookupsInFlight < 1) {
+        throw new IllegalArgumentException("lookupsInFlight must be at least 1");
+      }
+      this.lookupsInFlight = lookupsInFlight;
+      return this;
+    }
+
+    public Builder setMaxConcurrentWrites(int maxConcurrentWrites) {
+      if (maxConcurrentWrites < 1) {
+        throw new IllegalArgumentException("maxConcurrentWrites must be at least 1");
+      }
+      this.maxConcurrentWrites = maxConcurrentWrites;
+      return this;
+    }
+
+    public Builder setWritesPerSecond(double writesPerSecond) {
+      if (!(writesPerSecond > 0)) {
+        throw new IllegalArgumentException("writesPerSecond must be positive");
+      }
+      this.writesPerSecond = writesPerSecond;
+      return this;
+    }
+
+    public Builder setDryRun(boolean dryRun) {
+      this.dryRun = dryRun;
+      return this;
+    }
+
+    public CustomClaimsMigration build() {
+      return new CustomClaimsMigration(this);
+    }
+  }
+}
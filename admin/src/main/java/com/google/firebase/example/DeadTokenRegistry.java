@@ -0,0 +1,327 @@
+/*
+ * Copyright 2026 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.firebase.example;
+
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+import com.google.firebase.messaging.FirebaseMessagingException;
+import com.google.firebase.messaging.MessagingErrorCode;
+import com.google.firebase.messaging.TopicManagementResponse;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Remembers registration tokens that FCM has reported as dead, so they can be skipped before a
+ * message is built for them.
+ *
+ * <p>Tokens are identified by a 128-bit hash. The hashes are kept in an open-addressing table in
+ * a memory-mapped file, 16 bytes per slot, which survives restarts and lives outside the Java
+ * heap. In front of it sits a Bloom filter on the heap, about 10 bits per token, which answers
+ * most lookups for live tokens without touching the table. The filter is rebuilt from the file
+ * when the registry is opened.
+ *
+ * <p>The table size is fixed when the file is created. {@link #add} fails once the table is 90%
+ * full; create a larger registry and copy the tokens over if that happens.
+ */
+public final class DeadTokenRegistry implements Closeable {
+
+  private static final int MAGIC = 0x444b5452;
+  private static final int VERSION = 1;
+  private static final int HEADER_BYTES = 64;
+  private static final int SLOT_BYTES = 16;
+  // 2^26 slots of 16 bytes, so each mapped segment is 1 GiB.
+  private static final int SEGMENT_SHIFT = 26;
+  private static final double MAX_LOAD = 0.9;
+  private static final int BLOOM_BITS_PER_TOKEN = 10;
+  private static final int BLOOM_HASHES = 7;
+  private static final HashFunction HASH = Hashing.murmur3_128();
+
+  private final RandomAccessFile file;
+  private final MappedByteBuffer header;
+  private final MappedByteBuffer[] segments;
+  private final long slotMask;
+  private final long maxSize;
+  private final AtomicLongArray bloom;
+  private final long bloomBits;
+  private long size;
+
+  private DeadTokenRegistry(RandomAccessFile file, long slotCount) throws IOException {
+    this.file = file;
+    FileChannel channel = file.getChannel();
+    this.header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES);
+    this.slotMask = slotCount - 1;
+    this.maxSize = (long) (slotCount * MAX_LOAD);
+
+    int segmentCount = (int) Math.max(1, slotCount >>> SEGMENT_SHIFT);
+    long segmentSlots = Math.min(slotCount, 1L << SEGMENT_SHIFT);
+    this.segments = new MappedByteBuffer[segmentCount];
+    for (int i = 0; i < segmentCount; i++) {
+      segments[i] = channel.map(FileChannel.MapMode.READ_WRITE,
+          HEADER_BYTES + i * segmentSlots * SLOT_BYTES, segmentSlots * SLOT_BYTES);
+    }
+
+    int bloomWords = (int) Math.max(1, (maxSize * BLOOM_BITS_PER_TOKEN + 63) >>> 6);
+    this.bloom = new AtomicLongArray(bloomWords);
+    this.bloomBits = bloomWords * 64L;
+  }
+
+  /**
+   * Opens the registry stored at {@code path}, creating it with room for
+   * {@code expectedTokens} if it does not exist. An existing file keeps its original size.
+   */
+  public static DeadTokenRegistry open(Path path, long expectedTokens) throws IOException {
+    if (expectedTokens < 1) {
+      throw new IllegalArgumentException("expectedTokens must be at least 1");
+    }
+    RandomAccessFile file = new RandomAccessFile(path.toFile(), "rw");
+    try {
+      DeadTokenRegistry registry;
+      if (file.length() == 0) {
+        long slotCount = Long.highestOneBit((long) (expectedTokens / MAX_LOAD) << 1);
+        // A sparse file; pages are only allocated as slots are written.
+        file.setLength(HEADER_BYTES + slotCount * SLOT_BYTES);
+        registry = new DeadTokenRegistry(file, slotCount);
+        registry.header.putInt(0, MAGIC).putInt(4, VERSION).putLong(8, slotCount);
+      } else {
+        if (file.length() < HEADER_BYTES || file.readInt() != MAGIC || file.readInt() != VERSION) {
+          throw new IOException(path + " is not a dead token registry");
+        }
+        long slotCount = file.readLong();
+        if (Long.bitCount(slotCount) != 1
+            || file.length() != HEADER_BYTES + slotCount * SLOT_BYTES) {
+          throw new IOException(path + " is truncated or corrupt");
+        }
+        registry = new DeadTokenRegistry(file, slotCount);
+        registry.load();
+      }
+      return registry;
+    } catch (IOException | RuntimeException e) {
+      file.close();
+      throw e;
+    }
+  }
+
+  /** Returns true if {@code token} has been recorded as dead. */
+  public boolean isDead(String token) {
+    long[] hash = hash(token);
+    if (!bloomMightContain(hash)) {
+      return false;
+    }
+    synchronized (this) {
+      return slotMatches(findSlot(hash), hash);
+    }
+  }
+
+  /**
+   * Records {@code token} as dead. Returns false if it was already recorded.
+   *
+   * @throws IllegalStateException if the registry is full.
+   */
+  public synchronized boolean add(String token) {
+    long[] hash = hash(token);
+    long slot = findSlot(hash);
+    if (slotMatches(slot, hash)) {
+      return false;
+    }
+    if (size >= maxSize) {
+      throw new IllegalStateException("Dead token registry is full (" + size + " tokens)");
+    }
+    MappedByteBuffer segment = segments[(int) (slot >>> SEGMENT_SHIFT)];
+    int offset = segmentOffset(slot);
+    segment.putLong(offset + 8, hash[1]);
+    // Written last: a non-zero first word marks the slot as used.
+    segment.putLong(offset, hash[0]);
+    bloomAdd(hash);
+    size++;
+    return true;
+  }
+
+  /** Records every token in {@code tokens}, for example the invalid tokens of a bulk run. */
+  public void addAll(Iterable<String> tokens) {
+    for (String token : tokens) {
+      add(token);
+    }
+  }
+
+  /**
+   * Records {@code token} if {@code error} reports it as unregistered or invalid. Returns true if
+   * the token was recorded.
+   */
+  public boolean recordSendFailure(String token, Throwable error) {
+    if (!(error instanceof FirebaseMessagingException)) {
+      return false;
+    }
+    FirebaseMessagingException e = (FirebaseMessagingException) error;
+    if (e.getMessagingErrorCode() == MessagingErrorCode.UNREGISTERED
+        || (e.getMessagingErrorCode() == MessagingErrorCode.INVALID_ARGUMENT
+            && isInvalidTokenMessage(e.getMessage()))) {
+      add(token);
+      return true;
+    }
+    return false;
+  }
+
+  /**
+   * Records the tokens that a topic management call reported as invalid or not registered.
+   *
+   * @param tokens The tokens passed to the call, in the same order.
+   */
+  public void recordTopicErrors(List<String> tokens, TopicManagementResponse response) {
+    for (TopicManagementResponse.Error error : response.getErrors()) {
+      if (TopicSubscriptionManager.INVALID_ARGUMENT.equals(error.getReason())
+          || TopicSubscriptionManager.NOT_REGISTERED.equals(error.getReason())) {
+        add(tokens.get(error.getIndex()));
+      }
+    }
+  }
+
+  /** Returns an iterator over the tokens in {@code tokens} that are not known to be dead. */
+  public Iterator<String> filter(final Iterator<String> tokens) {
+    return new Iterator<String>() {
+      private String next;
+
+      @Override
+      public boolean hasNext() {
+        while (next == null && tokens.hasNext()) {
+          String token = tokens.next();
+          if (!isDead(token)) {
+            next = token;
+          }
+        }
+        return next != null;
+      }
+
+      @Override
+      public String next() {
+        if (!hasNext()) {
+          throw new NoSuchElementException();
+        }
+        String token = next;
+        next = null;
+        return token;
+      }
+    };
+  }
+
+  public synchronized long size() {
+    return size;
+  }
+
+  /** Writes recorded tokens through to the file. */
+  public synchronized void flush() {
+    for (MappedByteBuffer segment : segments) {
+      segment.force();
+    }
+  }
+
+  /**
+   * Flushes and closes the file. The mapping itself is released when the registry is garbage
+   * collected.
+   */
+  @Override
+  public synchronized void close() throws IOException {
+    flush();
+    file.close();
+  }
+
+  // FCM also uses INVALID_ARGUMENT for malformed messages, which say nothing about the token.
+  private static boolean isInvalidTokenMessage(String message) {
+    return message != null && message.contains("registration token");
+  }
+
+  private void load() {
+    for (long slot = 0; slot <= slotMask; slot++) {
+      MappedByteBuffer segment = segments[(int) (slot >>> SEGMENT_SHIFT)];
+      int offset = segmentOffset(slot);
+      long first = segment.getLong(offset);
+      if (first != 0) {
+        bloomAdd(new long[] {first, segment.getLong(offset + 8)});
+        size++;
+      }
+    }
+  }
+
+  // Returns the slot holding hash, or the empty slot where it belongs.
+  private long findSlot(long[] hash) {
+    long slot = hash[0] & slotMask;
+    while (true) {
+      MappedByteBuffer segment = segments[(int) (slot >>> SEGMENT_SHIFT)];
+      int offset = segmentOffset(slot);
+      long first = segment.getLong(offset);
+      if (first == 0 || (first == hash[0] && segment.getLong(offset + 8) == hash[1])) {
+        return slot;
+      }
+      slot = (slot + 1) & slotMask;
+    }
+  }
+
+  // findSlot only stops at a full match or an empty slot, so the first word decides.
+  private boolean slotMatches(long slot, long[] hash) {
+    return segments[(int) (slot >>> SEGMENT_SHIFT)].getLong(segmentOffset(slot)) == hash[0];
+  }
+
+  private static int segmentOffset(long slot) {
+    return (int) (slot & ((1L << SEGMENT_SHIFT) - 1)) * SLOT_BYTES;
+  }
+
+  private boolean bloomMightContain(long[] hash) {
+    for (int i = 0; i < BLOOM_HASHES; i++) {
+      long bit = Long.remainderUnsigned(hash[0] + i * hash[1], bloomBits);
+      if ((bloom.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private void bloomAdd(long[] hash) {
+    for (int i = 0; i < BLOOM_HASHES; i++) {
+      long bit = Long.remainderUnsigned(hash[0] + i * hash[1], bloomBits);
+      int index = (int) (bit >>> 6);
+      long mask = 1L << bit;
+      long word;
+      while (((word = bloom.get(index)) & mask) == 0
+          && !bloom.compareAndSet(index, word, word | mask)) {
+        // Another thread changed the word; try again.
+      }
+    }
+  }
+
+  private static long[] hash(String token) {
+    if (token == null) {
+      throw new IllegalArgumentException("token must not be null");
+    }
+    byte[] bytes = HASH.hashString(token, StandardCharsets.UTF_8).asBytes();
+    long first = 0;
+    long second = 0;
+    for (int i = 0; i < 8; i++) {
+      first |= (bytes[i] & 0xffL) << (8 * i);
+      second |= (bytes[i + 8] & 0xffL) << (8 * i);
+    }
+    // Zero marks an empty slot.
+    return new long[] {first != 0 ? first : 1, second};
+  }
+}
@@ -0,0 +1,188 @@
+/*
+ * Copyright 2026 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.firebase.example;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The app instance a Remote Config template is evaluated for, as seen by
+ * {@link ConditionExpression} targets such as {@code device.os} or {@code percent}.
+ */
+public final class EvaluationContext implements ConditionExpression.Attributes {
+
+  private final String appId;
+  private final String appVersion;
+  private final String appBuild;
+  private final String deviceOs;
+  private final String deviceLanguage;
+  private final String deviceCountry;
+  private final String randomizationId;
+  private final long nowMillis;
+  private final Map<String, String> userProperties;
+  private final Map<String, String> customSignals;
+
+  private EvaluationContext(Builder builder) {
+    this.appId = builder.appId;
+    this.appVersion = builder.appVersion;
+    this.appBuild = builder.appBuild;
+    this.deviceOs = builder.deviceOs;
+    this.deviceLanguage = builder.deviceLanguage;
+    this.deviceCountry = builder.deviceCountry;
+    this.randomizationId = builder.randomizationId;
+    this.nowMillis = builder.nowMillis != null ? builder.nowMillis : System.currentTimeMillis();
+    this.userProperties = Collections.unmodifiableMap(new HashMap<>(builder.userProperties));
+    this.customSignals = Collections.unmodifiableMap(new HashMap<>(builder.customSignals));
+  }
+
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  @Override
+  public String getAppId() {
+    return appId;
+  }
+
+  @Override
+  public String getAppVersion() {
+    return appVersion;
+  }
+
+  @Override
+  public String getAppBuild() {
+    return appBuild;
+  }
+
+  /** The platform, such as {@code ios}, {@code android} or {@code web}. */
+  @Override
+  public String getDeviceOs() {
+    return deviceOs;
+  }
+
+  @Override
+  public String getDeviceLanguage() {
+    return deviceLanguage;
+  }
+
+  @Override
+  public String getDeviceCountry() {
+    return deviceCountry;
+  }
+
+  /** A stable per-installation ID used to place the instance in {@code percent} conditions. */
+  @Override
+  public String getRandomizationId() {
+    return randomizationId;
+  }
+
+  /** The time {@code device.dateTime} conditions compare against. */
+  @Override
+  public long getNowMillis() {
+    return nowMillis;
+  }
+
+  public Map<String, String> getUserProperties() {
+    return userProperties;
+  }
+
+  public Map<String, String> getCustomSignals() {
+    return customSignals;
+  }
+
+  @Override
+  public String getUserProperty(String name) {
+    return userProperties.get(name);
+  }
+
+  @Override
+  public String getCustomSignal(String name) {
+    return customSignals.get(name);
+  }
+
+  public static final class Builder {
+
+    private String appId;
+    private String appVersion;
+    private String appBuild;
+    private String deviceOs;
+    private String deviceLanguage;
+    private String deviceCountry;
+    private String randomizationId;
+    private Long nowMillis;
+    private final Map<String, String> userProperties = new HashMap<>();
+    private final Map<String, String> customSignals = new HashMap<>();
+
+    private Builder() {
+    }
+
+    public Builder setAppId(String appId) {
+      this.appId = appId;
+      return this;
+    }
+
+    public Builder setAppVersion(String appVersion) {
+      this.appVersion = appVersion;
+      return this;
+    }
+
+    public Builder setAppBuild(String appBuild) {
+      this.appBuild = appBuild;
+      return this;
+    }
+
+    public Builder setDeviceOs(String deviceOs) {
+      this.deviceOs = deviceOs;
+      return this;
+    }
+
+    public Builder setDeviceLanguage(String deviceLanguage) {
+      this.deviceLanguage = deviceLanguage;
+      return this;
+    }
+
+    public Builder setDeviceCountry(String deviceCountry) {
+      this.deviceCountry = deviceCountry;
+      return this;
+    }
+
+    public Builder setRandomizationId(String randomizationId) {
+      this.randomizationId = randomizationId;
+      return this;
+    }
+
+    /** Sets the evaluation time. Defaults to the time {@link #build()} is called. */
+    public Builder setNowMillis(long nowMillis) {
+      this.nowMillis = nowMillis;
+      return this;
+    }
+
+    public Builder putUserProperty(String name, String value) {
+      userProperties.put(name, value);
+      return this;
+    }
+
+    public Builder putCustomSignal(String name, String value) {
+      customSignals.put(name, value);
+      return this;
+    }
+
+    public EvaluationContext build() {
+      return new EvaluationContext(this);
+    }
+  }
+}
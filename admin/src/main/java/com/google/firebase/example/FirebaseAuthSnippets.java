@@ -24,10 +24,17 @@ import com.google.firebase.database.FirebaseDatabase;
 
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
 
 public class FirebaseAuthSnippets {
 
@@ -51,6 +58,26 @@ public class FirebaseAuthSnippets {
     // [END bulk_get_users]
   }
 
+  public static void bulkGetUsersPipelined(
+      Iterator<UserIdentifier> identifiers) throws InterruptedException, ExecutionException {
+    // [START bulk_get_users_pipelined]
+    // Keep up to 8 lookups of 100 identifiers each in flight at a time.
+    BulkUserLookup lookup = new BulkUserLookup(FirebaseAuth.getInstance(), 8);
+    BulkUserLookup.Summary summary = lookup.lookup(identifiers, new BulkUserLookup.ResultHandler() {
+      @Override
+      public void onUserFound(UserRecord user) {
+        System.out.println("Found user: " + user.getUid());
+      }
+
+      @Override
+      public void onUserNotFound(UserIdentifier identifier) {
+        System.out.println("No user for: " + identifier);
+      }
+    });
+    System.out.println("Lookup complete: " + summary);
+    // [END bulk_get_users_pipelined]
+  }
+
   public static void bulkDeleteUsers() throws Exception {
     // [START bulk_delete_users]
     DeleteUsersResult result = FirebaseAuth.getInstance().deleteUsersAsync(
@@ -63,7 +90,29 @@ public class FirebaseAuthSnippets {
     }
     // [END bulk_delete_users]
   }
-  
+
+  public static void bulkDeleteUsersPipelined(Iterator<String> uids) throws InterruptedException {
+    // [START bulk_delete_users_pipelined]
+    BulkUserDeleter deleter = BulkUserDeleter.builder(FirebaseAuth.getInstance())
+        .setMaxInFlight(4)
+        .setRequestsPerSecond(1)
+        .setMaxAttempts(3)
+        .setProgressListener(new BulkUserDeleter.ProgressListener() {
+          @Override
+          public void onProgress(BulkUserDeleter.Progress progress) {
+            System.out.println("Progress: " + progress);
+          }
+        })
+        .build();
+
+    BulkUserDeleter.Result result = deleter.deleteAll(uids);
+    System.out.println("Successfully deleted " + result.getProgress().getDeleted() + " users");
+    for (BulkUserDeleter.Failure failure : result.getFailures()) {
+      System.out.println("Failed to delete " + failure.getUid() + ", reason: " + failure.getReason());
+    }
+    // [END bulk_delete_users_pipelined]
+  }
+
   public static void getUserById(String uid) throws InterruptedException, ExecutionException {
     // [START get_user_by_id]
     UserRecord userRecord = FirebaseAuth.getInstance().getUserAsync(uid).get();
@@ -188,6 +237,29 @@ public class FirebaseAuthSnippets {
     // [END set_custom_user_claims_incremental]
   }
 
+  public static void setCustomUserClaimsBulk(
+      Iterator<UserIdentifier> users) throws InterruptedException, ExecutionException {
+    // [START set_custom_user_claims_bulk]
+    Map<String, Object> claims = new HashMap<>();
+    claims.put("level", 10);
+    CustomClaimsMigration.ClaimsUpdate update = CustomClaimsMigration.merging(claims);
+
+    // Preview how many users would be updated without writing anything.
+    CustomClaimsMigration.Report preview = CustomClaimsMigration
+        .builder(FirebaseAuth.getInstance(), update)
+        .setDryRun(true)
+        .build()
+        .run(users);
+    System.out.println(preview.getChanged() + " users would be updated");
+
+    // Run the migration for real against a fresh iterator:
+    //   CustomClaimsMigration.builder(FirebaseAuth.getInstance(), update)
+    //       .setWritesPerSecond(100)
+    //       .build()
+    //       .run(users);
+    // [END set_custom_user_claims_bulk]
+  }
+
   public static void listAllUsers() throws InterruptedException, ExecutionException  {
     // [START list_all_users]
     // Start listing users from the beginning, 1000 at a time.
@@ -208,6 +280,21 @@ public class FirebaseAuthSnippets {
     // [END list_all_users]
   }
 
+  public static void exportAllUsers()
+      throws IOException, InterruptedException, ExecutionException {
+    // [START export_all_users]
+    // Stream every user to a gzip-compressed NDJSON file. The next page is fetched while the
+    // current one is written, and progress is checkpointed after each page. Running this
+    // again after an interruption resumes from the last completed page.
+    UserExporter exporter = new UserExporter(
+        FirebaseAuth.getInstance(), Paths.get("users-export.checkpoint"));
+    try (GzipNdjsonUserSink sink = new GzipNdjsonUserSink(Paths.get("users.ndjson.gz"))) {
+      UserExporter.Result result = exporter.export(sink);
+      System.out.println("Exported " + result.getExportedUsers() + " users");
+    }
+    // [END export_all_users]
+  }
+
   public static void deleteUser(String uid) throws InterruptedException, ExecutionException {
     // [START delete_user]
     FirebaseAuth.getInstance().deleteUserAsync(uid).get();
@@ -238,6 +325,24 @@ public class FirebaseAuthSnippets {
     System.out.println("Created custom token: " + customToken);
   }
 
+  public static void createCustomTokensBatch() throws IOException {
+    // [START custom_tokens_batch]
+    // Parse the service account key once and reuse the minter for every request.
+    CustomTokenMinter minter = CustomTokenMinter.fromServiceAccount(
+        "path/to/serviceAccountKey.json");
+    Map<String, Object> additionalClaims = new HashMap<String, Object>();
+    additionalClaims.put("premiumAccount", true);
+
+    List<CustomTokenMinter.TokenRequest> requests = Arrays.asList(
+        CustomTokenMinter.TokenRequest.of("uid1"),
+        CustomTokenMinter.TokenRequest.of("uid2", additionalClaims));
+    // Tokens are signed in parallel and returned in request order.
+    List<String> customTokens = minter.mintAll(requests);
+    // Send tokens back to clients
+    // [END custom_tokens_batch]
+    System.out.println("Created " + customTokens.size() + " custom tokens");
+  }
+
   public static void verifyIdToken(String idToken) throws InterruptedException, ExecutionException {
     // [START verify_id_token]
     // idToken comes from the client app (shown above)
@@ -247,6 +352,52 @@ public class FirebaseAuthSnippets {
     System.out.println("Decoded ID token from user: " + uid);
   }
 
+  public static CompletableFuture<UserRecord> verifyIdTokenNonBlocking(
+      Executor executor, String idToken) {
+    // [START verify_id_token_non_blocking]
+    // Compose calls without parking a thread on get(). Callbacks run on the given executor.
+    AsyncAuth auth = new AsyncAuth(FirebaseAuth.getInstance(), executor);
+    CompletableFuture<UserRecord> user = auth.verifyIdToken(idToken)
+        .thenCompose(decodedToken -> auth.getUser(decodedToken.getUid()));
+    // [END verify_id_token_non_blocking]
+    return user;
+  }
+
+  public static void runSnippetsOnVirtualThreads(List<String> idTokens) throws Exception {
+    // [START run_snippets_on_virtual_threads]
+    // Uses a virtual thread per flow on Java 21+, or 64 platform threads on older JVMs.
+    ExecutorService executor = AdminFutures.newBlockingFlowExecutor(64);
+    List<CompletableFuture<Void>> flows = new ArrayList<>();
+    for (String idToken : idTokens) {
+      flows.add(AdminFutures.callAsync(() -> {
+        verifyIdToken(idToken);
+        return null;
+      }, executor));
+    }
+    CompletableFuture.allOf(flows.toArray(new CompletableFuture<?>[0])).join();
+    executor.shutdown();
+    // [END run_snippets_on_virtual_threads]
+  }
+
+  public static IdTokenCache createIdTokenCache() {
+    // [START create_id_token_cache]
+    // Create a single cache per process and share it across request handlers.
+    IdTokenCache idTokenCache = new IdTokenCache(FirebaseAuth.getInstance(), 100_000);
+    // [END create_id_token_cache]
+    return idTokenCache;
+  }
+
+  public static void verifyIdTokenCached(IdTokenCache idTokenCache,
+      String idToken) throws InterruptedException, ExecutionException {
+    // [START verify_id_token_cached]
+    // Returns the cached result until the token's exp claim passes.
+    FirebaseToken decodedToken = idTokenCache.verifyIdTokenAsync(idToken).get();
+    String uid = decodedToken.getUid();
+    // [END verify_id_token_cached]
+    System.out.println("Decoded ID token from user: " + uid);
+    System.out.println("Cache hit rate: " + idTokenCache.getHitRate());
+  }
+
   public static void verifyIdTokenCheckRevoked(String idToken) throws InterruptedException, ExecutionException {
     // [START verify_id_token_check_revoked]
     try {
@@ -269,6 +420,33 @@ public class FirebaseAuthSnippets {
     // [END verify_id_token_check_revoked]
   }
 
+  public static void verifyIdTokenCheckRevokedLocally(
+      TokenRevocationIndex revocationIndex, String idToken) throws InterruptedException {
+    // [START verify_id_token_check_revoked_locally]
+    // The index is created once at startup and listens to the revocation metadata saved by
+    // revokeIdTokens():
+    //   TokenRevocationIndex revocationIndex = new TokenRevocationIndex(
+    //       FirebaseAuth.getInstance(), FirebaseDatabase.getInstance());
+    //   revocationIndex.start();
+    // The index does not check whether the user is disabled, so revoke a user's tokens when
+    // disabling them.
+    try {
+      FirebaseToken decodedToken = revocationIndex.verifyIdTokenAsync(idToken).get();
+      // Token is valid and not revoked.
+      String uid = decodedToken.getUid();
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof FirebaseAuthException) {
+        FirebaseAuthException authError = (FirebaseAuthException) e.getCause();
+        if (authError.getAuthErrorCode() == AuthErrorCode.REVOKED_ID_TOKEN) {
+          // Token has been revoked. Inform the user to reauthenticate or signOut() the user.
+        } else {
+          // Token is invalid.
+        }
+      }
+    }
+    // [END verify_id_token_check_revoked_locally]
+  }
+
   public static void revokeIdTokens(String idToken) throws InterruptedException, ExecutionException { 
     String uid="someUid";
     // [START revoke_tokens]
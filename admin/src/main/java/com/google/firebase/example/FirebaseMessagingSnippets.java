@@ -16,6 +16,7 @@
 
 package com.google.firebase.example;
 
+import com.google.api.core.ApiFuture;
 import com.google.firebase.messaging.AndroidConfig;
 import com.google.firebase.messaging.AndroidNotification;
 import com.google.firebase.messaging.ApnsConfig;
@@ -23,24 +24,34 @@ import com.google.firebase.messaging.Aps;
 import com.google.firebase.messaging.ApsAlert;
 import com.google.firebase.messaging.FirebaseMessaging;
 import com.google.firebase.messaging.Message;
+import com.google.firebase.messaging.MessagingErrorCode;
+import com.google.firebase.messaging.MulticastMessage;
 import com.google.firebase.messaging.Notification;
 import com.google.firebase.messaging.TopicManagementResponse;
 import com.google.firebase.messaging.WebpushConfig;
 import com.google.firebase.messaging.WebpushNotification;
 
+import java.io.BufferedReader;
+import java.io.Closeable;
 import java.io.IOException;
 import java.net.HttpURLConnection;
 import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Iterator;
 import java.util.List;
-
-import static com.google.firebase.example.FirebaseAuthSnippets.getServiceAccountAccessToken;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
 
 public class FirebaseMessagingSnippets {
 
   private static final String PROJECT_ID = "<YOUR-PROJECT-ID>";
   private static final String BASE_URL = "https://fcm.googleapis.com";
   private static final String FCM_SEND_ENDPOINT = "/v1/projects/" + PROJECT_ID + "/messages:send";
+  private static final String MESSAGING_SCOPE = "https://www.googleapis.com/auth/firebase.messaging";
 
   public void sendToToken() throws Exception {
     // [START send_to_token]
@@ -104,6 +115,161 @@ public class FirebaseMessagingSnippets {
     // [END send_to_condition]
   }
 
+  public void sendBatched(Map<String, String> scoresByToken) throws Exception {
+    // [START send_batched]
+    // Queued messages are sent in batches of up to 500, or after waiting at most 50 ms.
+    List<ApiFuture<String>> responses = new ArrayList<>();
+    try (BatchMessageSender sender = BatchMessageSender.builder(FirebaseMessaging.getInstance())
+        .setMaxDelay(50, TimeUnit.MILLISECONDS)
+        .build()) {
+      for (Map.Entry<String, String> entry : scoresByToken.entrySet()) {
+        Message message = Message.builder()
+            .putData("score", entry.getValue())
+            .setToken(entry.getKey())
+            .build();
+        responses.add(sender.send(message));
+      }
+    }
+    // Closing the sender flushed the last batch and waited for all responses.
+    for (ApiFuture<String> response : responses) {
+      System.out.println("Successfully sent message: " + response.get());
+    }
+    // [END send_batched]
+  }
+
+  public void sendMulticastFanOut(Iterator<String> registrationTokens) throws Exception {
+    // [START send_multicast_fan_out]
+    // Build the same notification for every shard of up to 500 tokens.
+    MulticastFanOut fanOut = MulticastFanOut.builder(FirebaseMessaging.getInstance(),
+        tokens -> MulticastMessage.builder()
+            .setNotification(Notification.builder()
+                .setTitle("$GOOG up 1.43% on the day")
+                .setBody("$GOOG gained 11.80 points to close at 835.67, up 1.43% on the day.")
+                .build())
+            .addAllTokens(tokens)
+            .build())
+        .setMaxInFlight(8)
+        .setMaxAttempts(5)
+        .build();
+
+    MulticastFanOut.Result result = fanOut.send(registrationTokens);
+    System.out.println("Fan-out complete: " + result);
+    for (MulticastFanOut.Failure failure : result.getFailures()) {
+      if (failure.getErrorCode() == MessagingErrorCode.UNREGISTERED) {
+        // Remove the stale token from your database.
+        System.out.println("Unregistered token: " + failure.getToken());
+      }
+    }
+    // [END send_multicast_fan_out]
+  }
+
+  public void sendSkippingDeadTokens(Iterator<String> registrationTokens) throws Exception {
+    // [START send_skipping_dead_tokens]
+    // The registry file holds up to 50 million tokens and is reused across restarts.
+    try (DeadTokenRegistry registry =
+        DeadTokenRegistry.open(Paths.get("dead-tokens.bin"), 50_000_000)) {
+      // Tokens FCM has already rejected are skipped before a message is built.
+      Iterator<String> liveTokens = registry.filter(registrationTokens);
+      while (liveTokens.hasNext()) {
+        String token = liveTokens.next();
+        Message message = Message.builder()
+            .putData("score", "850")
+            .setToken(token)
+            .build();
+        try {
+          FirebaseMessaging.getInstance().sendAsync(message).get();
+        } catch (ExecutionException e) {
+          if (registry.recordSendFailure(token, e.getCause())) {
+            System.out.println("Recorded dead token: " + token);
+          }
+        }
+      }
+    }
+    // [END send_skipping_dead_tokens]
+  }
+
+  public void sendWithPriorities(String userToken, List<String> campaignTokens)
+      throws Exception {
+    // [START send_with_priorities]
+    // Share a quota of 500 messages per second between transactional and campaign traffic.
+    SendScheduler scheduler = SendScheduler.builder()
+        .addProject(PROJECT_ID, FirebaseMessaging.getInstance(), 500)
+        .build();
+    try {
+      for (String token : campaignTokens) {
+        scheduler.send(PROJECT_ID, SendScheduler.Priority.BULK, Message.builder()
+            .putData("offer", "spring-sale")
+            .setToken(token)
+            .build());
+      }
+      // Overtakes the queued campaign instead of waiting behind it.
+      ApiFuture<String> response = scheduler.send(PROJECT_ID, SendScheduler.Priority.HIGH,
+          Message.builder()
+              .putData("code", "482913")
+              .setToken(userToken)
+              .build());
+      System.out.println("Sent sign-in code: " + response.get());
+    } finally {
+      scheduler.close();
+    }
+    for (SendScheduler.LaneStats stats : scheduler.getStats(PROJECT_ID)) {
+      System.out.println(stats);
+    }
+    // [END send_with_priorities]
+  }
+
+  public void sendWithMetrics(List<String> registrationTokens) throws Exception {
+    // [START send_with_metrics]
+    MessagingMetrics metrics = new MessagingMetrics();
+    // Visible in JConsole or VisualVM under com.google.firebase.example.
+    metrics.registerMBeans("default");
+    // Or push the metrics to your monitoring system once a minute.
+    Closeable exporter = metrics.startExporting(operations -> {
+      for (MessagingMetrics.OperationMetrics operation : operations) {
+        System.out.println(operation);
+      }
+    }, 1, TimeUnit.MINUTES);
+    try {
+      InstrumentedMessaging messaging =
+          new InstrumentedMessaging(FirebaseMessaging.getInstance(), metrics);
+      messaging.subscribeToTopicAsync(registrationTokens, "highScores").get();
+      messaging.sendAsync(Message.builder()
+          .putData("score", "850")
+          .setTopic("highScores")
+          .build()).get();
+
+      MessagingMetrics.OperationMetrics sends = metrics.get(MessagingMetrics.Operation.SEND);
+      System.out.println("p99 send latency: " + sends.getP99LatencyMillis() + "ms");
+    } finally {
+      // Stop exporting and free the MBean names so the metrics can be registered again.
+      exporter.close();
+      metrics.unregisterMBeans();
+    }
+    // [END send_with_metrics]
+  }
+
+  public void sendThroughOutbox(Iterator<String> registrationTokens) throws Exception {
+    // [START send_through_outbox]
+    // Messages left over from a previous run are delivered first.
+    try (Http2MessageSender sender = createHttp2Sender();
+        MessageOutbox outbox = MessageOutbox.builder(Paths.get("outbox")).open()) {
+      outbox.startDelivery(sender);
+      while (registrationTokens.hasNext()) {
+        // Blocks only when 16 segments of 64 MiB are waiting for delivery.
+        outbox.append(Message.builder()
+            .putData("score", "850")
+            .setToken(registrationTokens.next())
+            .build());
+      }
+      while (outbox.getPendingCount() > 0) {
+        TimeUnit.SECONDS.sleep(1);
+      }
+      System.out.println("Delivered " + outbox.getDeliveredCount() + " messages, "
+          + outbox.getFailedCount() + " failed");
+    }
+    // [END send_through_outbox]
+  }
+
   public void sendDryRun() throws Exception {
     Message message = Message.builder()
         .putData("score", "850")
@@ -198,6 +364,35 @@ public class FirebaseMessagingSnippets {
     return message;
   }
 
+  public void sendFromTemplate(Map<String, String> scoresByToken) throws Exception {
+    // [START send_from_template]
+    // Serialize the parts shared by every recipient once.
+    MessageTemplate template = MessageTemplate.compile(Message.builder()
+        .setAndroidConfig(AndroidConfig.builder()
+            .setTtl(3600 * 1000) // 1 hour in milliseconds
+            .setPriority(AndroidConfig.Priority.NORMAL)
+            .build())
+        .putData("score", MessageTemplate.placeholder("score"))
+        .setToken(MessageTemplate.placeholder("token"))
+        .build());
+    int tokenSlot = template.slotOf("token");
+    int scoreSlot = template.slotOf("score");
+
+    // Each thread reuses one renderer and its buffer.
+    MessageTemplate.Renderer renderer = template.newRenderer();
+    List<ApiFuture<String>> responses = new ArrayList<>();
+    try (Http2MessageSender sender = createHttp2Sender()) {
+      for (Map.Entry<String, String> entry : scoresByToken.entrySet()) {
+        renderer.set(tokenSlot, entry.getKey()).set(scoreSlot, entry.getValue()).render();
+        responses.add(sender.send(renderer));
+      }
+      for (ApiFuture<String> response : responses) {
+        System.out.println("Successfully sent message: " + response.get());
+      }
+    }
+    // [END send_from_template]
+  }
+
   public void subscribeToTopic() throws Exception {
     String topic = "highScores";
     // [START subscribe]
@@ -238,13 +433,57 @@ public class FirebaseMessagingSnippets {
     // [END unsubscribe]
   }
 
+  public void subscribeToTopicBulk() throws Exception {
+    // [START subscribe_bulk]
+    // Stream one registration token per line, 1000 tokens per request, 8 requests at a time.
+    TopicSubscriptionManager manager = TopicSubscriptionManager.builder(
+        FirebaseMessaging.getInstance())
+        .setMaxInFlight(8)
+        .setRequestsPerSecond(20)
+        .build();
+    TopicSubscriptionManager.Result result;
+    try (BufferedReader reader = Files.newBufferedReader(Paths.get("tokens.txt"))) {
+      result = manager.subscribe(reader.lines().iterator(), "highScores");
+    }
+    System.out.println("Subscription complete: " + result);
+    // Skip the invalid tokens in future sends.
+    try (DeadTokenRegistry registry =
+        DeadTokenRegistry.open(Paths.get("dead-tokens.bin"), 50_000_000)) {
+      registry.addAll(result.getInvalidTokens());
+    }
+    // [END subscribe_bulk]
+  }
+
+  public static Http2MessageSender createHttp2Sender() throws IOException {
+    // [START create_http2_sender]
+    // Up to 200 concurrent sends share a few HTTP/2 connections and one cached access token.
+    Http2MessageSender sender = Http2MessageSender.builder(PROJECT_ID, getAccessTokenProvider())
+        .setMaxConcurrentStreams(200)
+        .build();
+    // [END create_http2_sender]
+    return sender;
+  }
+
+  // [START use_access_token]
+  private static CachedAccessTokenProvider accessTokenProvider;
+
+  private static synchronized CachedAccessTokenProvider getAccessTokenProvider()
+      throws IOException {
+    // The service account key is parsed once and the token is refreshed in the background.
+    if (accessTokenProvider == null) {
+      accessTokenProvider = CachedAccessTokenProvider.fromServiceAccount(
+          "path/to/serviceAccountKey.json", Arrays.asList(MESSAGING_SCOPE));
+    }
+    return accessTokenProvider;
+  }
+
   private static HttpURLConnection getConnection() throws IOException {
-    // [START use_access_token]
     URL url = new URL(BASE_URL + FCM_SEND_ENDPOINT);
     HttpURLConnection httpURLConnection = (HttpURLConnection) url.openConnection();
-    httpURLConnection.setRequestProperty("Authorization", "Bearer " + getServiceAccountAccessToken());
+    httpURLConnection.setRequestProperty(
+        "Authorization", "Bearer " + getAccessTokenProvider().getAccessToken());
     httpURLConnection.setRequestProperty("Content-Type", "application/json; UTF-8");
     return httpURLConnection;
-    // [END use_access_token]
   }
+  // [END use_access_token]
 }
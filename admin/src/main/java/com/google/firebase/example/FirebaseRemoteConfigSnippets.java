@@ -32,11 +32,13 @@ import com.google.firebase.remoteconfig.Version;
 import java.io.IOException;
 import java.net.HttpURLConnection;
 import java.net.URL;
+import java.nio.file.Paths;
 import java.util.Arrays;
 import java.util.List;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Remote Config snippets for documentation.
@@ -61,6 +63,23 @@ public class FirebaseRemoteConfigSnippets {
     return template;
   }
 
+  // Serve the current Remote Config Template from memory
+  public static void getCachedRemoteConfig() throws ExecutionException, InterruptedException {
+    // [START get_cached_rc_template]
+    // Create one cache per process. Each refresh checks only the latest version number and
+    // downloads the template when it has changed.
+    RemoteConfigTemplateCache cache = RemoteConfigTemplateCache
+        .builder(FirebaseRemoteConfig.getInstance())
+        .setRefreshInterval(30, TimeUnit.SECONDS)
+        .build();
+
+    // Reads are served from memory and never block.
+    Template template = cache.getTemplate();
+    System.out.println("Serving template version: " + cache.getSnapshot().getVersionNumber()
+        + " with " + template.getParameters().size() + " parameters");
+    // [END get_cached_rc_template]
+  }
+
   // Modify Remote Config parameters
   public static void addParameterToGroup(Template template) {
     // [START add_rc_parameter]
@@ -80,6 +99,42 @@ public class FirebaseRemoteConfigSnippets {
     // [END add_rc_condition]
   }
 
+  // Evaluate Remote Config conditions locally
+  public static void evaluateConditionsLocally(Template template) {
+    // [START evaluate_rc_conditions]
+    // Compile once per template version and share the evaluator across requests.
+    RemoteConfigEvaluator evaluator = RemoteConfigEvaluator.compile(template);
+
+    EvaluationContext context = EvaluationContext.builder()
+            .setDeviceOs("android")
+            .setDeviceCountry("us")
+            .setAppVersion("2.4.1")
+            .setRandomizationId("installation-id")
+            .build();
+    System.out.println("Matching conditions: " + evaluator.getMatchingConditions(context));
+    System.out.println("Resolved config: " + evaluator.evaluate(context));
+    // [END evaluate_rc_conditions]
+  }
+
+  // Size the audiences of Remote Config conditions offline
+  public static void sizeAudiences(Template template) {
+    // [START size_rc_audiences]
+    // One array per attribute; row i describes user i. Real runs load millions of rows.
+    BatchConditionEvaluator.Columns users = BatchConditionEvaluator.Columns.builder(3)
+            .setDeviceOs(new String[] {"android", "ios", "android"})
+            .setDeviceCountry(new String[] {"us", "uk", "de"})
+            .setRandomizationId(new String[] {"id-1", "id-2", "id-3"})
+            .build();
+
+    BatchConditionEvaluator.Result result = BatchConditionEvaluator.compile(template)
+            .evaluate(users);
+    for (Condition condition : template.getConditions()) {
+      System.out.println(condition.getName() + ": "
+              + result.getMatchCount(condition.getName()) + " of " + result.size() + " users");
+    }
+    // [END size_rc_audiences]
+  }
+
   // Validate the Remote Config template
   public static void validateTemplate(Template template) throws InterruptedException {
     // [START validate_rc_template]
@@ -116,6 +171,26 @@ public class FirebaseRemoteConfigSnippets {
     // [END publish_rc_template]
   }
 
+  // Publish only the changes made to a Remote Config template
+  public static void publishChanges(Template before, Template after)
+          throws InterruptedException, FirebaseRemoteConfigException {
+    // [START publish_rc_template_diff]
+    TemplateDiff diff = TemplateDiff.compute(before, after);
+    System.out.print("Publishing changes:\n" + diff);
+    try {
+      // Applies the diff to the latest template, so unrelated edits published in the meantime
+      // are kept rather than overwritten.
+      Template publishedTemplate = diff.publish(FirebaseRemoteConfig.getInstance());
+      System.out.println("ETag from server: " + publishedTemplate.getETag());
+    } catch (IllegalStateException e) {
+      System.out.println("Conflicting changes: " + e.getMessage());
+    } catch (ExecutionException e) {
+      System.out.println("Unable to publish template.");
+      System.out.println(e.getCause().getMessage());
+    }
+    // [END publish_rc_template_diff]
+  }
+
   /**
    * Remote Config snippets for Manage Remote Config template versions documentation.
    *
@@ -141,6 +216,27 @@ public class FirebaseRemoteConfigSnippets {
     // [END list_all_versions]
   }
 
+  // Search Remote Config template versions from a local index
+  public static void searchVersionHistory()
+          throws ExecutionException, InterruptedException, IOException {
+    // [START search_rc_version_index]
+    RemoteConfigVersionIndex index = RemoteConfigVersionIndex
+            .builder(FirebaseRemoteConfig.getInstance(), Paths.get("rc-versions.idx"))
+            .open();
+    // The first sync fetches the whole history in parallel; later syncs fetch only new versions.
+    int added = index.sync();
+    System.out.println("Indexed " + added + " new versions, " + index.size() + " in total");
+
+    long now = System.currentTimeMillis();
+    for (RemoteConfigVersionIndex.Entry entry
+            : index.findByTime(now - TimeUnit.DAYS.toMillis(7), now)) {
+      System.out.println(entry);
+    }
+    System.out.println("Published by admin@example.com: "
+            + index.findByUser("admin@example.com").size());
+    // [END search_rc_version_index]
+  }
+
   // Retrieve a specific version of the Remote Config template
   public static void getRemoteConfigAtVersion(long versionNumber) throws ExecutionException, InterruptedException {
     // [START get_rc_template_at_version]
@@ -150,6 +246,18 @@ public class FirebaseRemoteConfigSnippets {
     // [END get_rc_template_at_version]
   }
 
+  // Compare two stored versions of the Remote Config template
+  public static void diffVersions(long fromVersion, long toVersion)
+          throws ExecutionException, InterruptedException {
+    // [START diff_rc_template_versions]
+    FirebaseRemoteConfig remoteConfig = FirebaseRemoteConfig.getInstance();
+    Template from = remoteConfig.getTemplateAtVersionAsync(fromVersion).get();
+    Template to = remoteConfig.getTemplateAtVersionAsync(toVersion).get();
+    TemplateDiff diff = TemplateDiff.compute(from, to);
+    System.out.print("Changes from version " + fromVersion + " to " + toVersion + ":\n" + diff);
+    // [END diff_rc_template_versions]
+  }
+
   // Roll back to a specific stored version of the Remote Config template
   public static void rollbackToVersion(long versionNumber) throws InterruptedException {
     // [START rollback_rc_template]
@@ -184,6 +292,22 @@ public class FirebaseRemoteConfigSnippets {
   }
   // [END retrieve_access_token]
 
+  /**
+   * Create a provider that reuses one access token for Remote Config REST API calls until shortly
+   * before it expires.
+   *
+   * @return Access token provider.
+   * @throws IOException
+   */
+  // [START retrieve_cached_access_token]
+  public static CachedAccessTokenProvider createAccessTokenProvider() throws IOException {
+    // Parse the service account once; tokens are then served from memory and refreshed
+    // in the background before they expire.
+    return CachedAccessTokenProvider.fromServiceAccount(
+            "service-account.json", Arrays.asList(SCOPES));
+  }
+  // [END retrieve_cached_access_token]
+
   public static void main(String[] args) throws ExecutionException, InterruptedException {
     System.out.println("Hello, FirebaseRemoteConfigSnippets!");
 
@@ -0,0 +1,165 @@
+/*
+ * Copyright 2026 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.firebase.example;
+
+import com.google.firebase.auth.ExportedUserRecord;
+import com.google.firebase.auth.UserInfo;
+import com.google.firebase.auth.UserMetadata;
+import com.google.gson.Gson;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.BufferedOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes exported users to a gzip-compressed file with one JSON object per line.
+ *
+ * <p>Every {@link #commit()} finishes the current gzip member and syncs the file, so the file is a
+ * valid multi-member gzip stream at every checkpoint. Resuming truncates the file back to the
+ * checkpointed length, which drops any partially written page instead of duplicating it.
+ */
+public final class GzipNdjsonUserSink implements UserSink {
+
+  private static final int BUFFER_SIZE = 64 * 1024;
+
+  private final FileChannel channel;
+  private final OutputStream fileStream;
+  private final Gson gson = new Gson();
+
+  private Writer writer;
+
+  public GzipNdjsonUserSink(Path path) throws IOException {
+    this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+    this.fileStream = new BufferedOutputStream(Channels.newOutputStream(channel), BUFFER_SIZE);
+  }
+
+  @Override
+  public void resumeFrom(long position) throws IOException {
+    channel.truncate(position);
+    channel.position(position);
+  }
+
+  @Override
+  public void write(ExportedUserRecord user) throws IOException {
+    if (writer == null) {
+      GZIPOutputStream gzip = new GZIPOutputStream(new MemberStream(fileStream), BUFFER_SIZE);
+      writer = new OutputStreamWriter(gzip, StandardCharsets.UTF_8);
+    }
+    writeUser(new JsonWriter(writer), user);
+    writer.write('\n');
+  }
+
+  @Override
+  public long commit() throws IOException {
+    if (writer != null) {
+      // Closing, not just finishing, the member releases the native zlib state of its Deflater.
+      writer.close();
+      writer = null;
+    }
+    fileStream.flush();
+    channel.force(false);
+    return channel.position();
+  }
+
+  @Override
+  public void close() throws IOException {
+    try {
+      commit();
+    } finally {
+      channel.close();
+    }
+  }
+
+  private void writeUser(JsonWriter json, ExportedUserRecord user) throws IOException {
+    json.beginObject();
+    json.name("uid").value(user.getUid());
+    writeIfPresent(json, "tenantId", user.getTenantId());
+    writeIfPresent(json, "email", user.getEmail());
+    json.name("emailVerified").value(user.isEmailVerified());
+    writeIfPresent(json, "phoneNumber", user.getPhoneNumber());
+    writeIfPresent(json, "displayName", user.getDisplayName());
+    writeIfPresent(json, "photoUrl", user.getPhotoUrl());
+    json.name("disabled").value(user.isDisabled());
+    writeIfPresent(json, "passwordHash", user.getPasswordHash());
+    writeIfPresent(json, "passwordSalt", user.getPasswordSalt());
+    json.name("tokensValidAfterTimestamp").value(user.getTokensValidAfterTimestamp());
+
+    UserMetadata metadata = user.getUserMetadata();
+    if (metadata != null) {
+      json.name("creationTimestamp").value(metadata.getCreationTimestamp());
+      json.name("lastSignInTimestamp").value(metadata.getLastSignInTimestamp());
+    }
+
+    Map<String, Object> customClaims = user.getCustomClaims();
+    if (customClaims != null && !customClaims.isEmpty()) {
+      json.name("customClaims");
+      gson.toJson(customClaims, Map.class, json);
+    }
+
+    UserInfo[] providers = user.getProviderData();
+    if (providers != null && providers.length > 0) {
+      json.name("providerData").beginArray();
+      for (UserInfo provider : providers) {
+        json.beginObject();
+        json.name("providerId").value(provider.getProviderId());
+        json.name("uid").value(provider.getUid());
+        writeIfPresent(json, "email", provider.getEmail());
+        writeIfPresent(json, "phoneNumber", provider.getPhoneNumber());
+        writeIfPresent(json, "displayName", provider.getDisplayName());
+        writeIfPresent(json, "photoUrl", provider.getPhotoUrl());
+        json.endObject();
+      }
+      json.endArray();
+    }
+    json.endObject();
+  }
+
+  private static void writeIfPresent(JsonWriter json, String name, String value)
+      throws IOException {
+    if (value != null) {
+      json.name(name).value(value);
+    }
+  }
+
+  /** Passes one gzip member through to the file, which stays open when the member is closed. */
+  private static final class MemberStream extends FilterOutputStream {
+
+    MemberStream(OutputStream out) {
+      super(out);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+      out.write(b, off, len);
+    }
+
+    @Override
+    public void close() throws IOException {
+      flush();
+    }
+  }
+}
@@ -0,0 +1,250 @@
+/*
+ * Copyright 2026 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.firebase.example;
+
+import com.google.api.core.ApiFuture;
+import com.google.api.core.SettableApiFuture;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
+import okhttp3.EventListener;
+import okhttp3.HttpUrl;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+
+/**
+ * Sends raw FCM v1 {@code messages:send} requests over multiplexed HTTP/2 connections.
+ *
+ * <p>Unlike opening an {@code HttpURLConnection} per request, all sends share a connection pool,
+ * and over HTTP/2 many requests run concurrently as streams on the same connection. A new
+ * connection is only opened when the server's stream limit is reached. The bearer token comes
+ * from a {@link CachedAccessTokenProvider}, so it is only fetched when it nears expiry.
+ *
+ * <p>At most {@code maxConcurrentStreams} requests are outstanding at once; {@code send} blocks
+ * until a slot is free. For {@code http} base URLs, such as a local stand-in server, HTTP/2 is
+ * used without TLS through prior knowledge.
+ */
+public final class Http2MessageSender implements Closeable {
+
+  public static final String DEFAULT_BASE_URL = "https://fcm.googleapis.com";
+
+  private static final MediaType JSON = MediaType.get("application/json; charset=UTF-8");
+
+  /** A send request that FCM answered with an error status. */
+  public static final class SendException extends IOException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final int statusCode;
+    private final String responseBody;
+
+    SendException(int statusCode, String responseBody) {
+      super("FCM returned HTTP " + statusCode + ": " + responseBody);
+      this.statusCode = statusCode;
+      this.responseBody = responseBody;
+    }
+
+    public int getStatusCode() {
+      return statusCode;
+    }
+
+    /** The JSON error response, including the FCM error code in its details. */
+    public String getResponseBody() {
+      return responseBody;
+    }
+  }
+
+  private final HttpUrl sendUrl;
+  private final CachedAccessTokenProvider tokenProvider;
+  private final OkHttpClient client;
+  private final Semaphore streams;
+  private final AtomicLong connectionsOpened = new AtomicLong();
+
+  private Http2MessageSender(Builder builder) {
+    this.sendUrl = HttpUrl.get(builder.baseUrl + "/v1/projects/" + builder.projectId
+        + "/messages:send");
+    this.tokenProvider = builder.tokenProvider;
+    this.streams = new Semaphore(builder.maxConcurrentStreams);
+
+    Dispatcher dispatcher = new Dispatcher();
+    dispatcher.setMaxRequests(builder.maxConcurrentStreams);
+    dispatcher.setMaxRequestsPerHost(builder.maxConcurrentStreams);
+    this.client = new OkHttpClient.Builder()
+        .protocols(sendUrl.isHttps()
+            ? Arrays.asList(Protocol.HTTP_2, Protocol.HTTP_1_1)
+            : Collections.singletonList(Protocol.H2_PRIOR_KNOWLEDGE))
+        .dispatcher(dispatcher)
+        .connectionPool(new ConnectionPool(builder.maxIdleConnections, 5, TimeUnit.MINUTES))
+        .callTimeout(builder.timeoutMillis, TimeUnit.MILLISECONDS)
+        .addInterceptor(chain -> chain.proceed(chain.request().newBuilder()
+            .header("Authorization", "Bearer " + tokenProvider.getAccessToken())
+            .build()))
+        .eventListener(new EventListener() {
+          @Override
+          public void connectStart(Call call, InetSocketAddress address, Proxy proxy) {
+            connectionsOpened.incrementAndGet();
+          }
+        })
+        .build();
+  }
+
+  public static Builder builder(String projectId, CachedAccessTokenProvider tokenProvider) {
+    return new Builder(projectId, tokenProvider);
+  }
+
+  /**
+   * Sends the request last rendered by {@code renderer}. The bytes are copied, so the renderer
+   * can be reused as soon as this method returns.
+   */
+  public ApiFuture<String> send(MessageTemplate.Renderer renderer) throws InterruptedException {
+    return send(Arrays.copyOf(renderer.buffer(), renderer.length()));
+  }
+
+  /**
+   * Sends a {@code messages:send} request body. The returned future completes with the message
+   * name, or fails with a {@link SendException} or another {@link IOException}.
+   */
+  public ApiFuture<String> send(byte[] requestBody) throws InterruptedException {
+    final SettableApiFuture<String> future = SettableApiFuture.create();
+    streams.acquire();
+    Request request = new Request.Builder()
+        .url(sendUrl)
+        .post(RequestBody.create(JSON, requestBody))
+        .build();
+    try {
+      client.newCall(request).enqueue(new Callback() {
+        @Override
+        public void onFailure(Call call, IOException e) {
+          streams.release();
+          future.setException(e);
+        }
+
+        @Override
+        public void onResponse(Call call, Response response) {
+          streams.release();
+          try (ResponseBody body = response.body()) {
+            String content = body.string();
+            if (!response.isSuccessful()) {
+              future.setException(new SendException(response.code(), content));
+              return;
+            }
+            JsonElement name = JsonParser.parseString(content).getAsJsonObject().get("name");
+            future.set(name != null ? name.getAsString() : null);
+          } catch (IOException | RuntimeException e) {
+            future.setException(e);
+          }
+        }
+      });
+    } catch (RuntimeException e) {
+      streams.release();
+      throw e;
+    }
+    return future;
+  }
+
+  /** Number of connections opened so far. Stays low while requests share connections. */
+  public long getConnectionsOpened() {
+    return connectionsOpened.get();
+  }
+
+  /** Number of connections currently in the pool, both busy and idle. */
+  public int getOpenConnections() {
+    return client.connectionPool().connectionCount();
+  }
+
+  /** Stops accepting work and closes idle connections. Outstanding sends still complete. */
+  @Override
+  public void close() {
+    client.dispatcher().executorService().shutdown();
+    client.connectionPool().evictAll();
+  }
+
+  public static final class Builder {
+
+    private final String projectId;
+    private final CachedAccessTokenProvider tokenProvider;
+    private String baseUrl = DEFAULT_BASE_URL;
+    private int maxConcurrentStreams = 100;
+    private int maxIdleConnections = 4;
+    private long timeoutMillis = TimeUnit.SECONDS.toMillis(30);
+
+    private Builder(String projectId, CachedAccessTokenProvider tokenProvider) {
+      if (projectId == null || projectId.isEmpty() || tokenProvider == null) {
+        throw new IllegalArgumentException("projectId and tokenProvider must be specified");
+      }
+      this.projectId = projectId;
+      this.tokenProvider = tokenProvider;
+    }
+
+    /** Sets the server to send to, for example a local stand-in at {@code http://localhost}. */
+    public Builder setBaseUrl(String baseUrl) {
+      if (baseUrl == null || HttpUrl.parse(baseUrl) == null) {
+        throw new IllegalArgumentException("baseUrl must be an http or https URL");
+      }
+      this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+      return this;
+    }
+
+    /** Sets how many requests may be outstanding at once, across all connections. */
+    public Builder setMaxConcurrentStreams(int maxConcurrentStreams) {
+      if (maxConcurrentStreams < 1) {
+        throw new IllegalArgumentException("maxConcurrentStreams must be at least 1");
+      }
+      this.maxConcurrentStreams = maxConcurrentStreams;
+      return this;
+    }
+
+    public Builder setMaxIdleConnections(int maxIdleConnections) {
+      if (maxIdleConnections < 1) {
+        throw new IllegalArgumentException("maxIdleConnections must be at least 1");
+      }
+      this.maxIdleConnections = maxIdleConnections;
+      return this;
+    }
+
+    /** Sets the time limit for each request, including connecting and reading the response. */
+    public Builder setTimeout(long timeout, TimeUnit unit) {
+      if (timeout <= 0) {
+        throw new IllegalArgumentException("timeout must be positive");
+      }
+      this.timeoutMillis = unit.toMillis(timeout);
+      return this;
+    }
+
+    public Http2MessageSender build() {
+      return new Http2MessageSender(this);
+    }
+  }
+}
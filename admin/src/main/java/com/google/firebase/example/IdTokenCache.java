@@ -0,0 +1,157 @@
+/*
+ * Copyright 2026 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.firebase.example;
+
+import com.google.api.core.ApiFuture;
+import com.google.api.core.ApiFutureCallback;
+import com.google.api.core.ApiFutures;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.firebase.auth.FirebaseAuth;
+import com.google.firebase.auth.FirebaseToken;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caches the result of {@code verifyIdTokenAsync} for ID tokens that are presented repeatedly.
+ *
+ * <p>Entries are keyed by the SHA-256 digest of the token, so the raw token is never retained,
+ * and a cached {@link FirebaseToken} is only returned while the current time is before its
+ * {@code exp} claim. The cache holds at most {@code maximumSize} tokens and evicts the least
+ * recently used ones first. Tokens that fail verification are never cached.
+ *
+ * <p>This cache does not check for revocation. Use {@code verifyIdTokenAsync(idToken, true)}
+ * when revoked sessions must be rejected immediately.
+ */
+public final class IdTokenCache {
+
+  private static final ThreadLocal<MessageDigest> SHA_256 = new ThreadLocal<MessageDigest>() {
+    @Override
+    protected MessageDigest initialValue() {
+      try {
+        return MessageDigest.getInstance("SHA-256");
+      } catch (NoSuchAlgorithmException e) {
+        throw new IllegalStateException("SHA-256 is not available", e);
+      }
+    }
+  };
+
+  private final FirebaseAuth auth;
+  private final Cache<ByteBuffer, CachedToken> cache;
+  private final AtomicLong hits = new AtomicLong();
+  private final AtomicLong misses = new AtomicLong();
+
+  public IdTokenCache(FirebaseAuth auth, long maximumSize) {
+    if (auth == null) {
+      throw new IllegalArgumentException("auth must not be null");
+    }
+    if (maximumSize < 1) {
+      throw new IllegalArgumentException("maximumSize must be at least 1");
+    }
+    this.auth = auth;
+    this.cache = CacheBuilder.newBuilder()
+        .maximumSize(maximumSize)
+        .build();
+  }
+
+  /**
+   * Verifies {@code idToken}, returning an already completed future when an unexpired result is
+   * cached for it.
+   */
+  public ApiFuture<FirebaseToken> verifyIdTokenAsync(String idToken) {
+    final ByteBuffer key = digest(idToken);
+    CachedToken cached = cache.getIfPresent(key);
+    if (cached != null) {
+      if (cached.expiresAtMillis > System.currentTimeMillis()) {
+        hits.incrementAndGet();
+        return ApiFutures.immediateFuture(cached.token);
+      }
+      cache.invalidate(key);
+    }
+
+    misses.incrementAndGet();
+    ApiFuture<FirebaseToken> future = auth.verifyIdTokenAsync(idToken);
+    ApiFutures.addCallback(future, new ApiFutureCallback<FirebaseToken>() {
+      @Override
+      public void onSuccess(FirebaseToken token) {
+        long expiresAtMillis = expirationMillis(token);
+        if (expiresAtMillis > System.currentTimeMillis()) {
+          cache.put(key, new CachedToken(token, expiresAtMillis));
+        }
+      }
+
+      @Override
+      public void onFailure(Throwable t) {
+        // Invalid and expired tokens are not cached.
+      }
+    }, MoreExecutors.directExecutor());
+    return future;
+  }
+
+  public long getHitCount() {
+    return hits.get();
+  }
+
+  public long getMissCount() {
+    return misses.get();
+  }
+
+  /** Returns the fraction of lookups served from the cache, or 0 if there were none. */
+  public double getHitRate() {
+    long hitCount = hits.get();
+    long total = hitCount + misses.get();
+    return total == 0 ? 0 : (double) hitCount / total;
+  }
+
+  public long size() {
+    return cache.size();
+  }
+
+  public void invalidateAll() {
+    cache.invalidateAll();
+  }
+
+  private static ByteBuffer digest(String idToken) {
+    MessageDigest sha256 = SHA_256.get();
+    sha256.reset();
+    return ByteBuffer.wrap(sha256.digest(idToken.getBytes(StandardCharsets.US_ASCII)));
+  }
+
+  private static long expirationMillis(FirebaseToken token) {
+    Object exp = token.getClaims().get("exp");
+    if (exp instanceof Number) {
+      return TimeUnit.SECONDS.toMillis(((Number) exp).longValue());
+    }
+    return 0;
+  }
+
+  private static final class CachedToken {
+
+    final FirebaseToken token;
+    final long expiresAtMillis;
+
+    CachedToken(FirebaseToken token, long expiresAtMillis) {
+      this.token = token;
+      this.expiresAtMillis = expiresAtMillis;
+    }
+  }
+}
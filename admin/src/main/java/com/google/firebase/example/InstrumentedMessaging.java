@@ -0,0 +1,158 @@
+/*
+ * Copyright 2026 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.firebase.example;
+
+import com.google.api.core.ApiFuture;
+import com.google.api.core.ApiFutureCallback;
+import com.google.api.core.ApiFutures;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.firebase.example.MessagingMetrics.Operation;
+import com.google.firebase.messaging.BatchResponse;
+import com.google.firebase.messaging.FirebaseMessaging;
+import com.google.firebase.messaging.Message;
+import com.google.firebase.messaging.MulticastMessage;
+import com.google.firebase.messaging.SendResponse;
+import com.google.firebase.messaging.TopicManagementResponse;
+
+import java.util.List;
+
+/**
+ * A {@link FirebaseMessaging} wrapper that records every call in {@link MessagingMetrics}.
+ *
+ * <p>Besides the latency and outcome of each call, the per-message errors of
+ * {@code sendAllAsync} and {@code sendMulticastAsync} and the per-token errors of topic
+ * management calls are counted by error code, so a batch that succeeds as a whole but rejects
+ * half its tokens is still visible.
+ */
+public final class InstrumentedMessaging {
+
+  private final FirebaseMessaging messaging;
+  private final MessagingMetrics metrics;
+
+  public InstrumentedMessaging(FirebaseMessaging messaging, MessagingMetrics metrics) {
+    if (messaging == null || metrics == null) {
+      throw new IllegalArgumentException("messaging and metrics must not be null");
+    }
+    this.messaging = messaging;
+    this.metrics = metrics;
+  }
+
+  public MessagingMetrics getMetrics() {
+    return metrics;
+  }
+
+  public ApiFuture<String> sendAsync(Message message) {
+    return sendAsync(message, false);
+  }
+
+  public ApiFuture<String> sendAsync(Message message, boolean dryRun) {
+    long start = metrics.recordStart(Operation.SEND);
+    try {
+      return track(Operation.SEND, start, 1, messaging.sendAsync(message, dryRun));
+    } catch (RuntimeException e) {
+      metrics.recordEnd(Operation.SEND, start, 1, e);
+      throw e;
+    }
+  }
+
+  public ApiFuture<BatchResponse> sendAllAsync(List<Message> messages) {
+    return sendAllAsync(messages, false);
+  }
+
+  public ApiFuture<BatchResponse> sendAllAsync(List<Message> messages, boolean dryRun) {
+    long start = metrics.recordStart(Operation.SEND_ALL);
+    try {
+      return track(Operation.SEND_ALL, start, messages.size(),
+          messaging.sendAllAsync(messages, dryRun));
+    } catch (RuntimeException e) {
+      metrics.recordEnd(Operation.SEND_ALL, start, messages.size(), e);
+      throw e;
+    }
+  }
+
+  public ApiFuture<BatchResponse> sendMulticastAsync(MulticastMessage message) {
+    return sendMulticastAsync(message, false);
+  }
+
+  public ApiFuture<BatchResponse> sendMulticastAsync(MulticastMessage message, boolean dryRun) {
+    long start = metrics.recordStart(Operation.SEND_MULTICAST);
+    try {
+      // MulticastMessage does not expose its tokens; the batch size is taken from the response.
+      return track(Operation.SEND_MULTICAST, start, 0,
+          messaging.sendMulticastAsync(message, dryRun));
+    } catch (RuntimeException e) {
+      metrics.recordEnd(Operation.SEND_MULTICAST, start, 0, e);
+      throw e;
+    }
+  }
+
+  public ApiFuture<TopicManagementResponse> subscribeToTopicAsync(
+      List<String> registrationTokens, String topic) {
+    long start = metrics.recordStart(Operation.SUBSCRIBE);
+    try {
+      return track(Operation.SUBSCRIBE, start, registrationTokens.size(),
+          messaging.subscribeToTopicAsync(registrationTokens, topic));
+    } catch (RuntimeException e) {
+      metrics.recordEnd(Operation.SUBSCRIBE, start, registrationTokens.size(), e);
+      throw e;
+    }
+  }
+
+  public ApiFuture<TopicManagementResponse> unsubscribeFromTopicAsync(
+      List<String> registrationTokens, String topic) {
+    long start = metrics.recordStart(Operation.UNSUBSCRIBE);
+    try {
+      return track(Operation.UNSUBSCRIBE, start, registrationTokens.size(),
+          messaging.unsubscribeFromTopicAsync(registrationTokens, topic));
+    } catch (RuntimeException e) {
+      metrics.recordEnd(Operation.UNSUBSCRIBE, start, registrationTokens.size(), e);
+      throw e;
+    }
+  }
+
+  private <V> ApiFuture<V> track(final Operation operation, final long start,
+      final int batchSize, ApiFuture<V> future) {
+    ApiFutures.addCallback(future, new ApiFutureCallback<V>() {
+      @Override
+      public void onSuccess(V result) {
+        int size = batchSize;
+        if (result instanceof BatchResponse) {
+          List<SendResponse> responses = ((BatchResponse) result).getResponses();
+          size = responses.size();
+          for (int i = 0; i < responses.size(); i++) {
+            SendResponse response = responses.get(i);
+            if (!response.isSuccessful()) {
+              metrics.recordError(operation,
+                  MessagingMetrics.errorCodeOf(response.getException()));
+            }
+          }
+        } else if (result instanceof TopicManagementResponse) {
+          for (TopicManagementResponse.Error error
+              : ((TopicManagementResponse) result).getErrors()) {
+            metrics.recordError(operation, error.getReason());
+          }
+        }
+        metrics.recordEnd(operation, start, size, null);
+      }
+
+      @Override
+      public void onFailure(Throwable t) {
+        metrics.recordEnd(operation, start, batchSize, t);
+      }
+    }, MoreExecutors.directExecutor());
+    return future;
+  }
+}
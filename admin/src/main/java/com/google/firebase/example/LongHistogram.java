@@ -0,0 +1,143 @@
+/*
+ * Copyright 2026 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.firebase.example;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A thread-safe histogram of non-negative long values, such as latencies in nanoseconds or
+ * batch sizes, with a bounded relative error.
+ *
+ * <p>Values are counted in log-linear buckets, as in HdrHistogram: each power of two is split
+ * into 32 equal sub-buckets, so any recorded value is reported within about 3% of its true
+ * value across the whole {@code long} range. All buckets are allocated up front and
+ * {@link #record(long)} only updates atomic counters, so recording never allocates and can stay
+ * on in the hot path. Reads go through a {@link Snapshot}.
+ */
+public final class LongHistogram {
+
+  private static final int SUB_BUCKET_BITS = 5;
+  private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+  private static final int BUCKET_COUNT = (65 - SUB_BUCKET_BITS) * SUB_BUCKET_COUNT;
+
+  private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+  private final LongAdder count = new LongAdder();
+  private final LongAdder sum = new LongAdder();
+  private final AtomicLong max = new AtomicLong();
+
+  /** Records one occurrence of {@code value}. Negative values are recorded as zero. */
+  public void record(long value) {
+    if (value < 0) {
+      value = 0;
+    }
+    counts.incrementAndGet(bucketOf(value));
+    count.increment();
+    sum.add(value);
+    long current = max.get();
+    while (value > current && !max.compareAndSet(current, value)) {
+      current = max.get();
+    }
+  }
+
+  public long getCount() {
+    return count.sum();
+  }
+
+  /**
+   * Returns a copy of the current counts. Values recorded while the copy is taken may be only
+   * partly reflected.
+   */
+  public Snapshot snapshot() {
+    long[] copy = new long[BUCKET_COUNT];
+    long total = 0;
+    for (int i = 0; i < BUCKET_COUNT; i++) {
+      copy[i] = counts.get(i);
+      total += copy[i];
+    }
+    return new Snapshot(copy, total, sum.sum(), max.get());
+  }
+
+  static int bucketOf(long value) {
+    if (value < SUB_BUCKET_COUNT) {
+      return (int) value;
+    }
+    int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+    return shift * SUB_BUCKET_COUNT + (int) (value >>> shift);
+  }
+
+  static long highestValueIn(int bucket) {
+    if (bucket < SUB_BUCKET_COUNT) {
+      return bucket;
+    }
+    int shift = bucket / SUB_BUCKET_COUNT - 1;
+    long subBucket = bucket % SUB_BUCKET_COUNT + SUB_BUCKET_COUNT;
+    long highest = ((subBucket + 1) << shift) - 1;
+    // The top bucket ends at Long.MAX_VALUE, where the shift above overflows.
+    return highest < 0 ? Long.MAX_VALUE : highest;
+  }
+
+  /** An immutable view of a {@link LongHistogram}. */
+  public static final class Snapshot {
+
+    private final long[] counts;
+    private final long count;
+    private final long sum;
+    private final long max;
+
+    private Snapshot(long[] counts, long count, long sum, long max) {
+      this.counts = counts;
+      this.count = count;
+      this.sum = sum;
+      this.max = max;
+    }
+
+    public long getCount() {
+      return count;
+    }
+
+    public long getMax() {
+      return max;
+    }
+
+    public double getMean() {
+      return count == 0 ? 0 : (double) sum / count;
+    }
+
+    /**
+     * Returns the value that {@code percentile} percent of the recorded values are at or below,
+     * rounded up to the top of its bucket. Returns 0 if nothing has been recorded.
+     */
+    public long getValueAtPercentile(double percentile) {
+      if (percentile < 0 || percentile > 100) {
+        throw new IllegalArgumentException("percentile must be between 0 and 100");
+      }
+      if (count == 0) {
+        return 0;
+      }
+      long rank = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+      long seen = 0;
+      for (int i = 0; i < counts.length; i++) {
+        seen += counts[i];
+        if (seen >= rank) {
+          return Math.min(highestValueIn(i), max);
+        }
+      }
+      return max;
+    }
+  }
+}
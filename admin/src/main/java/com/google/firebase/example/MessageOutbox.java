@@ -0,0 +1,682 @@
+/*
+ * Copyright 2026 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.firebase.example;
+
+import com.google.api.client.json.gson.GsonFactory;
+import com.google.api.core.ApiFuture;
+import com.google.api.core.ApiFutureCallback;
+import com.google.api.core.ApiFutures;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.firebase.messaging.Message;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32;
+
+/**
+ * A durable queue of FCM v1 send requests, delivered at least once through an
+ * {@link Http2MessageSender}.
+ *
+ * <p>Messages are serialized when they are appended and written to a log of fixed-size,
+ * memory-mapped segment files, so a burst of messages fills disk rather than the heap. Every
+ * message gets a sequence number. Delivery reads the log in order, keeps up to
+ * {@code maxInFlight} messages in flight and acknowledges each one once FCM accepts it or
+ * rejects it permanently. The committed sequence, below which every message is acknowledged,
+ * is kept in a small memory-mapped file, and segments that lie entirely below it are deleted.
+ * When the outbox is reopened after the process died, delivery resumes from the committed
+ * sequence, so a message may be sent twice but is never lost.
+ *
+ * <p>Writes to the mapped files survive the process being killed. Call {@link #flush()} to also
+ * survive an operating system crash. Records torn by one are detected by their checksum when
+ * the outbox is reopened or the record is read; delivery skips them and everything after them in
+ * the same segment, and counts those messages in {@link #getLostCount()}.
+ * {@link #append} blocks while {@code maxSegments} segments are full of unacknowledged messages.
+ */
+public final class MessageOutbox implements Closeable {
+
+  private static final int MAGIC = 0x4f424f58;
+  private static final int VERSION = 1;
+  // Magic, version and the sequence number of the first record.
+  private static final int SEGMENT_HEADER_BYTES = 16;
+  // Length and CRC32 of the payload.
+  private static final int RECORD_HEADER_BYTES = 8;
+  // Magic, version and the committed sequence.
+  private static final int COMMIT_FILE_BYTES = 16;
+  private static final String SEGMENT_SUFFIX = ".segment";
+  private static final String COMMIT_FILE = "committed";
+  private static final long INITIAL_BACKOFF_MILLIS = 500;
+  private static final long MAX_BACKOFF_MILLIS = TimeUnit.SECONDS.toMillis(30);
+
+  private final Path directory;
+  private final int segmentBytes;
+  private final int maxSegments;
+  private final int maxInFlight;
+  private final int maxAttempts;
+  private final RandomAccessFile commitFile;
+  private final MappedByteBuffer commitBuffer;
+  private final Semaphore inFlight;
+  private final AtomicLong delivered = new AtomicLong();
+  private final AtomicLong failed = new AtomicLong();
+  private final AtomicLong lost = new AtomicLong();
+  private volatile Throwable deliveryFailure;
+
+  // Guarded by this.
+  private final TreeMap<Long, Segment> segments = new TreeMap<>();
+  private final Set<Long> acknowledged = new HashSet<>();
+  private Segment head;
+  private long nextSequence;
+  private long committed;
+  private long nextRead;
+  private Segment readSegment;
+  private int readPosition;
+  private boolean closing;
+  private boolean closed;
+  private Thread delivery;
+  private ScheduledExecutorService retryScheduler;
+
+  private MessageOutbox(Builder builder) throws IOException {
+    this.directory = builder.directory;
+    this.segmentBytes = builder.segmentBytes;
+    this.maxSegments = builder.maxSegments;
+    this.maxInFlight = builder.maxInFlight;
+    this.maxAttempts = builder.maxAttempts;
+    this.inFlight = new Semaphore(maxInFlight);
+
+    Files.createDirectories(directory);
+    this.commitFile = new RandomAccessFile(directory.resolve(COMMIT_FILE).toFile(), "rw");
+    boolean created = commitFile.length() == 0;
+    this.commitBuffer =
+        commitFile.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, COMMIT_FILE_BYTES);
+    if (created) {
+      commitBuffer.putInt(0, MAGIC).putInt(4, VERSION).putLong(8, 0);
+    } else if (commitBuffer.getInt(0) != MAGIC || commitBuffer.getInt(4) != VERSION) {
+      commitFile.close();
+      throw new IOException("Not an outbox directory: " + directory);
+    }
+    this.committed = commitBuffer.getLong(8);
+
+    try {
+      recover();
+    } catch (IOException | RuntimeException e) {
+      closeFiles();
+      throw e;
+    }
+  }
+
+  public static Builder builder(Path directory) {
+    return new Builder(directory);
+  }
+
+  /** Appends a message and returns its sequence number. */
+  public long append(Message message) throws IOException, InterruptedException {
+    String json = "{\"message\":" + GsonFactory.getDefaultInstance().toString(message) + "}";
+    return append(json.getBytes(StandardCharsets.UTF_8));
+  }
+
+  /**
+   * Appends a {@code messages:send} request body, such as one rendered by a
+   * {@link MessageTemplate}, and returns its sequence number. Blocks while the outbox is full.
+   *
+   * @throws IllegalArgumentException if the request does not fit in a segment.
+   */
+  public long append(byte[] requestBody) throws IOException, InterruptedException {
+    int recordBytes = RECORD_HEADER_BYTES + requestBody.length;
+    if (requestBody.length == 0 || recordBytes > segmentBytes - SEGMENT_HEADER_BYTES) {
+      throw new IllegalArgumentException(
+          "requestBody must be non-empty and fit in a segment of " + segmentBytes + " bytes");
+    }
+    CRC32 crc = new CRC32();
+    crc.update(requestBody, 0, requestBody.length);
+
+    synchronized (this) {
+      ensureOpen();
+      while (head == null || head.writePosition + recordBytes > head.buffer.capacity()) {
+        if (segments.size() >= maxSegments) {
+          // Wait for delivery to free a segment.
+          wait();
+          ensureOpen();
+          continue;
+        }
+        head = createSegment(nextSequence);
+      }
+      ByteBuffer buffer = head.buffer.duplicate();
+      buffer.position(head.writePosition + RECORD_HEADER_BYTES);
+      buffer.put(requestBody);
+      head.buffer.putInt(head.writePosition + 4, (int) crc.getValue());
+      // The length goes last: a record with a zero length marks the end of the segment.
+      head.buffer.putInt(head.writePosition, requestBody.length);
+      head.writePosition += recordBytes;
+      head.count++;
+      notifyAll();
+      return nextSequence++;
+    }
+  }
+
+  /**
+   * Marks a message as handled. The committed sequence advances once every earlier message is
+   * acknowledged too, and segments it has passed are deleted.
+   */
+  public synchronized void acknowledge(long sequence) {
+    if (closed || sequence < committed || sequence >= nextSequence) {
+      return;
+    }
+    acknowledged.add(sequence);
+    if (sequence != committed) {
+      return;
+    }
+    while (acknowledged.remove(committed)) {
+      committed++;
+    }
+    commitBuffer.putLong(8, committed);
+    compact();
+  }
+
+  /**
+   * Starts delivering messages, beginning with any left unacknowledged by a previous run, on a
+   * background thread until the outbox is closed. Messages that fail with a 429, a 5xx or a
+   * network error are retried with exponential backoff up to {@code maxAttempts} times; other
+   * failures and exhausted retries are counted in {@link #getFailedCount()} and acknowledged.
+   */
+  public synchronized void startDelivery(final Http2MessageSender sender) {
+    ensureOpen();
+    if (delivery != null) {
+      throw new IllegalStateException("Delivery has already been started");
+    }
+    retryScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "message-outbox-retry");
+      thread.setDaemon(true);
+      return thread;
+    });
+    delivery = new Thread(() -> deliverAll(sender), "message-outbox-delivery");
+    delivery.setDaemon(true);
+    delivery.start();
+  }
+
+  /** Number of messages appended but not yet acknowledged. */
+  public synchronized long getPendingCount() {
+    return nextSequence - committed;
+  }
+
+  /** All messages with a lower sequence number have been acknowledged. */
+  public synchronized long getCommittedSequence() {
+    return committed;
+  }
+
+  public long getDeliveredCount() {
+    return delivered.get();
+  }
+
+  /** Messages that were acknowledged without being delivered. */
+  public long getFailedCount() {
+    return failed.get();
+  }
+
+  /** Messages skipped because their records were torn or corrupt. */
+  public long getLostCount() {
+    return lost.get();
+  }
+
+  /**
+   * Returns the error that stopped the delivery thread, or null if it is running or was stopped
+   * by {@link #close()}.
+   */
+  public Throwable getDeliveryFailure() {
+    return deliveryFailure;
+  }
+
+  /** Forces appended messages and the committed sequence to the storage device. */
+  public synchronized void flush() {
+    ensureOpen();
+    for (Segment segment : segments.values()) {
+      segment.buffer.force();
+    }
+    commitBuffer.force();
+  }
+
+  /**
+   * Stops delivery, waits for the sends in flight and closes the files. Messages that were not
+   * delivered stay in the log and are sent after the outbox is reopened.
+   */
+  @Override
+  public void close() throws IOException {
+    Thread deliveryThread;
+    ScheduledExecutorService scheduler;
+    synchronized (this) {
+      if (closing) {
+        return;
+      }
+      closing = true;
+      deliveryThread = delivery;
+      scheduler = retryScheduler;
+      // Stop reading; acknowledgements are still accepted until the sends in flight finish.
+      delivery = null;
+      notifyAll();
+    }
+    boolean interrupted = false;
+    if (deliveryThread != null) {
+      deliveryThread.interrupt();
+      try {
+        deliveryThread.join();
+        // Pending retries hold a permit each; dropping them leaves their messages in the log.
+        inFlight.release(scheduler.shutdownNow().size());
+        scheduler.awaitTermination(1, TimeUnit.MINUTES);
+        inFlight.acquire(maxInFlight);
+      } catch (InterruptedException e) {
+        interrupted = true;
+      }
+    }
+    synchronized (this) {
+      closed = true;
+      notifyAll();
+      for (Segment segment : segments.values()) {
+        segment.buffer.force();
+      }
+      commitBuffer.force();
+      closeFiles();
+    }
+    if (interrupted) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private void deliverAll(Http2MessageSender sender) {
+    try {
+      while (true) {
+        inFlight.acquire();
+        Record record;
+        try {
+          record = next();
+        } catch (InterruptedException | RuntimeException | Error e) {
+          inFlight.release();
+          throw e;
+        }
+        if (record == null) {
+          inFlight.release();
+          return;
+        }
+        send(sender, record, 1);
+      }
+    } catch (InterruptedException e) {
+      // Closing; whatever has not been sent is replayed after a restart.
+    } catch (RuntimeException | Error e) {
+      deliveryFailure = e;
+      System.out.println("Outbox delivery stopped: " + e);
+      throw e;
+    }
+  }
+
+  private void send(final Http2MessageSender sender, final Record record, final int attempt) {
+    ApiFuture<String> response;
+    try {
+      response = sender.send(record.body);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      inFlight.release();
+      return;
+    } catch (RuntimeException e) {
+      onFailure(sender, record, attempt, e);
+      return;
+    }
+    ApiFutures.addCallback(response, new ApiFutureCallback<String>() {
+      @Override
+      public void onSuccess(String name) {
+        delivered.incrementAndGet();
+        acknowledge(record.sequence);
+        inFlight.release();
+      }
+
+      @Override
+      public void onFailure(Throwable t) {
+        MessageOutbox.this.onFailure(sender, record, attempt, t);
+      }
+    }, MoreExecutors.directExecutor());
+  }
+
+  private void onFailure(final Http2MessageSender sender, final Record record, final int attempt,
+      Throwable t) {
+    synchronized (this) {
+      if (delivery == null) {
+        // Closing: leave the message in the log.
+        inFlight.release();
+        return;
+      }
+      if (isRetryable(t) && attempt < maxAttempts) {
+        retryScheduler.schedule(() -> send(sender, record, attempt + 1),
+            backoffMillis(attempt), TimeUnit.MILLISECONDS);
+        return;
+      }
+    }
+    failed.incrementAndGet();
+    System.out.println("Dropping message " + record.sequence + ": " + t.getMessage());
+    acknowledge(record.sequence);
+    inFlight.release();
+  }
+
+  private static boolean isRetryable(Throwable t) {
+    if (t instanceof Http2MessageSender.SendException) {
+      int status = ((Http2MessageSender.SendException) t).getStatusCode();
+      return status == 429 || status >= 500;
+    }
+    return t instanceof IOException;
+  }
+
+  private static long backoffMillis(int attempt) {
+    long backoff = Math.min(MAX_BACKOFF_MILLIS, INITIAL_BACKOFF_MILLIS << (attempt - 1));
+    return backoff / 2 + ThreadLocalRandom.current().nextLong(backoff / 2 + 1);
+  }
+
+  // Returns the next unread record, or null once delivery is stopped.
+  private synchronized Record next() throws InterruptedException {
+    while (true) {
+      while (delivery != null && nextRead == nextSequence) {
+        wait();
+      }
+      if (delivery == null) {
+        return null;
+      }
+      if (readSegment == null || nextRead >= readSegment.firstSequence + readSegment.count) {
+        Map.Entry<Long, Segment> floor = segments.floorEntry(nextRead);
+        if (floor == null || nextRead >= floor.getKey() + floor.getValue().count) {
+          // Past the last valid record of a segment that recovery or a read found torn. Once
+          // its valid records are acknowledged, compact() may already have deleted it.
+          skipToNextSegment();
+          continue;
+        }
+        Segment segment = floor.getValue();
+        readSegment = segment;
+        readPosition = positionOf(segment, nextRead);
+      }
+      byte[] body = readRecord(readSegment.buffer, readPosition);
+      if (body == null) {
+        // Treat this record and the rest of its segment as lost.
+        readSegment.count = (int) (nextRead - readSegment.firstSequence);
+        readSegment.writePosition = readSegment.buffer.capacity();
+        skipToNextSegment();
+        continue;
+      }
+      readPosition += RECORD_HEADER_BYTES + body.length;
+      return new Record(nextRead++, body);
+    }
+  }
+
+  // Acknowledges the unreadable messages from nextRead up to the next segment.
+  private void skipToNextSegment() {
+    Long following = segments.higherKey(nextRead);
+    long resume = following != null ? following : nextSequence;
+    System.out.println("Skipping unreadable outbox messages " + nextRead + " to " + (resume - 1));
+    lost.addAndGet(resume - nextRead);
+    readSegment = null;
+    long from = nextRead;
+    nextRead = resume;
+    for (long sequence = from; sequence < resume; sequence++) {
+      acknowledge(sequence);
+    }
+  }
+
+  // Returns the payload of the record at position, or null if it is torn or corrupt.
+  private static byte[] readRecord(MappedByteBuffer buffer, int position) {
+    if (position + RECORD_HEADER_BYTES > buffer.capacity()) {
+      return null;
+    }
+    int length = buffer.getInt(position);
+    if (length <= 0 || length > buffer.capacity() - position - RECORD_HEADER_BYTES) {
+      return null;
+    }
+    byte[] body = new byte[length];
+    ByteBuffer payload = buffer.duplicate();
+    payload.position(position + RECORD_HEADER_BYTES);
+    payload.get(body);
+    CRC32 crc = new CRC32();
+    crc.update(body, 0, length);
+    return (int) crc.getValue() == buffer.getInt(position + 4) ? body : null;
+  }
+
+  private void ensureOpen() {
+    if (closing) {
+      throw new IllegalStateException("outbox is closed");
+    }
+  }
+
+  // Opens the existing segments, finds where each one ends and drops those already committed.
+  private void recover() throws IOException {
+    try (DirectoryStream<Path> files =
+        Files.newDirectoryStream(directory, "*" + SEGMENT_SUFFIX)) {
+      for (Path path : files) {
+        Segment segment = openSegment(path);
+        if (segment != null) {
+          segments.put(segment.firstSequence, segment);
+        }
+      }
+    }
+    if (segments.isEmpty()) {
+      nextSequence = committed;
+    } else {
+      Segment last = segments.lastEntry().getValue();
+      nextSequence = last.firstSequence + last.count;
+      head = last;
+      committed = Math.max(committed, segments.firstKey());
+      committed = Math.min(committed, nextSequence);
+    }
+    nextRead = committed;
+    commitBuffer.putLong(8, committed);
+    compact();
+  }
+
+  // Returns null, after deleting the file, for a segment whose header was never written.
+  private Segment openSegment(Path path) throws IOException {
+    RandomAccessFile file = new RandomAccessFile(path.toFile(), "rw");
+    try {
+      MappedByteBuffer buffer =
+          file.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, file.length());
+      if (buffer.capacity() < SEGMENT_HEADER_BYTES || buffer.getInt(0) == 0) {
+        // createSegment sizes the file before writing the header; a crash in between leaves a
+        // short or zeroed file that never held a record.
+        System.out.println("Deleting empty outbox segment " + path);
+        file.close();
+        Files.delete(path);
+        return null;
+      }
+      if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+        throw new IOException("Not an outbox segment: " + path);
+      }
+      Segment segment = new Segment(path, file, buffer, buffer.getLong(8));
+      // Scan to the first empty or torn record; count marks the end of the valid records, and
+      // delivery skips from there to the next segment.
+      int position = SEGMENT_HEADER_BYTES;
+      byte[] body;
+      while ((body = readRecord(buffer, position)) != null) {
+        position += RECORD_HEADER_BYTES + body.length;
+        segment.count++;
+      }
+      segment.writePosition = position;
+      // Never append after a torn record; the next append starts a new segment.
+      if (position + RECORD_HEADER_BYTES <= buffer.capacity() && buffer.getInt(position) != 0) {
+        segment.writePosition = buffer.capacity();
+      }
+      return segment;
+    } catch (IOException | RuntimeException e) {
+      file.close();
+      throw e;
+    }
+  }
+
+  private Segment createSegment(long firstSequence) throws IOException {
+    Path path = directory.resolve(String.format("%020d%s", firstSequence, SEGMENT_SUFFIX));
+    RandomAccessFile file = new RandomAccessFile(path.toFile(), "rw");
+    try {
+      file.setLength(segmentBytes);
+      MappedByteBuffer buffer =
+          file.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, segmentBytes);
+      buffer.putInt(0, MAGIC).putInt(4, VERSION).putLong(8, firstSequence);
+      Segment segment = new Segment(path, file, buffer, firstSequence);
+      segment.writePosition = SEGMENT_HEADER_BYTES;
+      segments.put(firstSequence, segment);
+      return segment;
+    } catch (IOException | RuntimeException e) {
+      file.close();
+      throw e;
+    }
+  }
+
+  // Deletes segments whose records are all below the committed sequence, except the head.
+  private void compact() {
+    Iterator<Map.Entry<Long, Segment>> iterator = segments.entrySet().iterator();
+    while (iterator.hasNext()) {
+      Segment segment = iterator.next().getValue();
+      if (segment == head || segment.firstSequence + segment.count > committed) {
+        break;
+      }
+      iterator.remove();
+      if (segment == readSegment) {
+        readSegment = null;
+      }
+      try {
+        segment.file.close();
+        Files.deleteIfExists(segment.path);
+      } catch (IOException e) {
+        System.out.println("Failed to delete outbox segment " + segment.path + ": "
+            + e.getMessage());
+      }
+      notifyAll();
+    }
+  }
+
+  private static int positionOf(Segment segment, long sequence) {
+    int position = SEGMENT_HEADER_BYTES;
+    for (long i = segment.firstSequence; i < sequence; i++) {
+      position += RECORD_HEADER_BYTES + segment.buffer.getInt(position);
+    }
+    return position;
+  }
+
+  private void closeFiles() throws IOException {
+    IOException failure = null;
+    for (Segment segment : segments.values()) {
+      try {
+        segment.file.close();
+      } catch (IOException e) {
+        failure = e;
+      }
+    }
+    commitFile.close();
+    if (failure != null) {
+      throw failure;
+    }
+  }
+
+  private static final class Segment {
+
+    final Path path;
+    final RandomAccessFile file;
+    final MappedByteBuffer buffer;
+    final long firstSequence;
+    int count;
+    int writePosition;
+
+    Segment(Path path, RandomAccessFile file, MappedByteBuffer buffer, long firstSequence) {
+      this.path = path;
+      this.file = file;
+      this.buffer = buffer;
+      this.firstSequence = firstSequence;
+    }
+  }
+
+  private static final class Record {
+
+    final long sequence;
+    final byte[] body;
+
+    Record(long sequence, byte[] body) {
+      this.sequence = sequence;
+      this.body = body;
+    }
+  }
+
+  public static final class Builder {
+
+    private final Path directory;
+    private int segmentBytes = 64 << 20;
+    private int maxSegments = 16;
+    private int maxInFlight = 100;
+    private int maxAttempts = 5;
+
+    private Builder(Path directory) {
+      if (directory == null) {
+        throw new IllegalArgumentException("directory must not be null");
+      }
+      this.directory = directory;
+    }
+
+    /** Sets the size of each segment file. Defaults to 64 MiB. */
+    public Builder setSegmentBytes(int segmentBytes) {
+      if (segmentBytes < 4096) {
+        throw new IllegalArgumentException("segmentBytes must be at least 4096");
+      }
+      this.segmentBytes = segmentBytes;
+      return this;
+    }
+
+    /** Sets how many segments may exist before {@link #append} blocks. Defaults to 16. */
+    public Builder setMaxSegments(int maxSegments) {
+      if (maxSegments < 2) {
+        throw new IllegalArgumentException("maxSegments must be at least 2");
+      }
+      this.maxSegments = maxSegments;
+      return this;
+    }
+
+    /** Sets how many messages may be sent or awaiting a retry at once. */
+    public Builder setMaxInFlight(int maxInFlight) {
+      if (maxInFlight < 1) {
+        throw new IllegalArgumentException("maxInFlight must be at least 1");
+      }
+      this.maxInFlight = maxInFlight;
+      return this;
+    }
+
+    public Builder setMaxAttempts(int maxAttempts) {
+      if (maxAttempts < 1) {
+        throw new IllegalArgumentException("maxAttempts must be at least 1");
+      }
+      this.maxAttempts = maxAttempts;
+      return this;
+    }
+
+    /** Opens the outbox, creating the directory if needed and recovering any existing log. */
+    public MessageOutbox open() throws IOException {
+      return new MessageOutbox(this);
+    }
+  }
+}
@@ -0,0 +1,244 @@
+/*
+ * Copyright 2026 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.firebase.example;
+
+import com.google.api.client.json.JsonFactory;
+import com.google.api.client.json.gson.GsonFactory;
+import com.google.firebase.messaging.Message;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A pre-serialized FCM v1 send request in which only a few fields vary per recipient.
+ *
+ * <p>Build a {@link Message} as usual, using {@link #placeholder(String)} wherever a value
+ * changes per recipient, typically the token and some data values. {@link #compile(Message)}
+ * serializes it once to the JSON body of a {@code messages:send} request and splits it into
+ * constant UTF-8 segments around the placeholders. A {@link Renderer} then writes those segments
+ * and the escaped recipient values into a byte buffer that it reuses, so rendering a request
+ * allocates nothing once the buffer has grown to fit.
+ *
+ * <p>The rendered bytes are sent with a plain HTTP request to the v1 API, since the SDK only
+ * accepts {@code Message} objects. A template is immutable and can be shared across threads;
+ * each thread needs its own renderer.
+ */
+public final class MessageTemplate {
+
+  private static final Pattern PLACEHOLDER = Pattern.compile("\\{\\{([A-Za-z0-9_]+)\\}\\}");
+  private static final byte[] HEX = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+
+  private final byte[][] segments;
+  private final int[] slots;
+  private final List<String> names;
+
+  private MessageTemplate(byte[][] segments, int[] slots, List<String> names) {
+    this.segments = segments;
+    this.slots = slots;
+    this.names = names;
+  }
+
+  /** Returns the marker for a value named {@code name}, to use in place of the real value. */
+  public static String placeholder(String name) {
+    if (name == null || !PLACEHOLDER.matcher("{{" + name + "}}").matches()) {
+      throw new IllegalArgumentException("name must consist of letters, digits and '_'");
+    }
+    return "{{" + name + "}}";
+  }
+
+  public static MessageTemplate compile(Message message) {
+    return compile(message, false);
+  }
+
+  /**
+   * Serializes {@code message} into a send request template.
+   *
+   * @param validateOnly Whether FCM should only validate the message, as in a dry run.
+   */
+  public static MessageTemplate compile(Message message, boolean validateOnly) {
+    if (message == null) {
+      throw new IllegalArgumentException("message must not be null");
+    }
+    String json;
+    try {
+      // The SDK serializes messages with the same annotated-field JSON mapping.
+      JsonFactory jsonFactory = GsonFactory.getDefaultInstance();
+      json = "{\"message\":" + jsonFactory.toString(message)
+          + (validateOnly ? ",\"validate_only\":true}" : "}");
+    } catch (IOException e) {
+      throw new IllegalArgumentException("Unable to serialize message", e);
+    }
+
+    List<byte[]> segments = new ArrayList<>();
+    List<String> names = new ArrayList<>();
+    List<Integer> slots = new ArrayList<>();
+    Matcher matcher = PLACEHOLDER.matcher(json);
+    int start = 0;
+    while (matcher.find()) {
+      segments.add(json.substring(start, matcher.start()).getBytes(StandardCharsets.UTF_8));
+      String name = matcher.group(1);
+      int slot = names.indexOf(name);
+      if (slot < 0) {
+        slot = names.size();
+        names.add(name);
+      }
+      slots.add(slot);
+      start = matcher.end();
+    }
+    segments.add(json.substring(start).getBytes(StandardCharsets.UTF_8));
+
+    int[] slotArray = new int[slots.size()];
+    for (int i = 0; i < slotArray.length; i++) {
+      slotArray[i] = slots.get(i);
+    }
+    return new MessageTemplate(segments.toArray(new byte[0][]), slotArray,
+        Collections.unmodifiableList(names));
+  }
+
+  /** Placeholder names in the order of their slots. */
+  public List<String> getPlaceholders() {
+    return names;
+  }
+
+  /** Returns the slot for placeholder {@code name}, for use with {@link Renderer#set}. */
+  public int slotOf(String name) {
+    int slot = names.indexOf(name);
+    if (slot < 0) {
+      throw new IllegalArgumentException("No placeholder named " + name);
+    }
+    return slot;
+  }
+
+  public Renderer newRenderer() {
+    return new Renderer();
+  }
+
+  /** Renders requests from the template into a reusable buffer. Not thread-safe. */
+  public final class Renderer {
+
+    private final CharSequence[] values = new CharSequence[names.size()];
+    private byte[] buffer = new byte[1024];
+    private int length;
+
+    private Renderer() {
+    }
+
+    /** Sets the value for a slot. The value is used as-is until it is set again. */
+    public Renderer set(int slot, CharSequence value) {
+      values[slot] = value;
+      return this;
+    }
+
+    /**
+     * Writes the request with the current values into the buffer and returns this renderer.
+     *
+     * @throws IllegalStateException if a slot has no value.
+     */
+    public Renderer render() {
+      length = 0;
+      for (int i = 0; i < slots.length; i++) {
+        append(segments[i]);
+        CharSequence value = values[slots[i]];
+        if (value == null) {
+          throw new IllegalStateException("No value for placeholder " + names.get(slots[i]));
+        }
+        appendEscaped(value);
+      }
+      append(segments[slots.length]);
+      return this;
+    }
+
+    /** The buffer holding the last rendered request in its first {@link #length()} bytes. */
+    public byte[] buffer() {
+      return buffer;
+    }
+
+    public int length() {
+      return length;
+    }
+
+    public void writeTo(OutputStream out) throws IOException {
+      out.write(buffer, 0, length);
+    }
+
+    /** Returns a copy of the last rendered request, mainly for debugging. */
+    @Override
+    public String toString() {
+      return new String(buffer, 0, length, StandardCharsets.UTF_8);
+    }
+
+    private void append(byte[] bytes) {
+      ensureCapacity(bytes.length);
+      System.arraycopy(bytes, 0, buffer, length, bytes.length);
+      length += bytes.length;
+    }
+
+    // Writes value as the content of a JSON string, encoded as UTF-8.
+    private void appendEscaped(CharSequence value) {
+      // Every char takes at most 6 bytes, as a \\u escape.
+      ensureCapacity(value.length() * 6);
+      byte[] out = buffer;
+      int pos = length;
+      for (int i = 0; i < value.length(); i++) {
+        char c = value.charAt(i);
+        if (c == '"' || c == '\\') {
+          out[pos++] = '\\';
+          out[pos++] = (byte) c;
+        } else if (c < 0x20) {
+          out[pos++] = '\\';
+          out[pos++] = 'u';
+          out[pos++] = '0';
+          out[pos++] = '0';
+          out[pos++] = HEX[c >> 4];
+          out[pos++] = HEX[c & 0xf];
+        } else if (c < 0x80) {
+          out[pos++] = (byte) c;
+        } else if (c < 0x800) {
+          out[pos++] = (byte) (0xc0 | (c >> 6));
+          out[pos++] = (byte) (0x80 | (c & 0x3f));
+        } else if (Character.isHighSurrogate(c) && i + 1 < value.length()
+            && Character.isLowSurrogate(value.charAt(i + 1))) {
+          int codePoint = Character.toCodePoint(c, value.charAt(++i));
+          out[pos++] = (byte) (0xf0 | (codePoint >> 18));
+          out[pos++] = (byte) (0x80 | ((codePoint >> 12) & 0x3f));
+          out[pos++] = (byte) (0x80 | ((codePoint >> 6) & 0x3f));
+          out[pos++] = (byte) (0x80 | (codePoint & 0x3f));
+        } else if (Character.isSurrogate(c)) {
+          // Unpaired surrogate; replace it as String.getBytes would.
+          out[pos++] = '?';
+        } else {
+          out[pos++] = (byte) (0xe0 | (c >> 12));
+          out[pos++] = (byte) (0x80 | ((c >> 6) & 0x3f));
+          out[pos++] = (byte) (0x80 | (c & 0x3f));
+        }
+      }
+      length = pos;
+    }
+
+    private void ensureCapacity(int extra) {
+      if (length + extra > buffer.length) {
+        buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, length + extra));
+      }
+    }
+  }
+}
@@ -0,0 +1,302 @@
+/*
+ * Copyright 2026 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.firebase.example;
+
+import com.google.firebase.messaging.FirebaseMessagingException;
+import com.google.firebase.messaging.MessagingErrorCode;
+
+import java.io.Closeable;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Latency, concurrency, error and batch size metrics for FCM operations.
+ *
+ * <p>Each {@link Operation} has a {@link LongHistogram} of latencies, an in-flight gauge, call
+ * and failure counters, counts per error code and a histogram of batch sizes. Recording only
+ * touches preallocated counters, so {@link InstrumentedMessaging} can record every call. The
+ * metrics can be read through {@link #get(Operation)}, published as MXBeans with
+ * {@link #registerMBeans(String)}, or pushed to any monitoring system with
+ * {@link #startExporting(Exporter, long, TimeUnit)}.
+ */
+public final class MessagingMetrics {
+
+  /** Error code recorded for failures that do not carry a {@link MessagingErrorCode}. */
+  public static final String UNKNOWN_ERROR = "UNKNOWN";
+
+  public enum Operation {
+    SEND,
+    SEND_ALL,
+    SEND_MULTICAST,
+    SUBSCRIBE,
+    UNSUBSCRIBE
+  }
+
+  /** Receives the metrics periodically; see {@link #startExporting}. */
+  public interface Exporter {
+
+    void export(List<OperationMetrics> operations);
+  }
+
+  /** JMX view of one operation. All values are cumulative since the metrics were created. */
+  public interface OperationMXBean {
+
+    long getCalls();
+
+    long getFailedCalls();
+
+    int getInFlight();
+
+    double getMeanLatencyMillis();
+
+    double getP50LatencyMillis();
+
+    double getP99LatencyMillis();
+
+    double getP999LatencyMillis();
+
+    double getMaxLatencyMillis();
+
+    double getMeanBatchSize();
+
+    long getMaxBatchSize();
+
+    /** Failed calls and failed items within batches, by error code. */
+    Map<String, Long> getErrorCounts();
+  }
+
+  /** The metrics of one operation. */
+  public static final class OperationMetrics implements OperationMXBean {
+
+    private final Operation operation;
+    private final LongHistogram latencyNanos = new LongHistogram();
+    private final LongHistogram batchSizes = new LongHistogram();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder failedCalls = new LongAdder();
+    private final ConcurrentHashMap<String, LongAdder> errors = new ConcurrentHashMap<>();
+
+    private OperationMetrics(Operation operation) {
+      this.operation = operation;
+    }
+
+    public Operation getOperation() {
+      return operation;
+    }
+
+    public LongHistogram.Snapshot getLatencyNanos() {
+      return latencyNanos.snapshot();
+    }
+
+    public LongHistogram.Snapshot getBatchSizes() {
+      return batchSizes.snapshot();
+    }
+
+    @Override
+    public long getCalls() {
+      return latencyNanos.getCount();
+    }
+
+    @Override
+    public long getFailedCalls() {
+      return failedCalls.sum();
+    }
+
+    @Override
+    public int getInFlight() {
+      return inFlight.get();
+    }
+
+    @Override
+    public double getMeanLatencyMillis() {
+      return latencyNanos.snapshot().getMean() / 1e6;
+    }
+
+    @Override
+    public double getP50LatencyMillis() {
+      return latencyPercentileMillis(50);
+    }
+
+    @Override
+    public double getP99LatencyMillis() {
+      return latencyPercentileMillis(99);
+    }
+
+    @Override
+    public double getP999LatencyMillis() {
+      return latencyPercentileMillis(99.9);
+    }
+
+    @Override
+    public double getMaxLatencyMillis() {
+      return latencyNanos.snapshot().getMax() / 1e6;
+    }
+
+    @Override
+    public double getMeanBatchSize() {
+      return batchSizes.snapshot().getMean();
+    }
+
+    @Override
+    public long getMaxBatchSize() {
+      return batchSizes.snapshot().getMax();
+    }
+
+    @Override
+    public Map<String, Long> getErrorCounts() {
+      Map<String, Long> counts = new TreeMap<>();
+      for (Map.Entry<String, LongAdder> entry : errors.entrySet()) {
+        counts.put(entry.getKey(), entry.getValue().sum());
+      }
+      return counts;
+    }
+
+    private double latencyPercentileMillis(double percentile) {
+      return latencyNanos.snapshot().getValueAtPercentile(percentile) / 1e6;
+    }
+
+    @Override
+    public String toString() {
+      LongHistogram.Snapshot latency = latencyNanos.snapshot();
+      return String.format("%s: calls=%d, failed=%d, inFlight=%d, p50=%.1fms, p99=%.1fms, "
+              + "max=%.1fms, meanBatch=%.1f, errors=%s", operation, latency.getCount(),
+          getFailedCalls(), getInFlight(), latency.getValueAtPercentile(50) / 1e6,
+          latency.getValueAtPercentile(99) / 1e6, latency.getMax() / 1e6, getMeanBatchSize(),
+          getErrorCounts());
+    }
+  }
+
+  private final Map<Operation, OperationMetrics> operations;
+  private final List<ObjectName> registered = new ArrayList<>();
+
+  public MessagingMetrics() {
+    Map<Operation, OperationMetrics> operations = new EnumMap<>(Operation.class);
+    for (Operation operation : Operation.values()) {
+      operations.put(operation, new OperationMetrics(operation));
+    }
+    this.operations = Collections.unmodifiableMap(operations);
+  }
+
+  public OperationMetrics get(Operation operation) {
+    return operations.get(operation);
+  }
+
+  /** Records the start of a call and returns the value to pass to {@link #recordEnd}. */
+  public long recordStart(Operation operation) {
+    operations.get(operation).inFlight.incrementAndGet();
+    return System.nanoTime();
+  }
+
+  /**
+   * Records the end of a call started at {@code startNanos}. {@code batchSize} is the number of
+   * messages or tokens in the call, or 0 if unknown, and {@code error} is null if the call
+   * succeeded.
+   */
+  public void recordEnd(Operation operation, long startNanos, int batchSize, Throwable error) {
+    OperationMetrics metrics = operations.get(operation);
+    metrics.latencyNanos.record(System.nanoTime() - startNanos);
+    metrics.inFlight.decrementAndGet();
+    if (batchSize > 0) {
+      metrics.batchSizes.record(batchSize);
+    }
+    if (error != null) {
+      metrics.failedCalls.increment();
+      recordError(operation, errorCodeOf(error));
+    }
+  }
+
+  /** Counts one failed item, such as a token rejected within a successful batch call. */
+  public void recordError(Operation operation, String errorCode) {
+    ConcurrentHashMap<String, LongAdder> errors = operations.get(operation).errors;
+    String key = errorCode != null ? errorCode : UNKNOWN_ERROR;
+    // Look up first so the common case neither locks nor allocates.
+    LongAdder counter = errors.get(key);
+    if (counter == null) {
+      counter = errors.computeIfAbsent(key, k -> new LongAdder());
+    }
+    counter.increment();
+  }
+
+  /** Returns the name of the {@link MessagingErrorCode} carried by {@code error}, if any. */
+  public static String errorCodeOf(Throwable error) {
+    if (error instanceof FirebaseMessagingException) {
+      MessagingErrorCode code = ((FirebaseMessagingException) error).getMessagingErrorCode();
+      if (code != null) {
+        return code.name();
+      }
+    }
+    return UNKNOWN_ERROR;
+  }
+
+  /**
+   * Registers one MXBean per operation with the platform MBean server, named
+   * {@code com.google.firebase.example:type=MessagingMetrics,name=<name>,operation=<op>}.
+   */
+  public synchronized void registerMBeans(String name) throws JMException {
+    MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+    for (OperationMetrics metrics : operations.values()) {
+      ObjectName objectName = new ObjectName("com.google.firebase.example:type=MessagingMetrics,"
+          + "name=" + ObjectName.quote(name) + ",operation="
+          + metrics.operation.name().toLowerCase());
+      server.registerMBean(metrics, objectName);
+      registered.add(objectName);
+    }
+  }
+
+  public synchronized void unregisterMBeans() throws JMException {
+    MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+    for (ObjectName objectName : registered) {
+      server.unregisterMBean(objectName);
+    }
+    registered.clear();
+  }
+
+  /**
+   * Calls {@code exporter} every {@code period} on a daemon thread until the returned handle is
+   * closed. An exporter that throws is logged and called again at the next period.
+   */
+  public Closeable startExporting(final Exporter exporter, long period, TimeUnit unit) {
+    final List<OperationMetrics> all =
+        Collections.unmodifiableList(new ArrayList<>(operations.values()));
+    final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(
+        runnable -> {
+          Thread thread = new Thread(runnable, "messaging-metrics-exporter");
+          thread.setDaemon(true);
+          return thread;
+        });
+    scheduler.scheduleAtFixedRate(() -> {
+      try {
+        exporter.export(all);
+      } catch (RuntimeException e) {
+        System.out.println("Metrics export failed: " + e.getMessage());
+      }
+    }, period, period, unit);
+    return scheduler::shutdown;
+  }
+}
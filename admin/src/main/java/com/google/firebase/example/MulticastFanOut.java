@@ -0,0 +1,374 @@
+/*
+ * Copyright 2026 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.firebase.example;
+
+import com.google.firebase.ErrorCode;
+import com.google.firebase.FirebaseException;
+import com.google.firebase.IncomingHttpResponse;
+import com.google.firebase.messaging.BatchResponse;
+import com.google.firebase.messaging.FirebaseMessaging;
+import com.google.firebase.messaging.FirebaseMessagingException;
+import com.google.firebase.messaging.MessagingErrorCode;
+import com.google.firebase.messaging.MulticastMessage;
+import com.google.firebase.messaging.SendResponse;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sends one notification to a large number of registration tokens with concurrent
+ * {@code sendMulticastAsync} calls.
+ *
+ * <p>Tokens are split into shards of at most {@link #MAX_TOKENS_PER_MULTICAST}, and at most
+ * {@code maxInFlight} shards are outstanding at once. Only the tokens whose send failed with a
+ * transient error ({@code UNAVAILABLE}, {@code INTERNAL} or {@code QUOTA_EXCEEDED}) are retried,
+ * in a new shard, after an exponential backoff with random jitter. When FCM sends a
+ * {@code Retry-After} header, no shard is sent before that time has passed. Tokens that fail
+ * permanently, such as unregistered ones, are reported in the {@link Result}.
+ */
+public final class MulticastFanOut {
+
+  /** Largest number of tokens accepted by {@code sendMulticastAsync}. */
+  public static final int MAX_TOKENS_PER_MULTICAST = 500;
+
+  private static final long INITIAL_BACKOFF_MILLIS = 1000;
+  private static final long MAX_BACKOFF_MILLIS = 60_000;
+  private static final List<MessagingErrorCode> RETRYABLE_MESSAGING_ERRORS = Arrays.asList(
+      MessagingErrorCode.UNAVAILABLE, MessagingErrorCode.INTERNAL,
+      MessagingErrorCode.QUOTA_EXCEEDED);
+  private static final List<ErrorCode> RETRYABLE_ERRORS = Arrays.asList(
+      ErrorCode.UNAVAILABLE, ErrorCode.INTERNAL, ErrorCode.RESOURCE_EXHAUSTED,
+      ErrorCode.DEADLINE_EXCEEDED, ErrorCode.UNKNOWN);
+
+  /** Builds the multicast message for one shard of tokens. */
+  public interface MessageFactory {
+
+    MulticastMessage create(List<String> tokens);
+  }
+
+  /** A token that could not be sent to within the configured number of attempts. */
+  public static final class Failure {
+
+    private final String token;
+    private final MessagingErrorCode errorCode;
+    private final String reason;
+
+    Failure(String token, MessagingErrorCode errorCode, String reason) {
+      this.token = token;
+      this.errorCode = errorCode;
+      this.reason = reason;
+    }
+
+    public String getToken() {
+      return token;
+    }
+
+    /** The FCM error code, or null if the failure was not reported by FCM. */
+    public MessagingErrorCode getErrorCode() {
+      return errorCode;
+    }
+
+    public String getReason() {
+      return reason;
+    }
+
+    @Override
+    public String toString() {
+      return token + ": " + (errorCode != null ? errorCode : reason);
+    }
+  }
+
+  /** Outcome of a {@link #send} run. */
+  public static final class Result {
+
+    private final long tokens;
+    private final long delivered;
+    private final long retried;
+    private final long elapsedNanos;
+    private final long[] shardLatencyNanos;
+    private final List<Failure> failures;
+
+    Result(long tokens, long delivered, long retried, long elapsedNanos,
+        long[] shardLatencyNanos, List<Failure> failures) {
+      this.tokens = tokens;
+      this.delivered = delivered;
+      this.retried = retried;
+      this.elapsedNanos = elapsedNanos;
+      this.shardLatencyNanos = shardLatencyNanos;
+      this.failures = Collections.unmodifiableList(failures);
+    }
+
+    /** Number of distinct tokens read from the input. */
+    public long getTokens() {
+      return tokens;
+    }
+
+    public long getDelivered() {
+      return delivered;
+    }
+
+    /** Number of token sends that were scheduled again after a transient failure. */
+    public long getRetried() {
+      return retried;
+    }
+
+    public List<Failure> getFailures() {
+      return failures;
+    }
+
+    /** Time from the first shard being sent to the last response. */
+    public long getElapsedMillis() {
+      return TimeUnit.NANOSECONDS.toMillis(elapsedNanos);
+    }
+
+    /** Number of {@code sendMulticastAsync} calls, including retries. */
+    public int getShards() {
+      return shardLatencyNanos.length;
+    }
+
+    /**
+     * Returns the given percentile, between 0 and 100, of the time between sending a shard and
+     * receiving its response.
+     */
+    public double getShardLatencyMillis(double percentile) {
+      if (percentile < 0 || percentile > 100) {
+        throw new IllegalArgumentException("percentile must be between 0 and 100");
+      }
+      if (shardLatencyNanos.length == 0) {
+        return 0;
+      }
+      int index = (int) Math.ceil(percentile / 100 * shardLatencyNanos.length) - 1;
+      return shardLatencyNanos[Math.max(index, 0)] / 1e6;
+    }
+
+    @Override
+    public String toString() {
+      return String.format("tokens=%d, delivered=%d, failed=%d, retried=%d, elapsedMillis=%d, "
+              + "shards=%d, p50=%.1fms, p99=%.1fms", tokens, delivered, failures.size(), retried,
+          getElapsedMillis(), getShards(), getShardLatencyMillis(50),
+          getShardLatencyMillis(99));
+    }
+  }
+
+  private final FirebaseMessaging messaging;
+  private final MessageFactory messageFactory;
+  private final int shardSize;
+  private final int maxInFlight;
+  private final int maxAttempts;
+  private final boolean dryRun;
+
+  private MulticastFanOut(Builder builder) {
+    this.messaging = builder.messaging;
+    this.messageFactory = builder.messageFactory;
+    this.shardSize = builder.shardSize;
+    this.maxInFlight = builder.maxInFlight;
+    this.maxAttempts = builder.maxAttempts;
+    this.dryRun = builder.dryRun;
+  }
+
+  public static Builder builder(FirebaseMessaging messaging, MessageFactory messageFactory) {
+    return new Builder(messaging, messageFactory);
+  }
+
+  /**
+   * Sends the message to every token produced by {@code tokens}, blocking until all shards,
+   * including retries, have completed.
+   */
+  public Result send(Iterator<String> tokens) throws InterruptedException {
+    Run run = new Run();
+    run.executor.run(tokens, shardSize,
+        shard -> messaging.sendMulticastAsync(messageFactory.create(shard), dryRun), run);
+    return run.result();
+  }
+
+  private final class Run implements ChunkedRetryExecutor.Handler<String, BatchResponse> {
+
+    final long startNanos = System.nanoTime();
+    final ChunkedRetryExecutor<String, BatchResponse> executor = new ChunkedRetryExecutor<>(
+        maxInFlight, maxAttempts, null, INITIAL_BACKOFF_MILLIS, MAX_BACKOFF_MILLIS, true);
+    final List<Failure> failures = new ArrayList<>();
+    final List<Long> shardLatencies = new ArrayList<>();
+    final AtomicLong delivered = new AtomicLong();
+
+    @Override
+    public void onSuccess(ChunkedRetryExecutor.Chunk<String> shard, BatchResponse response) {
+      recordLatency(shard);
+      // Responses are in the same order as the tokens in the shard.
+      List<String> tokens = shard.getItems();
+      List<SendResponse> responses = response.getResponses();
+      List<String> retryTokens = new ArrayList<>();
+      long retryAfterNanos = 0;
+      for (int i = 0; i < tokens.size(); i++) {
+        SendResponse sendResponse = responses.get(i);
+        if (sendResponse.isSuccessful()) {
+          delivered.incrementAndGet();
+          continue;
+        }
+        FirebaseMessagingException e = sendResponse.getException();
+        if (!shard.isLastAttempt()
+            && RETRYABLE_MESSAGING_ERRORS.contains(e.getMessagingErrorCode())) {
+          retryTokens.add(tokens.get(i));
+          retryAfterNanos = Math.max(retryAfterNanos, retryAfterNanos(e));
+        } else {
+          fail(tokens.get(i), e.getMessagingErrorCode(), e.getMessage());
+        }
+      }
+      scheduleRetry(shard, retryTokens, retryAfterNanos);
+    }
+
+    @Override
+    public void onFailure(ChunkedRetryExecutor.Chunk<String> shard, Throwable t) {
+      recordLatency(shard);
+      boolean retryable = !(t instanceof FirebaseException)
+          || RETRYABLE_ERRORS.contains(((FirebaseException) t).getErrorCode());
+      if (!shard.isLastAttempt() && retryable) {
+        long retryAfterNanos =
+            t instanceof FirebaseException ? retryAfterNanos((FirebaseException) t) : 0;
+        scheduleRetry(shard, shard.getItems(), retryAfterNanos);
+      } else {
+        MessagingErrorCode errorCode = t instanceof FirebaseMessagingException
+            ? ((FirebaseMessagingException) t).getMessagingErrorCode() : null;
+        for (String token : shard.getItems()) {
+          fail(token, errorCode, String.valueOf(t.getMessage()));
+        }
+      }
+    }
+
+    private void scheduleRetry(ChunkedRetryExecutor.Chunk<String> shard,
+        List<String> retryTokens, long retryAfterNanos) {
+      if (retryTokens.isEmpty()) {
+        return;
+      }
+      if (retryAfterNanos > 0) {
+        executor.pauseUntil(System.nanoTime() + retryAfterNanos);
+      }
+      executor.retry(shard, retryTokens, retryAfterNanos);
+    }
+
+    private void fail(String token, MessagingErrorCode errorCode, String reason) {
+      synchronized (failures) {
+        failures.add(new Failure(token, errorCode, reason));
+      }
+    }
+
+    private void recordLatency(ChunkedRetryExecutor.Chunk<String> shard) {
+      long latency = System.nanoTime() - shard.getSentNanos();
+      synchronized (shardLatencies) {
+        shardLatencies.add(latency);
+      }
+    }
+
+    Result result() {
+      long[] latencies;
+      synchronized (shardLatencies) {
+        latencies = new long[shardLatencies.size()];
+        for (int i = 0; i < latencies.length; i++) {
+          latencies[i] = shardLatencies.get(i);
+        }
+      }
+      Arrays.sort(latencies);
+      List<Failure> failed;
+      synchronized (failures) {
+        failed = new ArrayList<>(failures);
+      }
+      return new Result(executor.getSubmitted(), delivered.get(), executor.getRetried(),
+          System.nanoTime() - startNanos, latencies, failed);
+    }
+  }
+
+  /** Returns the delay requested by a {@code Retry-After} header in seconds, or 0. */
+  private static long retryAfterNanos(FirebaseException e) {
+    IncomingHttpResponse response = e.getHttpResponse();
+    if (response == null) {
+      return 0;
+    }
+    for (Map.Entry<String, Object> header : response.getHeaders().entrySet()) {
+      if (!"retry-after".equalsIgnoreCase(header.getKey())) {
+        continue;
+      }
+      Object value = header.getValue();
+      if (value instanceof List && !((List<?>) value).isEmpty()) {
+        value = ((List<?>) value).get(0);
+      }
+      try {
+        return TimeUnit.SECONDS.toNanos(Long.parseLong(String.valueOf(value).trim()));
+      } catch (NumberFormatException ignored) {
+        // HTTP dates are not used by FCM; fall back to the exponential backoff.
+        return 0;
+      }
+    }
+    return 0;
+  }
+
+  public static final class Builder {
+
+    private final FirebaseMessaging messaging;
+    private final MessageFactory messageFactory;
+    private int shardSize = MAX_TOKENS_PER_MULTICAST;
+    private int maxInFlight = 8;
+    private int maxAttempts = 5;
+    private boolean dryRun;
+
+    private Builder(FirebaseMessaging messaging, MessageFactory messageFactory) {
+      if (messaging == null || messageFactory == null) {
+        throw new IllegalArgumentException("messaging and messageFactory must not be null");
+      }
+      this.messaging = messaging;
+      this.messageFactory = messageFactory;
+    }
+
+    public Builder setShardSize(int shardSize) {
+      if (shardSize < 1 || shardSize > MAX_TOKENS_PER_MULTICAST) {
+        throw new IllegalArgumentException(
+            "shardSize must be between 1 and " + MAX_TOKENS_PER_MULTICAST);
+      }
+      this.shardSize = shardSize;
+      return this;
+    }
+
+    public Builder setMaxInFlight(int maxInFlight) {
+      if (maxInFlight < 1) {
+        throw new IllegalArgumentException("maxInFlight must be at least 1");
+      }
+      this.maxInFlight = maxInFlight;
+      return this;
+    }
+
+    /** Sets the total number of attempts per token, including the first one. */
+    public Builder setMaxAttempts(int maxAttempts) {
+      if (maxAttempts < 1) {
+        throw new IllegalArgumentException("maxAttempts must be at least 1");
+      }
+      this.maxAttempts = maxAttempts;
+      return this;
+    }
+
+    public Builder setDryRun(boolean dryRun) {
+      this.dryRun = dryRun;
+      return this;
+    }
+
+    public MulticastFanOut build() {
+      return new MulticastFanOut(this);
+    }
+  }
+}
@@ -0,0 +1,183 @@
+/*
+ * Copyright 2026 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.firebase.example;
+
+import com.google.firebase.remoteconfig.Condition;
+import com.google.firebase.remoteconfig.Parameter;
+import com.google.firebase.remoteconfig.ParameterGroup;
+import com.google.firebase.remoteconfig.ParameterValue;
+import com.google.firebase.remoteconfig.Template;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Resolves the parameters of a Remote Config template for an {@link EvaluationContext} without
+ * calling Firebase.
+ *
+ * <p>{@link #compile(Template)} compiles every condition once into a
+ * {@link ConditionExpression} and indexes each parameter's conditional values by condition
+ * position. As in Remote Config, conditions are tried in the order they appear in the template
+ * and the first one that holds supplies the value; otherwise the parameter falls back to its
+ * default. Each condition is evaluated at most once per call, and only if some parameter
+ * actually reaches it. An evaluator is immutable and can be shared across threads; compile a new
+ * one when the template changes.
+ *
+ * <p>Parameters whose resolved value is "use in-app default" are left out of the results, so the
+ * client keeps its own default.
+ */
+public final class RemoteConfigEvaluator {
+
+  private static final byte UNKNOWN = 0;
+  private static final byte TRUE = 1;
+  private static final byte FALSE = 2;
+
+  // Package-private so BatchConditionEvaluator can reuse the compiled template.
+  final String[] conditionNames;
+  final ConditionExpression[] conditions;
+  final String[] parameterNames;
+  private final Map<String, Integer> parameterIndex;
+  // For each parameter, the indexes of the conditions it has values for, in priority order,
+  // and the matching values. A null value means the in-app default.
+  final int[][] conditionalIndexes;
+  final String[][] conditionalValues;
+  final String[] defaultValues;
+
+  private RemoteConfigEvaluator(List<Condition> conditionList, Map<String, Parameter> parameters) {
+    this.conditionNames = new String[conditionList.size()];
+    this.conditions = new ConditionExpression[conditionList.size()];
+    Map<String, Integer> conditionIndex = new HashMap<>();
+    for (int i = 0; i < conditions.length; i++) {
+      Condition condition = conditionList.get(i);
+      conditionNames[i] = condition.getName();
+      conditions[i] = ConditionExpression.compile(condition.getExpression());
+      conditionIndex.put(condition.getName(), i);
+    }
+
+    this.parameterNames = parameters.keySet().toArray(new String[0]);
+    this.parameterIndex = new HashMap<>();
+    this.conditionalIndexes = new int[parameterNames.length][];
+    this.conditionalValues = new String[parameterNames.length][];
+    this.defaultValues = new String[parameterNames.length];
+    for (int p = 0; p < parameterNames.length; p++) {
+      Parameter parameter = parameters.get(parameterNames[p]);
+      parameterIndex.put(parameterNames[p], p);
+      defaultValues[p] = valueOf(parameter.getDefaultValue());
+
+      Map<String, ParameterValue> values = parameter.getConditionalValues() != null
+          ? parameter.getConditionalValues() : Collections.<String, ParameterValue>emptyMap();
+      List<Integer> indexes = new ArrayList<>();
+      for (String name : values.keySet()) {
+        Integer index = conditionIndex.get(name);
+        if (index == null) {
+          throw new IllegalArgumentException(
+              "Parameter " + parameterNames[p] + " refers to unknown condition " + name);
+        }
+        indexes.add(index);
+      }
+      Collections.sort(indexes);
+      conditionalIndexes[p] = new int[indexes.size()];
+      conditionalValues[p] = new String[indexes.size()];
+      for (int i = 0; i < indexes.size(); i++) {
+        conditionalIndexes[p][i] = indexes.get(i);
+        conditionalValues[p][i] = valueOf(values.get(conditionNames[indexes.get(i)]));
+      }
+    }
+  }
+
+  /**
+   * Compiles the conditions and parameters of {@code template}, including parameters in
+   * parameter groups.
+   *
+   * @throws IllegalArgumentException if a condition cannot be compiled or a parameter refers to
+   *     a condition the template does not define.
+   */
+  public static RemoteConfigEvaluator compile(Template template) {
+    Map<String, Parameter> parameters = new LinkedHashMap<>();
+    if (template.getParameters() != null) {
+      parameters.putAll(template.getParameters());
+    }
+    if (template.getParameterGroups() != null) {
+      for (ParameterGroup group : template.getParameterGroups().values()) {
+        if (group.getParameters() != null) {
+          parameters.putAll(group.getParameters());
+        }
+      }
+    }
+    List<Condition> conditions = template.getConditions() != null
+        ? template.getConditions() : Collections.<Condition>emptyList();
+    return new RemoteConfigEvaluator(conditions, parameters);
+  }
+
+  /** Returns the value of every parameter for {@code context}, in template order. */
+  public Map<String, String> evaluate(EvaluationContext context) {
+    byte[] results = new byte[conditions.length];
+    Map<String, String> values = new LinkedHashMap<>(parameterNames.length * 2);
+    for (int p = 0; p < parameterNames.length; p++) {
+      String value = resolve(p, context, results);
+      if (value != null) {
+        values.put(parameterNames[p], value);
+      }
+    }
+    return values;
+  }
+
+  /**
+   * Returns the value of {@code parameter} for {@code context}, or null if the parameter is not
+   * in the template or resolves to the in-app default.
+   */
+  public String getValue(String parameter, EvaluationContext context) {
+    Integer index = parameterIndex.get(parameter);
+    if (index == null) {
+      return null;
+    }
+    return resolve(index, context, new byte[conditions.length]);
+  }
+
+  /** Returns the names of the conditions that hold for {@code context}, in priority order. */
+  public List<String> getMatchingConditions(EvaluationContext context) {
+    List<String> names = new ArrayList<>();
+    for (int i = 0; i < conditions.length; i++) {
+      if (conditions[i].test(context)) {
+        names.add(conditionNames[i]);
+      }
+    }
+    return names;
+  }
+
+  private String resolve(int parameter, EvaluationContext context, byte[] results) {
+    int[] indexes = conditionalIndexes[parameter];
+    for (int i = 0; i < indexes.length; i++) {
+      int condition = indexes[i];
+      if (results[condition] == UNKNOWN) {
+        results[condition] = conditions[condition].test(context) ? TRUE : FALSE;
+      }
+      if (results[condition] == TRUE) {
+        return conditionalValues[parameter][i];
+      }
+    }
+    return defaultValues[parameter];
+  }
+
+  private static String valueOf(ParameterValue value) {
+    return value instanceof ParameterValue.Explicit
+        ? ((ParameterValue.Explicit) value).getValue() : null;
+  }
+}
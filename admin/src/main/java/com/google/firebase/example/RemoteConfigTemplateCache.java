@@ -0,0 +1,222 @@
+/*
+ * Copyright 2026 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.firebase.example;
+
+import com.google.firebase.remoteconfig.FirebaseRemoteConfig;
+import com.google.firebase.remoteconfig.FirebaseRemoteConfigException;
+import com.google.firebase.remoteconfig.ListVersionsOptions;
+import com.google.firebase.remoteconfig.ListVersionsPage;
+import com.google.firebase.remoteconfig.Template;
+import com.google.firebase.remoteconfig.Version;
+
+import java.io.Closeable;
+import java.util.Iterator;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Keeps the current Remote Config template in memory and refreshes it in the background.
+ *
+ * <p>Readers get the latest {@link Snapshot} with a single volatile read, whatever the request
+ * rate. Every refresh interval a background thread asks the backend for the newest template
+ * version with {@code listVersionsAsync} and a page size of 1, a response of a few hundred
+ * bytes. Only when that version differs from the cached one is the full template downloaded
+ * with {@code getTemplateAsync}, and the new snapshot replaces the old one atomically. If a
+ * refresh fails, readers keep the last good template.
+ *
+ * <p>The Admin SDK does not expose conditional requests, so the version number stands in for an
+ * {@code If-None-Match} check on the ETag; every published, rolled back or force-published
+ * template gets a new version number and ETag together.
+ */
+public final class RemoteConfigTemplateCache implements Closeable {
+
+  /** An immutable view of the cached template. */
+  public static final class Snapshot {
+
+    private final Template template;
+    private final String json;
+    private final String versionNumber;
+    private final long fetchedAtMillis;
+
+    Snapshot(Template template, long fetchedAtMillis) {
+      this.template = template;
+      this.json = template.toJSON();
+      Version version = template.getVersion();
+      this.versionNumber = version != null ? version.getVersionNumber() : null;
+      this.fetchedAtMillis = fetchedAtMillis;
+    }
+
+    /**
+     * Returns the cached template. It is shared by all readers and must not be modified; use
+     * {@link #copyTemplate()} to get one that can be edited and published.
+     */
+    public Template getTemplate() {
+      return template;
+    }
+
+    /** Returns a private copy of the template, with the same ETag. */
+    public Template copyTemplate() throws FirebaseRemoteConfigException {
+      return Template.fromJSON(json);
+    }
+
+    public String getETag() {
+      return template.getETag();
+    }
+
+    public String getVersionNumber() {
+      return versionNumber;
+    }
+
+    /** Time at which this template was downloaded. */
+    public long getFetchedAtMillis() {
+      return fetchedAtMillis;
+    }
+  }
+
+  private final FirebaseRemoteConfig remoteConfig;
+  private final AtomicReference<Snapshot> current = new AtomicReference<>();
+  private final ScheduledExecutorService scheduler;
+  private final AtomicLong checks = new AtomicLong();
+  private final AtomicLong fetches = new AtomicLong();
+  private final AtomicLong failures = new AtomicLong();
+
+  private RemoteConfigTemplateCache(Builder builder) {
+    this.remoteConfig = builder.remoteConfig;
+    this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "remote-config-template-cache");
+      thread.setDaemon(true);
+      return thread;
+    });
+  }
+
+  public static Builder builder(FirebaseRemoteConfig remoteConfig) {
+    return new Builder(remoteConfig);
+  }
+
+  /** Returns the latest snapshot. Never blocks. */
+  public Snapshot getSnapshot() {
+    return current.get();
+  }
+
+  /** Shorthand for {@code getSnapshot().getTemplate()}; the result must not be modified. */
+  public Template getTemplate() {
+    return current.get().getTemplate();
+  }
+
+  /**
+   * Checks for a new version now and downloads it if there is one. Returns true if the cached
+   * template changed.
+   */
+  public synchronized boolean refresh() throws ExecutionException, InterruptedException {
+    checks.incrementAndGet();
+    Snapshot snapshot = current.get();
+    if (snapshot != null && snapshot.versionNumber != null) {
+      String latest = latestVersionNumber();
+      if (snapshot.versionNumber.equals(latest)) {
+        return false;
+      }
+    }
+    fetches.incrementAndGet();
+    Template template = remoteConfig.getTemplateAsync().get();
+    Snapshot next = new Snapshot(template, System.currentTimeMillis());
+    current.set(next);
+    return snapshot == null || !template.getETag().equals(snapshot.getETag());
+  }
+
+  /** Number of refreshes, including those that found no change. */
+  public long getCheckCount() {
+    return checks.get();
+  }
+
+  /** Number of times the full template was downloaded. */
+  public long getFetchCount() {
+    return fetches.get();
+  }
+
+  public long getFailureCount() {
+    return failures.get();
+  }
+
+  /** Stops the background refresh. The last snapshot stays readable. */
+  @Override
+  public void close() {
+    scheduler.shutdownNow();
+  }
+
+  private String latestVersionNumber() throws ExecutionException, InterruptedException {
+    ListVersionsPage page = remoteConfig.listVersionsAsync(
+        ListVersionsOptions.builder().setPageSize(1).build()).get();
+    Iterator<Version> versions = page.getValues().iterator();
+    return versions.hasNext() ? versions.next().getVersionNumber() : null;
+  }
+
+  private void start(long intervalMillis) {
+    scheduler.scheduleWithFixedDelay(() -> {
+      try {
+        refresh();
+      } catch (ExecutionException e) {
+        failures.incrementAndGet();
+        System.out.println("Failed to refresh Remote Config template: "
+            + e.getCause().getMessage());
+      } catch (RuntimeException e) {
+        // Keep the schedule alive; an exception here would cancel it.
+        failures.incrementAndGet();
+        System.out.println("Failed to refresh Remote Config template: " + e.getMessage());
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+  }
+
+  public static final class Builder {
+
+    private final FirebaseRemoteConfig remoteConfig;
+    private long refreshIntervalMillis = TimeUnit.SECONDS.toMillis(30);
+
+    private Builder(FirebaseRemoteConfig remoteConfig) {
+      if (remoteConfig == null) {
+        throw new IllegalArgumentException("remoteConfig must not be null");
+      }
+      this.remoteConfig = remoteConfig;
+    }
+
+    /** Sets how often to check for a new template version. Defaults to 30 seconds. */
+    public Builder setRefreshInterval(long interval, TimeUnit unit) {
+      if (interval <= 0) {
+        throw new IllegalArgumentException("interval must be positive");
+      }
+      this.refreshIntervalMillis = unit.toMillis(interval);
+      return this;
+    }
+
+    /** Downloads the current template and starts refreshing it in the background. */
+    public RemoteConfigTemplateCache build() throws ExecutionException, InterruptedException {
+      RemoteConfigTemplateCache cache = new RemoteConfigTemplateCache(this);
+      try {
+        cache.refresh();
+      } catch (ExecutionException | InterruptedException | RuntimeException e) {
+        cache.close();
+        throw e;
+      }
+      cache.start(refreshIntervalMillis);
+      return cache;
+    }
+  }
+}
@@ -0,0 +1,438 @@
+/*
+ * Copyright 2026 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.firebase.example;
+
+import com.google.firebase.remoteconfig.FirebaseRemoteConfig;
+import com.google.firebase.remoteconfig.ListVersionsOptions;
+import com.google.firebase.remoteconfig.ListVersionsPage;
+import com.google.firebase.remoteconfig.User;
+import com.google.firebase.remoteconfig.Version;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * A local, on-disk index of Remote Config template version metadata.
+ *
+ * <p>{@link #sync()} brings the index up to date. The first sync fetches the newest page of
+ * versions, then splits the remaining version numbers into ranges and pages through them
+ * concurrently using {@code setEndVersionNumber}. Later syncs page from the newest version down
+ * and stop at the first version already indexed, which is usually a single request. The index is
+ * rewritten atomically after every sync that finds new versions, and it keeps versions the
+ * backend no longer returns.
+ *
+ * <p>Lookups never touch the network. Entries are kept sorted by version number, with sorted
+ * permutations by update time and by user, so {@link #get}, {@link #findByTime} and
+ * {@link #findByUser} are binary searches. Reads are lock-free and safe during a sync.
+ */
+public final class RemoteConfigVersionIndex {
+
+  private static final int MAGIC = 0x52435649;
+  private static final int FORMAT_VERSION = 1;
+  // Remote Config keeps at most this many versions, so older version numbers are usually gone.
+  private static final int RETAINED_VERSIONS = 300;
+
+  /** The indexed metadata of one template version. */
+  public static final class Entry {
+
+    private final long versionNumber;
+    private final long updateTimeMillis;
+    private final String updateOrigin;
+    private final String updateType;
+    private final String updateUserEmail;
+    private final String description;
+
+    Entry(long versionNumber, long updateTimeMillis, String updateOrigin, String updateType,
+        String updateUserEmail, String description) {
+      this.versionNumber = versionNumber;
+      this.updateTimeMillis = updateTimeMillis;
+      this.updateOrigin = updateOrigin;
+      this.updateType = updateType;
+      this.updateUserEmail = updateUserEmail;
+      this.description = description;
+    }
+
+    static Entry of(Version version) {
+      User user = version.getUpdateUser();
+      return new Entry(Long.parseLong(version.getVersionNumber()), version.getUpdateTime(),
+          version.getUpdateOrigin(), version.getUpdateType(),
+          user != null ? user.getEmail() : null, version.getDescription());
+    }
+
+    public long getVersionNumber() {
+      return versionNumber;
+    }
+
+    public long getUpdateTimeMillis() {
+      return updateTimeMillis;
+    }
+
+    /** Where the update came from, such as {@code CONSOLE} or {@code ADMIN_SDK_NODE}. */
+    public String getUpdateOrigin() {
+      return updateOrigin;
+    }
+
+    /** The kind of update, such as {@code INCREMENTAL_UPDATE} or {@code ROLLBACK}. */
+    public String getUpdateType() {
+      return updateType;
+    }
+
+    public String getUpdateUserEmail() {
+      return updateUserEmail;
+    }
+
+    public String getDescription() {
+      return description;
+    }
+
+    @Override
+    public String toString() {
+      return "Version " + versionNumber + " at " + updateTimeMillis + " by " + updateUserEmail
+          + " (" + updateOrigin + ", " + updateType + ")";
+    }
+  }
+
+  private static final Comparator<Entry> BY_TIME =
+      Comparator.comparingLong(Entry::getUpdateTimeMillis)
+          .thenComparingLong(Entry::getVersionNumber);
+  private static final Comparator<Entry> BY_USER =
+      Comparator.comparing(Entry::getUpdateUserEmail,
+          Comparator.nullsFirst(Comparator.<String>naturalOrder())).thenComparing(BY_TIME);
+
+  /** An immutable generation of the index, replaced as a whole by each sync. */
+  private static final class State {
+
+    final Entry[] byVersion;
+    final Entry[] byTime;
+    final Entry[] byUser;
+
+    State(Entry[] byVersion) {
+      this.byVersion = byVersion;
+      this.byTime = byVersion.clone();
+      Arrays.sort(byTime, BY_TIME);
+      this.byUser = byVersion.clone();
+      Arrays.sort(byUser, BY_USER);
+    }
+  }
+
+  private final FirebaseRemoteConfig remoteConfig;
+  private final Path file;
+  private final int pageSize;
+  private final int prefetchThreads;
+  private volatile State state;
+
+  private RemoteConfigVersionIndex(Builder builder, Entry[] entries) {
+    this.remoteConfig = builder.remoteConfig;
+    this.file = builder.file;
+    this.pageSize = builder.pageSize;
+    this.prefetchThreads = builder.prefetchThreads;
+    this.state = new State(entries);
+  }
+
+  public static Builder builder(FirebaseRemoteConfig remoteConfig, Path file) {
+    return new Builder(remoteConfig, file);
+  }
+
+  /** Number of indexed versions. */
+  public int size() {
+    return state.byVersion.length;
+  }
+
+  /** Returns the newest indexed version, or null if the index is empty. */
+  public Entry getLatest() {
+    Entry[] entries = state.byVersion;
+    return entries.length > 0 ? entries[entries.length - 1] : null;
+  }
+
+  /** Returns the entry for {@code versionNumber}, or null if it is not indexed. */
+  public Entry get(long versionNumber) {
+    Entry[] entries = state.byVersion;
+    int low = 0;
+    int high = entries.length - 1;
+    while (low <= high) {
+      int middle = (low + high) >>> 1;
+      long number = entries[middle].versionNumber;
+      if (number < versionNumber) {
+        low = middle + 1;
+      } else if (number > versionNumber) {
+        high = middle - 1;
+      } else {
+        return entries[middle];
+      }
+    }
+    return null;
+  }
+
+  /** Returns the versions updated in {@code [fromMillis, toMillis)}, oldest first. */
+  public List<Entry> findByTime(long fromMillis, long toMillis) {
+    Entry[] entries = state.byTime;
+    int from = lowerBound(entries, BY_TIME, new Entry(Long.MIN_VALUE, fromMillis, null, null,
+        null, null));
+    int to = lowerBound(entries, BY_TIME, new Entry(Long.MIN_VALUE, toMillis, null, null, null,
+        null));
+    return slice(entries, from, to);
+  }
+
+  /** Returns the versions published by {@code email}, oldest first. */
+  public List<Entry> findByUser(String email) {
+    return findByUser(email, Long.MIN_VALUE, Long.MAX_VALUE);
+  }
+
+  /** Returns the versions published by {@code email} in {@code [fromMillis, toMillis)}. */
+  public List<Entry> findByUser(String email, long fromMillis, long toMillis) {
+    Entry[] entries = state.byUser;
+    int from = lowerBound(entries, BY_USER, new Entry(Long.MIN_VALUE, fromMillis, null, null,
+        email, null));
+    int to = lowerBound(entries, BY_USER, new Entry(Long.MIN_VALUE, toMillis, null, null, email,
+        null));
+    return slice(entries, from, to);
+  }
+
+  /**
+   * Fetches versions newer than the newest indexed one and saves the index if any were found.
+   *
+   * @return The number of versions added.
+   */
+  public synchronized int sync() throws ExecutionException, InterruptedException, IOException {
+    Entry latest = getLatest();
+    List<Entry> fetched = latest == null ? fetchAll() : fetchNewerThan(latest.versionNumber);
+    if (fetched.isEmpty()) {
+      return 0;
+    }
+    TreeMap<Long, Entry> merged = new TreeMap<>();
+    for (Entry entry : state.byVersion) {
+      merged.put(entry.versionNumber, entry);
+    }
+    int before = merged.size();
+    for (Entry entry : fetched) {
+      merged.put(entry.versionNumber, entry);
+    }
+    Entry[] entries = merged.values().toArray(new Entry[0]);
+    write(file, entries);
+    state = new State(entries);
+    return entries.length - before;
+  }
+
+  private List<Entry> fetchNewerThan(long versionNumber)
+      throws ExecutionException, InterruptedException {
+    List<Entry> entries = new ArrayList<>();
+    ListVersionsPage page = remoteConfig.listVersionsAsync(
+        ListVersionsOptions.builder().setPageSize(pageSize).build()).get();
+    // Versions are listed newest first.
+    while (page != null) {
+      for (Version version : page.getValues()) {
+        Entry entry = Entry.of(version);
+        if (entry.versionNumber <= versionNumber) {
+          return entries;
+        }
+        entries.add(entry);
+      }
+      page = page.getNextPage();
+    }
+    return entries;
+  }
+
+  private List<Entry> fetchAll() throws ExecutionException, InterruptedException {
+    ListVersionsPage first = remoteConfig.listVersionsAsync(
+        ListVersionsOptions.builder().setPageSize(pageSize).build()).get();
+    List<Entry> entries = new ArrayList<>();
+    for (Version version : first.getValues()) {
+      entries.add(Entry.of(version));
+    }
+    if (entries.isEmpty() || !first.hasNextPage()) {
+      return entries;
+    }
+
+    // Split the older versions into ranges of version numbers and page through them in
+    // parallel. The oldest range has no lower bound, so nothing is missed if more versions
+    // were retained than expected.
+    long end = entries.get(entries.size() - 1).versionNumber - 1;
+    long start = Math.max(1, end - RETAINED_VERSIONS + 1);
+    long rangeSize = Math.max(pageSize, (end - start + prefetchThreads) / prefetchThreads);
+    ExecutorService executor = Executors.newFixedThreadPool(prefetchThreads, runnable -> {
+      Thread thread = new Thread(runnable, "remote-config-version-prefetch");
+      thread.setDaemon(true);
+      return thread;
+    });
+    try {
+      List<Future<List<Entry>>> ranges = new ArrayList<>();
+      for (long high = end; high >= 1; high -= rangeSize) {
+        long low = high - rangeSize + 1 <= start ? Long.MIN_VALUE : high - rangeSize + 1;
+        long rangeEnd = high;
+        ranges.add(executor.submit(() -> fetchRange(low, rangeEnd)));
+        if (low == Long.MIN_VALUE) {
+          break;
+        }
+      }
+      for (Future<List<Entry>> range : ranges) {
+        entries.addAll(range.get());
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+    return entries;
+  }
+
+  private List<Entry> fetchRange(long low, long high)
+      throws ExecutionException, InterruptedException {
+    List<Entry> entries = new ArrayList<>();
+    ListVersionsPage page = remoteConfig.listVersionsAsync(ListVersionsOptions.builder()
+        .setPageSize(pageSize)
+        .setEndVersionNumber(high)
+        .build()).get();
+    while (page != null) {
+      for (Version version : page.getValues()) {
+        Entry entry = Entry.of(version);
+        if (entry.versionNumber < low) {
+          return entries;
+        }
+        entries.add(entry);
+      }
+      page = page.getNextPage();
+    }
+    return entries;
+  }
+
+  private static int lowerBound(Entry[] entries, Comparator<Entry> order, Entry key) {
+    int low = 0;
+    int high = entries.length;
+    while (low < high) {
+      int middle = (low + high) >>> 1;
+      if (order.compare(entries[middle], key) < 0) {
+        low = middle + 1;
+      } else {
+        high = middle;
+      }
+    }
+    return low;
+  }
+
+  private static List<Entry> slice(Entry[] entries, int from, int to) {
+    return from < to ? Collections.unmodifiableList(Arrays.asList(entries).subList(from, to))
+        : Collections.<Entry>emptyList();
+  }
+
+  private static Entry[] read(Path file) throws IOException {
+    try (DataInputStream in = new DataInputStream(
+        new BufferedInputStream(Files.newInputStream(file)))) {
+      if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION) {
+        throw new IOException("Not a Remote Config version index: " + file);
+      }
+      Entry[] entries = new Entry[in.readInt()];
+      for (int i = 0; i < entries.length; i++) {
+        entries[i] = new Entry(in.readLong(), in.readLong(), readString(in), readString(in),
+            readString(in), readString(in));
+      }
+      return entries;
+    } catch (EOFException e) {
+      throw new IOException("Truncated Remote Config version index: " + file, e);
+    }
+  }
+
+  /** Writes the index to a temporary file and moves it into place. */
+  private static void write(Path file, Entry[] entries) throws IOException {
+    Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+    try (FileOutputStream stream = new FileOutputStream(temp.toFile());
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(stream))) {
+      out.writeInt(MAGIC);
+      out.writeInt(FORMAT_VERSION);
+      out.writeInt(entries.length);
+      for (Entry entry : entries) {
+        out.writeLong(entry.versionNumber);
+        out.writeLong(entry.updateTimeMillis);
+        writeString(out, entry.updateOrigin);
+        writeString(out, entry.updateType);
+        writeString(out, entry.updateUserEmail);
+        writeString(out, entry.description);
+      }
+      out.flush();
+      stream.getFD().sync();
+    }
+    Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+  }
+
+  private static void writeString(DataOutputStream out, String value) throws IOException {
+    out.writeBoolean(value != null);
+    if (value != null) {
+      out.writeUTF(value);
+    }
+  }
+
+  private static String readString(DataInputStream in) throws IOException {
+    return in.readBoolean() ? in.readUTF() : null;
+  }
+
+  public static final class Builder {
+
+    private final FirebaseRemoteConfig remoteConfig;
+    private final Path file;
+    private int pageSize = 100;
+    private int prefetchThreads = 4;
+
+    private Builder(FirebaseRemoteConfig remoteConfig, Path file) {
+      if (remoteConfig == null) {
+        throw new IllegalArgumentException("remoteConfig must not be null");
+      }
+      if (file == null) {
+        throw new IllegalArgumentException("file must not be null");
+      }
+      this.remoteConfig = remoteConfig;
+      this.file = file;
+    }
+
+    /** Sets the number of versions requested per page, up to 300. Defaults to 100. */
+    public Builder setPageSize(int pageSize) {
+      if (pageSize < 1 || pageSize > 300) {
+        throw new IllegalArgumentException("pageSize must be between 1 and 300");
+      }
+      this.pageSize = pageSize;
+      return this;
+    }
+
+    /** Sets how many version ranges the first sync fetches in parallel. Defaults to 4. */
+    public Builder setPrefetchThreads(int prefetchThreads) {
+      if (prefetchThreads < 1) {
+        throw new IllegalArgumentException("prefetchThreads must be positive");
+      }
+      this.prefetchThreads = prefetchThreads;
+      return this;
+    }
+
+    /** Loads the index from its file, or starts an empty one if the file does not exist. */
+    public RemoteConfigVersionIndex open() throws IOException {
+      Entry[] entries = Files.exists(file) ? read(file) : new Entry[0];
+      return new RemoteConfigVersionIndex(this, entries);
+    }
+  }
+}
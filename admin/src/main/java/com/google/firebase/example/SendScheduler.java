@@ -0,0 +1,492 @@
+/*
+ * Copyright 2026 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.firebase.example;
+
+import com.google.api.core.ApiFuture;
+import com.google.api.core.ApiFutureCallback;
+import com.google.api.core.ApiFutures;
+import com.google.api.core.SettableApiFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.firebase.messaging.FirebaseMessaging;
+import com.google.firebase.messaging.Message;
+
+import java.io.Closeable;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Queues sends by priority and releases them to FCM within each project's send quota.
+ *
+ * <p>Every project has a {@link TokenBucket} and one queue, or lane, per {@link Priority}. A
+ * dispatcher thread per project takes a permit from the bucket and only then chooses the lane
+ * to serve, so a high priority message that arrives while the dispatcher waits on the quota is
+ * sent next. Lanes share the quota by weighted fair queueing: while several lanes have
+ * messages, each gets a share of the sends proportional to its weight, and an idle lane does not
+ * build up credit. With the default weights, {@link Priority#HIGH} traffic such as sign-in codes
+ * takes up to 16 of every 21 sends and waits behind at most a few bulk messages, while bulk
+ * campaigns use whatever quota is left.
+ *
+ * <p>In dry run mode every message is sent with {@code dryRun=true}, which exercises the whole
+ * pipeline against real quota without delivering anything, for load tests.
+ */
+public final class SendScheduler implements Closeable {
+
+  public enum Priority {
+    /** Transactional messages that a user is waiting for. */
+    HIGH,
+    NORMAL,
+    /** Campaigns and other traffic that can absorb queueing delay. */
+    BULK
+  }
+
+  /** Counters for one lane of one project. */
+  public static final class LaneStats {
+
+    private final Priority priority;
+    private final int queued;
+    private final long dispatched;
+    private final long failed;
+    private final long totalQueueNanos;
+    private final long maxQueueNanos;
+
+    LaneStats(Priority priority, int queued, long dispatched, long failed, long totalQueueNanos,
+        long maxQueueNanos) {
+      this.priority = priority;
+      this.queued = queued;
+      this.dispatched = dispatched;
+      this.failed = failed;
+      this.totalQueueNanos = totalQueueNanos;
+      this.maxQueueNanos = maxQueueNanos;
+    }
+
+    public Priority getPriority() {
+      return priority;
+    }
+
+    /** Messages waiting in the lane. */
+    public int getQueued() {
+      return queued;
+    }
+
+    /** Messages handed to FCM so far. */
+    public long getDispatched() {
+      return dispatched;
+    }
+
+    public long getFailed() {
+      return failed;
+    }
+
+    /** Mean time between {@link #send} and the message being handed to FCM. */
+    public double getMeanQueueMillis() {
+      return dispatched == 0 ? 0 : totalQueueNanos / 1e6 / dispatched;
+    }
+
+    public double getMaxQueueMillis() {
+      return maxQueueNanos / 1e6;
+    }
+
+    @Override
+    public String toString() {
+      return String.format("%s: queued=%d, dispatched=%d, failed=%d, meanQueue=%.1fms, "
+              + "maxQueue=%.1fms", priority, queued, dispatched, failed, getMeanQueueMillis(),
+          getMaxQueueMillis());
+    }
+  }
+
+  private final Map<String, ProjectQueue> projects;
+
+  private SendScheduler(Builder builder) {
+    Map<String, ProjectQueue> projects = new LinkedHashMap<>();
+    for (ProjectConfig config : builder.projects.values()) {
+      projects.put(config.projectId, new ProjectQueue(config, builder));
+    }
+    this.projects = Collections.unmodifiableMap(projects);
+    for (ProjectQueue project : projects.values()) {
+      project.dispatcher.start();
+    }
+  }
+
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  /**
+   * Queues {@code message} for {@code projectId}, blocking while the lane is full. The returned
+   * future completes with the message ID or the send error.
+   *
+   * @throws IllegalStateException if the scheduler has been closed.
+   */
+  public ApiFuture<String> send(String projectId, Priority priority, Message message)
+      throws InterruptedException {
+    if (priority == null || message == null) {
+      throw new IllegalArgumentException("priority and message must not be null");
+    }
+    return project(projectId).enqueue(priority, message);
+  }
+
+  /** Returns a snapshot of the lanes of {@code projectId}, highest priority first. */
+  public List<LaneStats> getStats(String projectId) {
+    return project(projectId).stats();
+  }
+
+  /** Stops accepting messages, sends everything queued and waits for the responses. */
+  @Override
+  public void close() {
+    for (ProjectQueue project : projects.values()) {
+      project.shutdown();
+    }
+    boolean interrupted = false;
+    for (ProjectQueue project : projects.values()) {
+      try {
+        project.awaitTermination();
+      } catch (InterruptedException e) {
+        interrupted = true;
+      }
+    }
+    if (interrupted) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private ProjectQueue project(String projectId) {
+    ProjectQueue project = projects.get(projectId);
+    if (project == null) {
+      throw new IllegalArgumentException("Unknown project: " + projectId);
+    }
+    return project;
+  }
+
+  private static final class Pending {
+
+    final Lane lane;
+    final Message message;
+    final SettableApiFuture<String> future = SettableApiFuture.create();
+    final long enqueuedNanos = System.nanoTime();
+
+    Pending(Lane lane, Message message) {
+      this.lane = lane;
+      this.message = message;
+    }
+  }
+
+  private static final class Lane {
+
+    final Priority priority;
+    final double cost;
+    final ArrayDeque<Pending> queue = new ArrayDeque<>();
+    // Virtual time at which the lane's last dispatched message finished.
+    double finishTag;
+    long dispatched;
+    long totalQueueNanos;
+    long maxQueueNanos;
+    final AtomicLong failed = new AtomicLong();
+
+    Lane(Priority priority, int weight) {
+      this.priority = priority;
+      this.cost = 1.0 / weight;
+    }
+  }
+
+  private static final class ProjectQueue {
+
+    final FirebaseMessaging messaging;
+    final TokenBucket rateLimiter;
+    final Semaphore inFlight;
+    final int maxInFlight;
+    final int laneCapacity;
+    final boolean dryRun;
+    final Lane[] lanes;
+    final ReentrantLock lock = new ReentrantLock();
+    final Condition notEmpty = lock.newCondition();
+    final Condition notFull = lock.newCondition();
+    final Thread dispatcher;
+    // Guarded by lock.
+    double virtualTime;
+    int queued;
+    boolean closed;
+
+    ProjectQueue(ProjectConfig config, Builder builder) {
+      this.messaging = config.messaging;
+      this.rateLimiter = new TokenBucket(config.messagesPerSecond);
+      this.maxInFlight = builder.maxInFlight;
+      this.inFlight = new Semaphore(maxInFlight);
+      this.laneCapacity = builder.laneCapacity;
+      this.dryRun = builder.dryRun;
+      Priority[] priorities = Priority.values();
+      this.lanes = new Lane[priorities.length];
+      for (int i = 0; i < priorities.length; i++) {
+        lanes[i] = new Lane(priorities[i], builder.weights.get(priorities[i]));
+      }
+      this.dispatcher = new Thread(this::dispatchLoop, "send-scheduler-" + config.projectId);
+      dispatcher.setDaemon(true);
+    }
+
+    ApiFuture<String> enqueue(Priority priority, Message message) throws InterruptedException {
+      Lane lane = lanes[priority.ordinal()];
+      Pending pending = new Pending(lane, message);
+      lock.lockInterruptibly();
+      try {
+        while (!closed && lane.queue.size() >= laneCapacity) {
+          notFull.await();
+        }
+        if (closed) {
+          throw new IllegalStateException("scheduler is closed");
+        }
+        lane.queue.add(pending);
+        queued++;
+        notEmpty.signal();
+      } finally {
+        lock.unlock();
+      }
+      return pending.future;
+    }
+
+    private void dispatchLoop() {
+      try {
+        while (awaitWork()) {
+          inFlight.acquire();
+          try {
+            // Take the quota first, then pick the lane, so the choice reflects the latest queues.
+            rateLimiter.acquire();
+          } catch (InterruptedException e) {
+            // Nothing was dispatched, so awaitTermination must not wait for this permit.
+            inFlight.release();
+            throw e;
+          }
+          dispatch(next());
+        }
+      } catch (InterruptedException e) {
+        failQueued(e);
+      }
+    }
+
+    // Returns false once the queue is closed and drained.
+    private boolean awaitWork() throws InterruptedException {
+      lock.lockInterruptibly();
+      try {
+        while (queued == 0 && !closed) {
+          notEmpty.await();
+        }
+        return queued > 0;
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    private Pending next() {
+      lock.lock();
+      try {
+        // Start-time fair queueing: serve the lane whose next message starts earliest in
+        // virtual time. Ties go to the higher priority.
+        Lane selected = null;
+        double selectedStart = 0;
+        for (Lane lane : lanes) {
+          if (lane.queue.isEmpty()) {
+            continue;
+          }
+          double start = Math.max(lane.finishTag, virtualTime);
+          if (selected == null || start < selectedStart) {
+            selected = lane;
+            selectedStart = start;
+          }
+        }
+        virtualTime = selectedStart;
+        selected.finishTag = selectedStart + selected.cost;
+
+        Pending pending = selected.queue.poll();
+        queued--;
+        long queueNanos = System.nanoTime() - pending.enqueuedNanos;
+        selected.dispatched++;
+        selected.totalQueueNanos += queueNanos;
+        selected.maxQueueNanos = Math.max(selected.maxQueueNanos, queueNanos);
+        notFull.signalAll();
+        return pending;
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    private void dispatch(final Pending pending) {
+      final Lane lane = pending.lane;
+      ApiFuture<String> response;
+      try {
+        response = messaging.sendAsync(pending.message, dryRun);
+      } catch (RuntimeException e) {
+        inFlight.release();
+        lane.failed.incrementAndGet();
+        pending.future.setException(e);
+        return;
+      }
+      ApiFutures.addCallback(response, new ApiFutureCallback<String>() {
+        @Override
+        public void onSuccess(String messageId) {
+          inFlight.release();
+          pending.future.set(messageId);
+        }
+
+        @Override
+        public void onFailure(Throwable t) {
+          inFlight.release();
+          lane.failed.incrementAndGet();
+          pending.future.setException(t);
+        }
+      }, MoreExecutors.directExecutor());
+    }
+
+    private void failQueued(Throwable cause) {
+      lock.lock();
+      try {
+        closed = true;
+        for (Lane lane : lanes) {
+          Pending pending;
+          while ((pending = lane.queue.poll()) != null) {
+            lane.failed.incrementAndGet();
+            pending.future.setException(cause);
+          }
+        }
+        queued = 0;
+        notFull.signalAll();
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    void shutdown() {
+      lock.lock();
+      try {
+        closed = true;
+        notEmpty.signalAll();
+        notFull.signalAll();
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    void awaitTermination() throws InterruptedException {
+      dispatcher.join();
+      inFlight.acquire(maxInFlight);
+      inFlight.release(maxInFlight);
+    }
+
+    List<LaneStats> stats() {
+      List<LaneStats> stats = new ArrayList<>(lanes.length);
+      lock.lock();
+      try {
+        for (Lane lane : lanes) {
+          stats.add(new LaneStats(lane.priority, lane.queue.size(), lane.dispatched,
+              lane.failed.get(), lane.totalQueueNanos, lane.maxQueueNanos));
+        }
+      } finally {
+        lock.unlock();
+      }
+      return stats;
+    }
+  }
+
+  private static final class ProjectConfig {
+
+    final String projectId;
+    final FirebaseMessaging messaging;
+    final double messagesPerSecond;
+
+    ProjectConfig(String projectId, FirebaseMessaging messaging, double messagesPerSecond) {
+      this.projectId = projectId;
+      this.messaging = messaging;
+      this.messagesPerSecond = messagesPerSecond;
+    }
+  }
+
+  public static final class Builder {
+
+    private final Map<String, ProjectConfig> projects = new LinkedHashMap<>();
+    private final Map<Priority, Integer> weights = new EnumMap<>(Priority.class);
+    private int maxInFlight = 64;
+    private int laneCapacity = 10_000;
+    private boolean dryRun;
+
+    private Builder() {
+      weights.put(Priority.HIGH, 16);
+      weights.put(Priority.NORMAL, 4);
+      weights.put(Priority.BULK, 1);
+    }
+
+    /**
+     * Adds a project whose messages are sent through {@code messaging} at no more than
+     * {@code messagesPerSecond}.
+     */
+    public Builder addProject(
+        String projectId, FirebaseMessaging messaging, double messagesPerSecond) {
+      if (projectId == null || messaging == null) {
+        throw new IllegalArgumentException("projectId and messaging must not be null");
+      }
+      if (!(messagesPerSecond > 0)) {
+        throw new IllegalArgumentException("messagesPerSecond must be positive");
+      }
+      projects.put(projectId, new ProjectConfig(projectId, messaging, messagesPerSecond));
+      return this;
+    }
+
+    /** Sets the relative share of the quota a lane gets while other lanes are busy. */
+    public Builder setWeight(Priority priority, int weight) {
+      if (weight < 1) {
+        throw new IllegalArgumentException("weight must be at least 1");
+      }
+      weights.put(priority, weight);
+      return this;
+    }
+
+    /** Sets how many sends per project may await a response at once. */
+    public Builder setMaxInFlight(int maxInFlight) {
+      if (maxInFlight < 1) {
+        throw new IllegalArgumentException("maxInFlight must be at least 1");
+      }
+      this.maxInFlight = maxInFlight;
+      return this;
+    }
+
+    /** Sets how many messages a lane holds before {@link #send} blocks. */
+    public Builder setLaneCapacity(int laneCapacity) {
+      if (laneCapacity < 1) {
+        throw new IllegalArgumentException("laneCapacity must be at least 1");
+      }
+      this.laneCapacity = laneCapacity;
+      return this;
+    }
+
+    /** Sends every message with {@code dryRun=true}, for load tests. */
+    public Builder setDryRun(boolean dryRun) {
+      this.dryRun = dryRun;
+      return this;
+    }
+
+    public SendScheduler build() {
+      if (projects.isEmpty()) {
+        throw new IllegalStateException("At least one project must be added");
+      }
+      return new SendScheduler(this);
+    }
+  }
+}
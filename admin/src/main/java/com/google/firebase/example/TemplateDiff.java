@@ -0,0 +1,516 @@
+/*
+ * Copyright 2026 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.firebase.example;
+
+import com.google.firebase.ErrorCode;
+import com.google.firebase.remoteconfig.FirebaseRemoteConfig;
+import com.google.firebase.remoteconfig.FirebaseRemoteConfigException;
+import com.google.firebase.remoteconfig.Template;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import com.google.gson.JsonPrimitive;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * The structural difference between two Remote Config templates: which parameters, parameter
+ * groups, group parameters and conditions were added, removed or modified, and whether the
+ * condition order changed.
+ *
+ * <p>A diff is computed on the JSON form of the templates and records, for every changed entry,
+ * its new value and a SHA-256 digest of its old value in canonical form, with object keys
+ * sorted. Unchanged entries are not stored, so {@link #toJson()} stays small however large the
+ * templates are.
+ *
+ * <p>{@link #applyTo(Template)} replays the diff on top of another template, normally the latest
+ * one. An entry conflicts if it was changed since the diff's base, unless it already has the
+ * diff's new value. {@link #publish(FirebaseRemoteConfig)} fetches the latest template, applies
+ * the diff and publishes the result with the latest ETag, retrying if someone else publishes in
+ * between. The Remote Config API only accepts whole templates, so the merged template is still
+ * uploaded in full; what the diff saves is shipping, reviewing and merging unrelated entries.
+ */
+public final class TemplateDiff {
+
+  private static final int MAX_PUBLISH_ATTEMPTS = 3;
+
+  private static final String PARAMETERS = "parameters";
+  private static final String PARAMETER_GROUPS = "parameterGroups";
+  private static final String GROUP_PARAMETERS = "groupParameters";
+  private static final String CONDITIONS = "conditions";
+  private static final String CONDITION_ORDER = "conditionOrder";
+  private static final String BASE = "base";
+  private static final String VALUE = "value";
+
+  /** A change to one entry. A null base means it was added; a null value means it was removed. */
+  private static final class Change {
+
+    final String base;
+    final JsonElement value;
+
+    Change(String base, JsonElement value) {
+      this.base = base;
+      this.value = value;
+    }
+
+    boolean appliesTo(JsonElement current) {
+      return current == null ? base == null : base != null && base.equals(digest(current));
+    }
+
+    String symbol() {
+      return base == null ? "+" : value == null ? "-" : "~";
+    }
+  }
+
+  private final Map<String, Change> parameters;
+  private final Map<String, Change> parameterGroups;
+  private final Map<String, Map<String, Change>> groupParameters;
+  private final Map<String, Change> conditions;
+  // The new condition names in priority order, or null if the order did not change.
+  private final List<String> conditionOrder;
+
+  private TemplateDiff(Map<String, Change> parameters, Map<String, Change> parameterGroups,
+      Map<String, Map<String, Change>> groupParameters, Map<String, Change> conditions,
+      List<String> conditionOrder) {
+    this.parameters = parameters;
+    this.parameterGroups = parameterGroups;
+    this.groupParameters = groupParameters;
+    this.conditions = conditions;
+    this.conditionOrder = conditionOrder;
+  }
+
+  /** Computes the changes that turn {@code from} into {@code to}. */
+  public static TemplateDiff compute(Template from, Template to) {
+    JsonObject before = parse(from.toJSON());
+    JsonObject after = parse(to.toJSON());
+
+    JsonObject groupsBefore = section(before, PARAMETER_GROUPS);
+    JsonObject groupsAfter = section(after, PARAMETER_GROUPS);
+    Map<String, Map<String, Change>> groupParameters = new LinkedHashMap<>();
+    for (String group : union(groupsBefore, groupsAfter)) {
+      Map<String, Change> changes = diff(groupParametersOf(groupsBefore.get(group)),
+          groupParametersOf(groupsAfter.get(group)));
+      if (!changes.isEmpty()) {
+        groupParameters.put(group, changes);
+      }
+    }
+
+    JsonObject conditionsBefore = conditionsByName(before);
+    JsonObject conditionsAfter = conditionsByName(after);
+    List<String> orderBefore = names(conditionsBefore);
+    List<String> orderAfter = names(conditionsAfter);
+
+    return new TemplateDiff(
+        diff(section(before, PARAMETERS), section(after, PARAMETERS)),
+        diff(groupsWithoutParameters(groupsBefore), groupsWithoutParameters(groupsAfter)),
+        groupParameters,
+        diff(conditionsBefore, conditionsAfter),
+        orderBefore.equals(orderAfter) ? null : orderAfter);
+  }
+
+  /**
+   * Parses a diff written by {@link #toJson()}.
+   *
+   * @throws IllegalArgumentException if {@code json} is not a serialized diff.
+   */
+  public static TemplateDiff fromJson(String json) {
+    try {
+      JsonObject object = JsonParser.parseString(json).getAsJsonObject();
+      Map<String, Map<String, Change>> groupParameters = new LinkedHashMap<>();
+      for (Map.Entry<String, JsonElement> group : section(object, GROUP_PARAMETERS).entrySet()) {
+        groupParameters.put(group.getKey(), readChanges(group.getValue().getAsJsonObject()));
+      }
+      List<String> conditionOrder = null;
+      if (object.has(CONDITION_ORDER)) {
+        conditionOrder = new ArrayList<>();
+        for (JsonElement name : object.getAsJsonArray(CONDITION_ORDER)) {
+          conditionOrder.add(name.getAsString());
+        }
+      }
+      return new TemplateDiff(
+          readChanges(section(object, PARAMETERS)),
+          readChanges(section(object, PARAMETER_GROUPS)),
+          groupParameters,
+          readChanges(section(object, CONDITIONS)),
+          conditionOrder);
+    } catch (JsonParseException | IllegalStateException | NullPointerException e) {
+      throw new IllegalArgumentException("Not a template diff: " + e.getMessage(), e);
+    }
+  }
+
+  /** Returns the compact JSON form of this diff. */
+  public String toJson() {
+    JsonObject object = new JsonObject();
+    object.add(PARAMETERS, writeChanges(parameters));
+    object.add(PARAMETER_GROUPS, writeChanges(parameterGroups));
+    JsonObject groups = new JsonObject();
+    for (Map.Entry<String, Map<String, Change>> group : groupParameters.entrySet()) {
+      groups.add(group.getKey(), writeChanges(group.getValue()));
+    }
+    object.add(GROUP_PARAMETERS, groups);
+    object.add(CONDITIONS, writeChanges(conditions));
+    if (conditionOrder != null) {
+      JsonArray order = new JsonArray();
+      for (String name : conditionOrder) {
+        order.add(name);
+      }
+      object.add(CONDITION_ORDER, order);
+    }
+    return object.toString();
+  }
+
+  public boolean isEmpty() {
+    return getChangeCount() == 0 && conditionOrder == null;
+  }
+
+  /** Number of entries added, removed or modified. */
+  public int getChangeCount() {
+    int count = parameters.size() + parameterGroups.size() + conditions.size();
+    for (Map<String, Change> changes : groupParameters.values()) {
+      count += changes.size();
+    }
+    return count;
+  }
+
+  /**
+   * Applies this diff on top of {@code latest} and returns the result, which keeps the ETag of
+   * {@code latest} so that publishing it fails if the template changed again in the meantime.
+   *
+   * @throws IllegalStateException if an entry this diff changes was changed differently in
+   *     {@code latest}.
+   */
+  public Template applyTo(Template latest) throws FirebaseRemoteConfigException {
+    JsonObject template = parse(latest.toJSON());
+    List<String> conflicts = new ArrayList<>();
+
+    JsonObject groups = section(template, PARAMETER_GROUPS);
+    template.add(PARAMETER_GROUPS, groups);
+    // Add and update groups before their parameters; remove them afterwards.
+    for (Map.Entry<String, Change> entry : parameterGroups.entrySet()) {
+      Change change = entry.getValue();
+      if (change.value == null) {
+        continue;
+      }
+      JsonElement current = groups.get(entry.getKey());
+      JsonObject group = current != null ? current.getAsJsonObject() : null;
+      JsonObject metadata = group != null ? withoutParameters(group) : null;
+      if (change.appliesTo(metadata) || change.value.equals(metadata)) {
+        JsonObject updated = change.value.deepCopy().getAsJsonObject();
+        updated.add(PARAMETERS, group != null && group.has(PARAMETERS)
+            ? group.get(PARAMETERS) : new JsonObject());
+        groups.add(entry.getKey(), updated);
+      } else {
+        conflicts.add("parameter group " + entry.getKey());
+      }
+    }
+    for (Map.Entry<String, Map<String, Change>> entry : groupParameters.entrySet()) {
+      JsonElement group = groups.get(entry.getKey());
+      if (group == null) {
+        // Removing parameters from a group that is already gone is already in effect.
+        if (!onlyRemovals(entry.getValue())) {
+          conflicts.add("parameter group " + entry.getKey());
+        }
+        continue;
+      }
+      JsonObject groupObject = group.getAsJsonObject();
+      JsonObject members = section(groupObject, PARAMETERS);
+      groupObject.add(PARAMETERS, members);
+      apply(members, entry.getValue(), "parameter " + entry.getKey() + "/", conflicts);
+    }
+    for (Map.Entry<String, Change> entry : parameterGroups.entrySet()) {
+      if (entry.getValue().value != null) {
+        continue;
+      }
+      JsonElement group = groups.get(entry.getKey());
+      JsonObject metadata = group != null ? withoutParameters(group.getAsJsonObject()) : null;
+      // A group that gained parameters since the base is not removed along with them.
+      if (entry.getValue().appliesTo(metadata) && groupParametersOf(group).size() == 0) {
+        groups.remove(entry.getKey());
+      } else if (group != null) {
+        conflicts.add("parameter group " + entry.getKey());
+      }
+    }
+
+    JsonObject parameterSection = section(template, PARAMETERS);
+    template.add(PARAMETERS, parameterSection);
+    apply(parameterSection, parameters, "parameter ", conflicts);
+
+    JsonObject conditionSection = conditionsByName(template);
+    apply(conditionSection, conditions, "condition ", conflicts);
+    template.add(CONDITIONS, orderedConditions(conditionSection));
+
+    if (!conflicts.isEmpty()) {
+      throw new IllegalStateException("Template changed since the diff was computed: "
+          + String.join(", ", conflicts));
+    }
+    return Template.fromJSON(template.toString());
+  }
+
+  /**
+   * Applies this diff to the latest published template and publishes the result. If another
+   * publish wins the race, the diff is applied again to the newer template.
+   *
+   * @return The published template.
+   * @throws IllegalStateException if the diff conflicts with the latest template.
+   */
+  public Template publish(FirebaseRemoteConfig remoteConfig)
+      throws ExecutionException, InterruptedException, FirebaseRemoteConfigException {
+    for (int attempt = 1; ; attempt++) {
+      Template merged = applyTo(remoteConfig.getTemplateAsync().get());
+      try {
+        return remoteConfig.publishTemplateAsync(merged).get();
+      } catch (ExecutionException e) {
+        if (attempt >= MAX_PUBLISH_ATTEMPTS || !isETagMismatch(e.getCause())) {
+          throw e;
+        }
+        System.out.println("Template changed during publish, retrying: "
+            + e.getCause().getMessage());
+      }
+    }
+  }
+
+  /** Lists the changes, one per line, as {@code +} added, {@code -} removed, {@code ~}
+   * modified. */
+  @Override
+  public String toString() {
+    StringBuilder builder = new StringBuilder();
+    describe(builder, parameters, "parameter ");
+    describe(builder, parameterGroups, "parameter group ");
+    for (Map.Entry<String, Map<String, Change>> group : groupParameters.entrySet()) {
+      describe(builder, group.getValue(), "parameter " + group.getKey() + "/");
+    }
+    describe(builder, conditions, "condition ");
+    if (conditionOrder != null) {
+      builder.append("~ condition order ").append(conditionOrder).append('\n');
+    }
+    return builder.toString();
+  }
+
+  private static void describe(StringBuilder builder, Map<String, Change> changes,
+      String label) {
+    for (Map.Entry<String, Change> entry : changes.entrySet()) {
+      builder.append(entry.getValue().symbol()).append(' ').append(label)
+          .append(entry.getKey()).append('\n');
+    }
+  }
+
+  private static boolean onlyRemovals(Map<String, Change> changes) {
+    for (Change change : changes.values()) {
+      if (change.value != null) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static boolean isETagMismatch(Throwable cause) {
+    if (!(cause instanceof FirebaseRemoteConfigException)) {
+      return false;
+    }
+    ErrorCode code = ((FirebaseRemoteConfigException) cause).getErrorCode();
+    return code == ErrorCode.FAILED_PRECONDITION || code == ErrorCode.ABORTED
+        || code == ErrorCode.CONFLICT;
+  }
+
+  private static void apply(JsonObject members, Map<String, Change> changes, String label,
+      List<String> conflicts) {
+    for (Map.Entry<String, Change> entry : changes.entrySet()) {
+      Change change = entry.getValue();
+      JsonElement current = members.get(entry.getKey());
+      if (change.appliesTo(current)) {
+        if (change.value == null) {
+          members.remove(entry.getKey());
+        } else {
+          members.add(entry.getKey(), change.value.deepCopy());
+        }
+      } else if (!Objects.equals(current, change.value)) {
+        conflicts.add(label + entry.getKey());
+      }
+    }
+  }
+
+  private JsonArray orderedConditions(JsonObject byName) {
+    JsonArray ordered = new JsonArray();
+    List<String> remaining = names(byName);
+    if (conditionOrder != null) {
+      for (String name : conditionOrder) {
+        if (remaining.remove(name)) {
+          ordered.add(byName.get(name));
+        }
+      }
+    }
+    // Conditions the diff does not order keep their relative order, after the ordered ones.
+    for (String name : remaining) {
+      ordered.add(byName.get(name));
+    }
+    return ordered;
+  }
+
+  private static Map<String, Change> diff(JsonObject before, JsonObject after) {
+    Map<String, Change> changes = new LinkedHashMap<>();
+    for (String name : union(before, after)) {
+      JsonElement from = before.get(name);
+      JsonElement to = after.get(name);
+      if (!Objects.equals(from, to)) {
+        changes.put(name, new Change(from != null ? digest(from) : null, to));
+      }
+    }
+    return changes;
+  }
+
+  private static JsonObject writeChanges(Map<String, Change> changes) {
+    JsonObject object = new JsonObject();
+    for (Map.Entry<String, Change> entry : changes.entrySet()) {
+      JsonObject change = new JsonObject();
+      if (entry.getValue().base != null) {
+        change.addProperty(BASE, entry.getValue().base);
+      }
+      if (entry.getValue().value != null) {
+        change.add(VALUE, entry.getValue().value);
+      }
+      object.add(entry.getKey(), change);
+    }
+    return object;
+  }
+
+  private static Map<String, Change> readChanges(JsonObject object) {
+    Map<String, Change> changes = new LinkedHashMap<>();
+    for (Map.Entry<String, JsonElement> entry : object.entrySet()) {
+      JsonObject change = entry.getValue().getAsJsonObject();
+      changes.put(entry.getKey(), new Change(
+          change.has(BASE) ? change.get(BASE).getAsString() : null, change.get(VALUE)));
+    }
+    return changes;
+  }
+
+  /** Returns the hex SHA-256 digest of {@code element} serialized with sorted object keys. */
+  static String digest(JsonElement element) {
+    StringBuilder canonical = new StringBuilder();
+    appendCanonical(element, canonical);
+    try {
+      byte[] hash = MessageDigest.getInstance("SHA-256")
+          .digest(canonical.toString().getBytes(StandardCharsets.UTF_8));
+      StringBuilder hex = new StringBuilder(hash.length * 2);
+      for (byte b : hash) {
+        hex.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+      }
+      return hex.toString();
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private static void appendCanonical(JsonElement element, StringBuilder out) {
+    if (element.isJsonObject()) {
+      TreeMap<String, JsonElement> sorted = new TreeMap<>();
+      for (Map.Entry<String, JsonElement> entry : element.getAsJsonObject().entrySet()) {
+        sorted.put(entry.getKey(), entry.getValue());
+      }
+      out.append('{');
+      boolean first = true;
+      for (Map.Entry<String, JsonElement> entry : sorted.entrySet()) {
+        if (!first) {
+          out.append(',');
+        }
+        first = false;
+        out.append(new JsonPrimitive(entry.getKey())).append(':');
+        appendCanonical(entry.getValue(), out);
+      }
+      out.append('}');
+    } else if (element.isJsonArray()) {
+      out.append('[');
+      boolean first = true;
+      for (JsonElement item : element.getAsJsonArray()) {
+        if (!first) {
+          out.append(',');
+        }
+        first = false;
+        appendCanonical(item, out);
+      }
+      out.append(']');
+    } else {
+      out.append(element);
+    }
+  }
+
+  private static JsonObject parse(String json) {
+    return JsonParser.parseString(json).getAsJsonObject();
+  }
+
+  private static JsonObject section(JsonObject object, String name) {
+    JsonElement section = object.get(name);
+    return section != null && section.isJsonObject() ? section.getAsJsonObject()
+        : new JsonObject();
+  }
+
+  private static JsonObject groupParametersOf(JsonElement group) {
+    return group != null ? section(group.getAsJsonObject(), PARAMETERS) : new JsonObject();
+  }
+
+  private static JsonObject withoutParameters(JsonObject group) {
+    JsonObject copy = group.deepCopy();
+    copy.remove(PARAMETERS);
+    return copy;
+  }
+
+  private static JsonObject groupsWithoutParameters(JsonObject groups) {
+    JsonObject copy = new JsonObject();
+    for (Map.Entry<String, JsonElement> entry : groups.entrySet()) {
+      copy.add(entry.getKey(), withoutParameters(entry.getValue().getAsJsonObject()));
+    }
+    return copy;
+  }
+
+  private static JsonObject conditionsByName(JsonObject template) {
+    JsonObject byName = new JsonObject();
+    JsonElement conditions = template.get(CONDITIONS);
+    if (conditions != null && conditions.isJsonArray()) {
+      for (JsonElement condition : conditions.getAsJsonArray()) {
+        byName.add(condition.getAsJsonObject().get("name").getAsString(), condition);
+      }
+    }
+    return byName;
+  }
+
+  private static List<String> names(JsonObject object) {
+    List<String> names = new ArrayList<>();
+    for (Map.Entry<String, JsonElement> entry : object.entrySet()) {
+      names.add(entry.getKey());
+    }
+    return names;
+  }
+
+  private static List<String> union(JsonObject a, JsonObject b) {
+    List<String> names = names(a);
+    for (String name : names(b)) {
+      if (!a.has(name)) {
+        names.add(name);
+      }
+    }
+    return names;
+  }
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright 2026 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.firebase.example;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A thread-safe token bucket used to keep bulk Admin SDK jobs under a project's QPS quota.
+ *
+ * <p>The bucket refills continuously at {@code permitsPerSecond} and holds at most
+ * {@code capacity} permits, which bounds the size of a burst after an idle period. Blocking
+ * acquisitions reserve their permits up front and then sleep outside the lock, so concurrent
+ * callers are admitted in arrival order without busy-waiting.
+ */
+public final class TokenBucket {
+
+  private final double permitsPerNano;
+  private final double capacity;
+
+  // Guarded by "this". May go negative while callers are waiting on reserved permits.
+  private double available;
+  private long lastRefillNanos;
+
+  public TokenBucket(double permitsPerSecond) {
+    this(permitsPerSecond, Math.max(1, permitsPerSecond));
+  }
+
+  public TokenBucket(double permitsPerSecond, double capacity) {
+    if (!(permitsPerSecond > 0)) {
+      throw new IllegalArgumentException("permitsPerSecond must be positive");
+    }
+    if (!(capacity >= 1)) {
+      throw new IllegalArgumentException("capacity must be at least 1");
+    }
+    this.permitsPerNano = permitsPerSecond / TimeUnit.SECONDS.toNanos(1);
+    this.capacity = capacity;
+    this.available = capacity;
+    this.lastRefillNanos = System.nanoTime();
+  }
+
+  /** Blocks until a single permit is available. */
+  public void acquire() throws InterruptedException {
+    acquire(1);
+  }
+
+  /** Blocks until {@code permits} permits are available. */
+  public void acquire(int permits) throws InterruptedException {
+    long waitNanos = reserve(permits);
+    if (waitNanos > 0) {
+      TimeUnit.NANOSECONDS.sleep(waitNanos);
+    }
+  }
+
+  /** Takes {@code permits} permits if they are available right now. */
+  public synchronized boolean tryAcquire(int permits) {
+    checkPermits(permits);
+    refill(System.nanoTime());
+    if (available < permits) {
+      return false;
+    }
+    available -= permits;
+    return true;
+  }
+
+  /** Returns the number of nanoseconds until {@code permits} could be taken without waiting. */
+  public synchronized long nanosUntilAvailable(int permits) {
+    checkPermits(permits);
+    refill(System.nanoTime());
+    return available >= permits ? 0 : (long) Math.ceil((permits - available) / permitsPerNano);
+  }
+
+  private synchronized long reserve(int permits) {
+    checkPermits(permits);
+    refill(System.nanoTime());
+    available -= permits;
+    return available >= 0 ? 0 : (long) Math.ceil(-available / permitsPerNano);
+  }
+
+  private void refill(long nowNanos) {
+    long elapsed = nowNanos - lastRefillNanos;
+    if (elapsed > 0) {
+      available = Math.min(capacity, available + elapsed * permitsPerNano);
+      lastRefillNanos = nowNanos;
+    }
+  }
+
+  private void checkPermits(int permits) {
+    if (permits < 1 || permits > capacity) {
+      throw new IllegalArgumentException("permits must be between 1 and " + capacity);
+    }
+  }
+}
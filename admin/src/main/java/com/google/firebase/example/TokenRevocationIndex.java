@@ -0,0 +1,267 @@
+/*
+ * Copyright 2026 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.firebase.example;
+
+import com.google.api.core.ApiFuture;
+import com.google.api.core.ApiFutureCallback;
+import com.google.api.core.ApiFutures;
+import com.google.api.core.SettableApiFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.firebase.ErrorCode;
+import com.google.firebase.auth.AuthErrorCode;
+import com.google.firebase.auth.FirebaseAuth;
+import com.google.firebase.auth.FirebaseAuthException;
+import com.google.firebase.auth.FirebaseToken;
+import com.google.firebase.database.ChildEventListener;
+import com.google.firebase.database.DataSnapshot;
+import com.google.firebase.database.DatabaseError;
+import com.google.firebase.database.DatabaseReference;
+import com.google.firebase.database.FirebaseDatabase;
+import com.google.firebase.database.ValueEventListener;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps an in-memory copy of the {@code metadata/{uid}/revokeTime} entries written by
+ * {@link FirebaseAuthSnippets#revokeIdTokens(String)}, so revocation checks do not need a
+ * {@code getUser} call per verified token.
+ *
+ * <p>A single child listener on {@code metadata/} maintains the index. Until the initial load
+ * has completed, and whenever the Realtime Database connection is down, the index is not
+ * considered current and {@link #verifyIdTokenAsync(String)} falls back to
+ * {@code verifyIdTokenAsync(idToken, true)}. After a reconnect the listener is attached again
+ * and the index is rebuilt from scratch, so revocations removed or added while offline are not
+ * missed.
+ *
+ * <p>The index only covers revocation. Unlike {@code verifyIdTokenAsync(idToken, true)}, it does
+ * not reject tokens of disabled users with {@code USER_DISABLED}, because disabling a user does
+ * not change {@code revokeTime}. Revoke a user's refresh tokens and save the new revocation time
+ * when disabling them, so their existing ID tokens are rejected as revoked. Where users may be
+ * disabled some other way, such as from the Firebase console, keep using
+ * {@code verifyIdTokenAsync(idToken, true)}.
+ */
+public final class TokenRevocationIndex {
+
+  private static final String REVOKE_TIME = "revokeTime";
+
+  private final FirebaseAuth auth;
+  private final DatabaseReference metadataRef;
+  private final DatabaseReference connectedRef;
+  private final ValueEventListener connectionListener = new ConnectionListener();
+
+  // Written on the database event thread, read by request threads.
+  private volatile Map<String, Long> revokeTimes = Collections.emptyMap();
+  private volatile boolean current;
+
+  // Guarded by "this".
+  private int generation;
+  private ChildEventListener childListener;
+
+  public TokenRevocationIndex(FirebaseAuth auth, FirebaseDatabase database) {
+    if (auth == null || database == null) {
+      throw new IllegalArgumentException("auth and database must not be null");
+    }
+    this.auth = auth;
+    this.metadataRef = database.getReference("metadata");
+    this.connectedRef = database.getReference(".info/connected");
+  }
+
+  /** Starts tracking the connection state; the index loads once the database is connected. */
+  public void start() {
+    connectedRef.addValueEventListener(connectionListener);
+  }
+
+  /** Stops listening. Subsequent verifications always check revocation with the backend. */
+  public void stop() {
+    connectedRef.removeEventListener(connectionListener);
+    detach();
+  }
+
+  /** Returns true if the index reflects the current contents of {@code metadata/}. */
+  public boolean isCurrent() {
+    return current;
+  }
+
+  /**
+   * Returns true if {@code token} was issued before the recorded revocation time of its user.
+   * Whether the user is disabled is not checked.
+   *
+   * @throws IllegalStateException if the index is not current.
+   */
+  public boolean isRevoked(FirebaseToken token) {
+    if (!current) {
+      throw new IllegalStateException("Revocation index is not current");
+    }
+    Long revokeTime = revokeTimes.get(token.getUid());
+    if (revokeTime == null) {
+      return false;
+    }
+    // revokeTime is getTokensValidAfterTimestamp() in seconds, which the backend keeps at whole
+    // seconds, so this matches the SDK's iat * 1000 < validSince.
+    Object iat = token.getClaims().get("iat");
+    return !(iat instanceof Number) || ((Number) iat).longValue() < revokeTime;
+  }
+
+  /**
+   * Verifies {@code idToken} and checks it against the local index. Revoked tokens fail with a
+   * {@link FirebaseAuthException} whose {@link AuthErrorCode} is {@code REVOKED_ID_TOKEN}, the
+   * same as {@code verifyIdTokenAsync(idToken, true)}. Tokens of disabled users are not rejected
+   * unless their tokens were also revoked.
+   */
+  public ApiFuture<FirebaseToken> verifyIdTokenAsync(final String idToken) {
+    if (!current) {
+      return auth.verifyIdTokenAsync(idToken, true);
+    }
+
+    final SettableApiFuture<FirebaseToken> result = SettableApiFuture.create();
+    ApiFutures.addCallback(auth.verifyIdTokenAsync(idToken),
+        new ApiFutureCallback<FirebaseToken>() {
+          @Override
+          public void onSuccess(FirebaseToken token) {
+            try {
+              if (isRevoked(token)) {
+                result.setException(new FirebaseAuthException(ErrorCode.INVALID_ARGUMENT,
+                    "Firebase id token is revoked.", null, null, AuthErrorCode.REVOKED_ID_TOKEN));
+              } else {
+                result.set(token);
+              }
+            } catch (IllegalStateException e) {
+              // The connection dropped while the token was being verified.
+              forward(auth.verifyIdTokenAsync(idToken, true), result);
+            }
+          }
+
+          @Override
+          public void onFailure(Throwable t) {
+            result.setException(t);
+          }
+        }, MoreExecutors.directExecutor());
+    return result;
+  }
+
+  private static <V> void forward(ApiFuture<V> from, final SettableApiFuture<V> to) {
+    ApiFutures.addCallback(from, new ApiFutureCallback<V>() {
+      @Override
+      public void onSuccess(V value) {
+        to.set(value);
+      }
+
+      @Override
+      public void onFailure(Throwable t) {
+        to.setException(t);
+      }
+    }, MoreExecutors.directExecutor());
+  }
+
+  private synchronized void attach() {
+    if (childListener != null) {
+      return;
+    }
+    final int attachGeneration = ++generation;
+    final Map<String, Long> loading = new ConcurrentHashMap<>();
+    childListener = metadataRef.addChildEventListener(new ChildEventListener() {
+      @Override
+      public void onChildAdded(DataSnapshot snapshot, String previousChildName) {
+        update(loading, snapshot);
+      }
+
+      @Override
+      public void onChildChanged(DataSnapshot snapshot, String previousChildName) {
+        update(loading, snapshot);
+      }
+
+      @Override
+      public void onChildRemoved(DataSnapshot snapshot) {
+        loading.remove(snapshot.getKey());
+      }
+
+      @Override
+      public void onChildMoved(DataSnapshot snapshot, String previousChildName) {
+        // Ordering is irrelevant to the index.
+      }
+
+      @Override
+      public void onCancelled(DatabaseError error) {
+        System.out.println("Revocation listener cancelled: " + error.getMessage());
+        synchronized (TokenRevocationIndex.this) {
+          if (attachGeneration == generation) {
+            current = false;
+            childListener = null;
+          }
+        }
+      }
+    });
+
+    // Value events for a location are raised after the child events for the same data, so this
+    // fires once every existing child has been added to the index.
+    metadataRef.addListenerForSingleValueEvent(new ValueEventListener() {
+      @Override
+      public void onDataChange(DataSnapshot snapshot) {
+        synchronized (TokenRevocationIndex.this) {
+          if (attachGeneration == generation && childListener != null) {
+            revokeTimes = loading;
+            current = true;
+          }
+        }
+      }
+
+      @Override
+      public void onCancelled(DatabaseError error) {
+        System.out.println("Revocation index load cancelled: " + error.getMessage());
+      }
+    });
+  }
+
+  private synchronized void detach() {
+    current = false;
+    if (childListener != null) {
+      metadataRef.removeEventListener(childListener);
+      childListener = null;
+    }
+    generation++;
+  }
+
+  private static void update(Map<String, Long> index, DataSnapshot snapshot) {
+    Object revokeTime = snapshot.child(REVOKE_TIME).getValue();
+    if (revokeTime instanceof Number) {
+      index.put(snapshot.getKey(), ((Number) revokeTime).longValue());
+    } else {
+      index.remove(snapshot.getKey());
+    }
+  }
+
+  private final class ConnectionListener implements ValueEventListener {
+
+    @Override
+    public void onDataChange(DataSnapshot snapshot) {
+      if (Boolean.TRUE.equals(snapshot.getValue(Boolean.class))) {
+        attach();
+      } else {
+        // Dropping every listener on metadata/ discards the SDK's cached copy, so the next
+        // attach reloads it from the server instead of replaying stale data.
+        detach();
+      }
+    }
+
+    @Override
+    public void onCancelled(DatabaseError error) {
+      System.out.println("Connection listener cancelled: " + error.getMessage());
+      current = false;
+    }
+  }
+}
@@ -0,0 +1,291 @@
+/*
+ * Copyright 2026 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.firebase.example;
+
+import com.google.firebase.messaging.FirebaseMessaging;
+import com.google.firebase.messaging.TopicManagementResponse;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Subscribes or unsubscribes a stream of registration tokens to a topic with chunked,
+ * rate-limited and concurrent topic management calls.
+ *
+ * <p>Tokens are grouped into chunks of at most {@link #MAX_TOKENS_PER_REQUEST}. Each chunk takes
+ * a permit from a {@link TokenBucket} before it is sent, and at most {@code maxInFlight} chunks
+ * are outstanding at once. Tokens reported as invalid or not registered in
+ * {@link TopicManagementResponse#getErrors()} are collected in the {@link Result} so they can be
+ * pruned. Tokens that failed with an internal error, and chunks whose whole request failed, are
+ * retried after an exponential backoff until {@code maxAttempts} is reached.
+ */
+public final class TopicSubscriptionManager {
+
+  /** Maximum number of tokens accepted by one topic management call. */
+  public static final int MAX_TOKENS_PER_REQUEST = 1000;
+
+  /** Error reason for a malformed registration token. */
+  public static final String INVALID_ARGUMENT = "invalid-argument";
+
+  /** Error reason for a registration token that is no longer registered. */
+  public static final String NOT_REGISTERED = "registration-token-not-registered";
+
+  private static final String INTERNAL_ERROR = "internal-error";
+  private static final long INITIAL_BACKOFF_MILLIS = 1000;
+  private static final long MAX_BACKOFF_MILLIS = 30_000;
+
+  /** A token that could not be updated. */
+  public static final class Failure {
+
+    private final String token;
+    private final String reason;
+
+    Failure(String token, String reason) {
+      this.token = token;
+      this.reason = reason;
+    }
+
+    public String getToken() {
+      return token;
+    }
+
+    /** The error reason reported by FCM, such as {@link #NOT_REGISTERED}. */
+    public String getReason() {
+      return reason;
+    }
+
+    @Override
+    public String toString() {
+      return token + ": " + reason;
+    }
+  }
+
+  /** Outcome of a {@link #subscribe} or {@link #unsubscribe} run. */
+  public static final class Result {
+
+    private final long tokens;
+    private final long succeeded;
+    private final long retried;
+    private final long elapsedMillis;
+    private final List<String> invalidTokens;
+    private final List<Failure> failures;
+
+    Result(long tokens, long succeeded, long retried, long elapsedMillis,
+        List<String> invalidTokens, List<Failure> failures) {
+      this.tokens = tokens;
+      this.succeeded = succeeded;
+      this.retried = retried;
+      this.elapsedMillis = elapsedMillis;
+      this.invalidTokens = Collections.unmodifiableList(invalidTokens);
+      this.failures = Collections.unmodifiableList(failures);
+    }
+
+    /** Number of tokens read from the input. */
+    public long getTokens() {
+      return tokens;
+    }
+
+    public long getSucceeded() {
+      return succeeded;
+    }
+
+    public long getRetried() {
+      return retried;
+    }
+
+    public long getElapsedMillis() {
+      return elapsedMillis;
+    }
+
+    /** Tokens reported as malformed or no longer registered, which should be deleted. */
+    public List<String> getInvalidTokens() {
+      return invalidTokens;
+    }
+
+    /** Tokens that failed for any other reason. */
+    public List<Failure> getFailures() {
+      return failures;
+    }
+
+    @Override
+    public String toString() {
+      return "tokens=" + tokens + ", succeeded=" + succeeded + ", invalid=" + invalidTokens.size()
+          + ", failed=" + failures.size() + ", retried=" + retried
+          + ", elapsedMillis=" + elapsedMillis;
+    }
+  }
+
+  private final FirebaseMessaging messaging;
+  private final int chunkSize;
+  private final int maxInFlight;
+  private final int maxAttempts;
+  private final TokenBucket rateLimiter;
+
+  private TopicSubscriptionManager(Builder builder) {
+    this.messaging = builder.messaging;
+    this.chunkSize = builder.chunkSize;
+    this.maxInFlight = builder.maxInFlight;
+    this.maxAttempts = builder.maxAttempts;
+    this.rateLimiter = new TokenBucket(builder.requestsPerSecond);
+  }
+
+  public static Builder builder(FirebaseMessaging messaging) {
+    return new Builder(messaging);
+  }
+
+  /** Subscribes every token to {@code topic}, blocking until all chunks have completed. */
+  public Result subscribe(Iterator<String> tokens, String topic) throws InterruptedException {
+    return run(tokens, topic, true);
+  }
+
+  /** Unsubscribes every token from {@code topic}, blocking until all chunks have completed. */
+  public Result unsubscribe(Iterator<String> tokens, String topic) throws InterruptedException {
+    return run(tokens, topic, false);
+  }
+
+  private Result run(Iterator<String> tokens, final String topic, final boolean subscribe)
+      throws InterruptedException {
+    if (topic == null || topic.isEmpty()) {
+      throw new IllegalArgumentException("topic must not be empty");
+    }
+    Run run = new Run();
+    run.executor.run(tokens, chunkSize, chunk -> subscribe
+        ? messaging.subscribeToTopicAsync(chunk, topic)
+        : messaging.unsubscribeFromTopicAsync(chunk, topic), run);
+    return run.result();
+  }
+
+  private final class Run
+      implements ChunkedRetryExecutor.Handler<String, TopicManagementResponse> {
+
+    final long startNanos = System.nanoTime();
+    final ChunkedRetryExecutor<String, TopicManagementResponse> executor =
+        new ChunkedRetryExecutor<>(maxInFlight, maxAttempts, rateLimiter, INITIAL_BACKOFF_MILLIS,
+            MAX_BACKOFF_MILLIS, false);
+    final List<String> invalidTokens = new ArrayList<>();
+    final List<Failure> failures = new ArrayList<>();
+    final AtomicLong succeeded = new AtomicLong();
+
+    @Override
+    public void onSuccess(ChunkedRetryExecutor.Chunk<String> chunk,
+        TopicManagementResponse result) {
+      succeeded.addAndGet(result.getSuccessCount());
+      List<String> retryTokens = new ArrayList<>();
+      for (TopicManagementResponse.Error error : result.getErrors()) {
+        String token = chunk.getItems().get(error.getIndex());
+        String reason = error.getReason();
+        if (INVALID_ARGUMENT.equals(reason) || NOT_REGISTERED.equals(reason)) {
+          synchronized (invalidTokens) {
+            invalidTokens.add(token);
+          }
+        } else if (INTERNAL_ERROR.equals(reason) && !chunk.isLastAttempt()) {
+          retryTokens.add(token);
+        } else {
+          fail(token, reason);
+        }
+      }
+      executor.retry(chunk, retryTokens);
+    }
+
+    @Override
+    public void onFailure(ChunkedRetryExecutor.Chunk<String> chunk, Throwable t) {
+      if (!chunk.isLastAttempt()) {
+        executor.retry(chunk, chunk.getItems());
+      } else {
+        for (String token : chunk.getItems()) {
+          fail(token, String.valueOf(t.getMessage()));
+        }
+      }
+    }
+
+    private void fail(String token, String reason) {
+      synchronized (failures) {
+        failures.add(new Failure(token, reason));
+      }
+    }
+
+    Result result() {
+      List<String> invalid;
+      synchronized (invalidTokens) {
+        invalid = new ArrayList<>(invalidTokens);
+      }
+      List<Failure> failed;
+      synchronized (failures) {
+        failed = new ArrayList<>(failures);
+      }
+      return new Result(executor.getSubmitted(), succeeded.get(), executor.getRetried(),
+          TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos), invalid, failed);
+    }
+  }
+
+  public static final class Builder {
+
+    private final FirebaseMessaging messaging;
+    private int chunkSize = MAX_TOKENS_PER_REQUEST;
+    private int maxInFlight = 8;
+    private int maxAttempts = 3;
+    private double requestsPerSecond = 20;
+
+    private Builder(FirebaseMessaging messaging) {
+      if (messaging == null) {
+        throw new IllegalArgumentException("messaging must not be null");
+      }
+      this.messaging = messaging;
+    }
+
+    public Builder setChunkSize(int chunkSize) {
+      if (chunkSize < 1 || chunkSize > MAX_TOKENS_PER_REQUEST) {
+        throw new IllegalArgumentException(
+            "chunkSize must be between 1 and " + MAX_TOKENS_PER_REQUEST);
+      }
+      this.chunkSize = chunkSize;
+      return this;
+    }
+
+    public Builder setMaxInFlight(int maxInFlight) {
+      if (maxInFlight < 1) {
+        throw new IllegalArgumentException("maxInFlight must be at least 1");
+      }
+      this.maxInFlight = maxInFlight;
+      return this;
+    }
+
+    /** Sets the total number of attempts per token, including the first one. */
+    public Builder setMaxAttempts(int maxAttempts) {
+      if (maxAttempts < 1) {
+        throw new IllegalArgumentException("maxAttempts must be at least 1");
+      }
+      this.maxAttempts = maxAttempts;
+      return this;
+    }
+
+    public Builder setRequestsPerSecond(double requestsPerSecond) {
+      if (!(requestsPerSecond > 0)) {
+        throw new IllegalArgumentException("requestsPerSecond must be positive");
+      }
+      this.requestsPerSecond = requestsPerSecond;
+      return this;
+    }
+
+    public TopicSubscriptionManager build() {
+      return new TopicSubscriptionManager(this);
+    }
+  }
+}
@@ -0,0 +1,276 @@
+/*
+ * Copyright 2026 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.firebase.example;
+
+import com.google.api.core.ApiFuture;
+import com.google.firebase.auth.ExportedUserRecord;
+import com.google.firebase.auth.FirebaseAuth;
+import com.google.firebase.auth.ListUsersPage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Properties;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Exports every user in a project to a {@link UserSink} with constant memory use.
+ *
+ * <p>A background thread walks the {@code listUsersAsync} pages and requests page N+1 as soon
+ * as page N arrives, so the next round trip overlaps with writing the current page. Records are
+ * handed to the calling thread through a bounded queue, which holds back the fetcher when the
+ * sink is slower than the API.
+ *
+ * <p>After each page the sink is committed and a checkpoint with the next page token is written
+ * atomically. If the export is interrupted, running it again with the same checkpoint file and
+ * sink resumes from the last completed page. The checkpoint is deleted once the export
+ * finishes.
+ */
+public final class UserExporter {
+
+  /** Largest page size supported by {@code listUsers}. */
+  public static final int MAX_PAGE_SIZE = 1000;
+
+  /** Outcome of a completed export. */
+  public static final class Result {
+
+    private final long exportedUsers;
+    private final long pages;
+    private final long elapsedMillis;
+    private final boolean resumed;
+
+    Result(long exportedUsers, long pages, long elapsedMillis, boolean resumed) {
+      this.exportedUsers = exportedUsers;
+      this.pages = pages;
+      this.elapsedMillis = elapsedMillis;
+      this.resumed = resumed;
+    }
+
+    /** Total number of users in the export, including those written before a resume. */
+    public long getExportedUsers() {
+      return exportedUsers;
+    }
+
+    /** Number of pages fetched by this run. */
+    public long getPages() {
+      return pages;
+    }
+
+    public long getElapsedMillis() {
+      return elapsedMillis;
+    }
+
+    public boolean isResumed() {
+      return resumed;
+    }
+
+    @Override
+    public String toString() {
+      return "exportedUsers=" + exportedUsers + ", pages=" + pages
+          + ", elapsedMillis=" + elapsedMillis + ", resumed=" + resumed;
+    }
+  }
+
+  private final FirebaseAuth auth;
+  private final Path checkpointPath;
+  private final int pageSize;
+  private final int queueCapacity;
+
+  public UserExporter(FirebaseAuth auth, Path checkpointPath) {
+    this(auth, checkpointPath, MAX_PAGE_SIZE, 2);
+  }
+
+  /**
+   * @param bufferedPages Number of pages that may wait in the queue for the sink, in addition
+   *     to the page being prefetched.
+   */
+  public UserExporter(FirebaseAuth auth, Path checkpointPath, int pageSize, int bufferedPages) {
+    if (auth == null || checkpointPath == null) {
+      throw new IllegalArgumentException("auth and checkpointPath must not be null");
+    }
+    if (pageSize < 1 || pageSize > MAX_PAGE_SIZE) {
+      throw new IllegalArgumentException("pageSize must be between 1 and " + MAX_PAGE_SIZE);
+    }
+    if (bufferedPages < 1) {
+      throw new IllegalArgumentException("bufferedPages must be at least 1");
+    }
+    this.auth = auth;
+    this.checkpointPath = checkpointPath;
+    this.pageSize = pageSize;
+    // One extra slot per page for its end marker.
+    this.queueCapacity = bufferedPages * (pageSize + 1);
+  }
+
+  /**
+   * Exports all users to {@code sink}, resuming from the checkpoint file if one exists. The sink
+   * is committed but not closed.
+   */
+  public Result export(UserSink sink)
+      throws IOException, InterruptedException, ExecutionException {
+    long startNanos = System.nanoTime();
+    Checkpoint checkpoint = Checkpoint.read(checkpointPath);
+    sink.resumeFrom(checkpoint != null ? checkpoint.sinkPosition : 0);
+
+    long exportedUsers = checkpoint != null ? checkpoint.exportedUsers : 0;
+    long pages = 0;
+    BlockingQueue<Object> queue = new ArrayBlockingQueue<>(queueCapacity);
+    Thread fetcher = new Thread(
+        new Fetcher(checkpoint != null ? checkpoint.pageToken : null, queue), "user-export-fetch");
+    fetcher.setDaemon(true);
+    fetcher.start();
+    try {
+      while (true) {
+        Object item = queue.take();
+        if (item instanceof ExportedUserRecord) {
+          sink.write((ExportedUserRecord) item);
+          exportedUsers++;
+        } else if (item instanceof PageEnd) {
+          long position = sink.commit();
+          pages++;
+          String nextPageToken = ((PageEnd) item).nextPageToken;
+          if (nextPageToken == null) {
+            Files.deleteIfExists(checkpointPath);
+            break;
+          }
+          new Checkpoint(nextPageToken, exportedUsers, position).write(checkpointPath);
+        } else {
+          throw new ExecutionException(((FetchFailure) item).cause);
+        }
+      }
+    } finally {
+      fetcher.interrupt();
+    }
+
+    return new Result(exportedUsers, pages,
+        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos), checkpoint != null);
+  }
+
+  private final class Fetcher implements Runnable {
+
+    private final String startPageToken;
+    private final BlockingQueue<Object> queue;
+
+    Fetcher(String startPageToken, BlockingQueue<Object> queue) {
+      this.startPageToken = startPageToken;
+      this.queue = queue;
+    }
+
+    @Override
+    public void run() {
+      try {
+        ApiFuture<ListUsersPage> next = auth.listUsersAsync(startPageToken, pageSize);
+        while (next != null) {
+          ListUsersPage page = next.get();
+          // Request the following page before handing this one over.
+          String nextPageToken = page.hasNextPage() ? page.getNextPageToken() : null;
+          next = nextPageToken != null ? auth.listUsersAsync(nextPageToken, pageSize) : null;
+          for (ExportedUserRecord user : page.getValues()) {
+            queue.put(user);
+          }
+          queue.put(new PageEnd(nextPageToken));
+        }
+      } catch (InterruptedException e) {
+        // The consumer has stopped.
+      } catch (ExecutionException e) {
+        fail(e.getCause());
+      } catch (RuntimeException e) {
+        fail(e);
+      }
+    }
+
+    private void fail(Throwable cause) {
+      try {
+        queue.put(new FetchFailure(cause));
+      } catch (InterruptedException e) {
+        // The consumer has stopped.
+      }
+    }
+  }
+
+  private static final class PageEnd {
+
+    final String nextPageToken;
+
+    PageEnd(String nextPageToken) {
+      this.nextPageToken = nextPageToken;
+    }
+  }
+
+  private static final class FetchFailure {
+
+    final Throwable cause;
+
+    FetchFailure(Throwable cause) {
+      this.cause = cause;
+    }
+  }
+
+  private static final class Checkpoint {
+
+    private static final String PAGE_TOKEN = "pageToken";
+    private static final String EXPORTED_USERS = "exportedUsers";
+    private static final String SINK_POSITION = "sinkPosition";
+
+    final String pageToken;
+    final long exportedUsers;
+    final long sinkPosition;
+
+    Checkpoint(String pageToken, long exportedUsers, long sinkPosition) {
+      this.pageToken = pageToken;
+      this.exportedUsers = exportedUsers;
+      this.sinkPosition = sinkPosition;
+    }
+
+    static Checkpoint read(Path path) throws IOException {
+      if (!Files.exists(path)) {
+        return null;
+      }
+      Properties properties = new Properties();
+      try (InputStream in = Files.newInputStream(path)) {
+        properties.load(in);
+      }
+      return new Checkpoint(properties.getProperty(PAGE_TOKEN),
+          Long.parseLong(properties.getProperty(EXPORTED_USERS)),
+          Long.parseLong(properties.getProperty(SINK_POSITION)));
+    }
+
+    void write(Path path) throws IOException {
+      Properties properties = new Properties();
+      properties.setProperty(PAGE_TOKEN, pageToken);
+      properties.setProperty(EXPORTED_USERS, Long.toString(exportedUsers));
+      properties.setProperty(SINK_POSITION, Long.toString(sinkPosition));
+
+      Path absolute = path.toAbsolutePath();
+      Path temp = Files.createTempFile(
+          absolute.getParent(), absolute.getFileName().toString(), ".tmp");
+      try {
+        try (OutputStream out = Files.newOutputStream(temp)) {
+          properties.store(out, "User export checkpoint");
+        }
+        Files.move(temp, absolute,
+            StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+      } finally {
+        Files.deleteIfExists(temp);
+      }
+    }
+  }
+}
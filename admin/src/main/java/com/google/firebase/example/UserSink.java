@@ -0,0 +1,42 @@
+/*
+ * Copyright 2026 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.firebase.example;
+
+import com.google.firebase.auth.ExportedUserRecord;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Destination for the records produced by {@link UserExporter}.
+ *
+ * <p>The exporter calls {@link #commit()} at the end of every page and stores the returned
+ * position in its checkpoint. When an interrupted export is resumed, {@link #resumeFrom(long)}
+ * receives that position so the sink can discard anything written after the last checkpoint.
+ */
+public interface UserSink extends Closeable {
+
+  /**
+   * Called once before the first write. {@code position} is 0 for a fresh export, or a value
+   * previously returned by {@link #commit()} when resuming.
+   */
+  void resumeFrom(long position) throws IOException;
+
+  void write(ExportedUserRecord user) throws IOException;
+
+  /** Makes every record written so far durable and returns the position to resume from. */
+  long commit() throws IOException;
+}
@@ -0,0 +1,190 @@
+/*
+ * Copyright 2026 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.firebase.example;
+
+import com.google.api.client.http.HttpTransport;
+import com.google.api.client.http.LowLevelHttpRequest;
+import com.google.api.client.http.LowLevelHttpResponse;
+import com.google.api.client.testing.http.MockHttpTransport;
+import com.google.api.client.testing.http.MockLowLevelHttpRequest;
+import com.google.api.client.testing.http.MockLowLevelHttpResponse;
+import com.google.auth.oauth2.AccessToken;
+import com.google.auth.oauth2.GoogleCredentials;
+import com.google.auth.oauth2.ServiceAccountCredentials;
+import com.google.firebase.FirebaseApp;
+import com.google.firebase.FirebaseOptions;
+import com.google.gson.Gson;
+
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.Signature;
+import java.security.cert.X509Certificate;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.bouncycastle.asn1.x500.X500Name;
+import org.bouncycastle.cert.jcajce.JcaX509CertificateConverter;
+import org.bouncycastle.cert.jcajce.JcaX509v3CertificateBuilder;
+import org.bouncycastle.operator.jcajce.JcaContentSignerBuilder;
+
+/**
+ * Offline stand-in for a Firebase project, shared by the benchmarks.
+ *
+ * <p>A throwaway RSA key plays both the service account key and the key that signs ID tokens.
+ * Apps created here use an HTTP transport that answers every request with the matching public
+ * key certificate, in the format served by the secure token key endpoint, so token
+ * verification never leaves the JVM.
+ */
+final class BenchmarkProject {
+
+  static final String PROJECT_ID = "benchmark-project";
+  static final String KEY_ID = "benchmark-key";
+  static final String CLIENT_EMAIL = "benchmark@benchmark-project.iam.gserviceaccount.com";
+
+  private static final Base64.Encoder BASE64 = Base64.getUrlEncoder().withoutPadding();
+
+  private final KeyPair keyPair;
+  private final ServiceAccountCredentials credentials;
+  private final String publicKeysJson;
+  private final Gson gson = new Gson();
+
+  BenchmarkProject() throws Exception {
+    KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+    generator.initialize(2048);
+    this.keyPair = generator.generateKeyPair();
+    this.credentials = ServiceAccountCredentials.newBuilder()
+        .setClientEmail(CLIENT_EMAIL)
+        .setPrivateKey(keyPair.getPrivate())
+        .setPrivateKeyId(KEY_ID)
+        .setProjectId(PROJECT_ID)
+        .build();
+    this.publicKeysJson = gson.toJson(Collections.singletonMap(KEY_ID, certificatePem()));
+  }
+
+  ServiceAccountCredentials getCredentials() {
+    return credentials;
+  }
+
+  /** Returns a token provider that hands out a fixed access token without any network. */
+  static CachedAccessTokenProvider newAccessTokenProvider() {
+    return new CachedAccessTokenProvider(new FixedTokenCredentials());
+  }
+
+  /** Initializes an app named {@code name} that talks only to the local key endpoint. */
+  FirebaseApp initializeApp(String name) {
+    return FirebaseApp.initializeApp(FirebaseOptions.builder()
+        .setCredentials(credentials)
+        .setProjectId(PROJECT_ID)
+        .setHttpTransport(new PublicKeysTransport(publicKeysJson))
+        .build(), name);
+  }
+
+  /**
+   * Initializes an app named {@code name} that sends every request to {@code transport} and
+   * authorizes them with a fixed access token.
+   */
+  static FirebaseApp initializeApp(String name, HttpTransport transport) {
+    return FirebaseApp.initializeApp(FirebaseOptions.builder()
+        .setCredentials(new FixedTokenCredentials())
+        .setProjectId(PROJECT_ID)
+        .setHttpTransport(transport)
+        .build(), name);
+  }
+
+  /** Returns an ID token for {@code uid}, signed like one issued by Firebase Auth. */
+  String createIdToken(String uid) throws GeneralSecurityException {
+    long now = System.currentTimeMillis() / 1000;
+    Map<String, Object> header = new LinkedHashMap<>();
+    header.put("alg", "RS256");
+    header.put("kid", KEY_ID);
+    header.put("typ", "JWT");
+
+    Map<String, Object> payload = new LinkedHashMap<>();
+    payload.put("iss", "https://securetoken.google.com/" + PROJECT_ID);
+    payload.put("aud", PROJECT_ID);
+    payload.put("auth_time", now);
+    payload.put("user_id", uid);
+    payload.put("sub", uid);
+    payload.put("iat", now);
+    payload.put("exp", now + TimeUnit.HOURS.toSeconds(1));
+    payload.put("premiumAccount", true);
+
+    String content = encode(gson.toJson(header)) + "." + encode(gson.toJson(payload));
+    Signature signature = Signature.getInstance("SHA256withRSA");
+    signature.initSign(keyPair.getPrivate());
+    signature.update(content.getBytes(StandardCharsets.US_ASCII));
+    return content + "." + BASE64.encodeToString(signature.sign());
+  }
+
+  private static String encode(String json) {
+    return BASE64.encodeToString(json.getBytes(StandardCharsets.UTF_8));
+  }
+
+  private String certificatePem() throws Exception {
+    long now = System.currentTimeMillis();
+    X500Name name = new X500Name("CN=" + CLIENT_EMAIL);
+    X509Certificate certificate = new JcaX509CertificateConverter().getCertificate(
+        new JcaX509v3CertificateBuilder(name, BigInteger.ONE,
+            new Date(now - TimeUnit.HOURS.toMillis(1)), new Date(now + TimeUnit.DAYS.toMillis(1)),
+            name, keyPair.getPublic())
+            .build(new JcaContentSignerBuilder("SHA256withRSA").build(keyPair.getPrivate())));
+    return "-----BEGIN CERTIFICATE-----\n"
+        + Base64.getMimeEncoder(64, new byte[] {'\n'}).encodeToString(certificate.getEncoded())
+        + "\n-----END CERTIFICATE-----\n";
+  }
+
+  /** Issues the same access token, valid for an hour, on every refresh. */
+  private static final class FixedTokenCredentials extends GoogleCredentials {
+
+    private static final long serialVersionUID = 1L;
+
+    @Override
+    public AccessToken refreshAccessToken() {
+      return new AccessToken("benchmark-access-token",
+          new Date(System.currentTimeMillis() + TimeUnit.HOURS.toMillis(1)));
+    }
+  }
+
+  /** Serves the public key certificates, cacheable for a day, for any request. */
+  private static final class PublicKeysTransport extends MockHttpTransport {
+
+    private final String publicKeysJson;
+
+    PublicKeysTransport(String publicKeysJson) {
+      this.publicKeysJson = publicKeysJson;
+    }
+
+    @Override
+    public LowLevelHttpRequest buildRequest(String method, String url) {
+      return new MockLowLevelHttpRequest(url) {
+        @Override
+        public LowLevelHttpResponse execute() {
+          return new MockLowLevelHttpResponse()
+              .setContentType("application/json; charset=UTF-8")
+              .addHeader("Cache-Control", "public, max-age=86400")
+              .setContent(publicKeysJson);
+        }
+      };
+    }
+  }
+}
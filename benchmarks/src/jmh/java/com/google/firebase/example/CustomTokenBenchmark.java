@@ -0,0 +1,88 @@
+/*
+ * Copyright 2026 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.firebase.example;
+
+import com.google.firebase.FirebaseApp;
+import com.google.firebase.auth.FirebaseAuth;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Compares minting custom tokens with {@code createCustomTokenAsync} and with
+ * {@link CustomTokenMinter}. Both sign locally with a throwaway service account key.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CustomTokenBenchmark {
+
+  private static final int BATCH_SIZE = 1000;
+
+  private final Map<String, Object> claims =
+      Collections.<String, Object>singletonMap("premiumAccount", true);
+  private FirebaseApp app;
+  private FirebaseAuth auth;
+  private CustomTokenMinter minter;
+  private List<CustomTokenMinter.TokenRequest> batch;
+
+  @Setup
+  public void setUp() throws Exception {
+    BenchmarkProject project = new BenchmarkProject();
+    app = project.initializeApp("custom-token-benchmark");
+    auth = FirebaseAuth.getInstance(app);
+    minter = new CustomTokenMinter(project.getCredentials());
+    batch = new ArrayList<>(BATCH_SIZE);
+    for (int i = 0; i < BATCH_SIZE; i++) {
+      batch.add(CustomTokenMinter.TokenRequest.of("uid-" + i, claims));
+    }
+  }
+
+  @TearDown
+  public void tearDown() {
+    app.delete();
+  }
+
+  @Benchmark
+  public String createCustomToken() throws Exception {
+    return auth.createCustomTokenAsync("some-uid", claims).get();
+  }
+
+  @Benchmark
+  public String mint() {
+    return minter.mint("some-uid", claims);
+  }
+
+  /** Reports per-token figures for a parallel batch. */
+  @Benchmark
+  @OperationsPerInvocation(BATCH_SIZE)
+  public List<String> mintAll() {
+    return minter.mintAll(batch);
+  }
+}
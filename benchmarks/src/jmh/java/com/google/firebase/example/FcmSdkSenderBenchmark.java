@@ -0,0 +1,115 @@
+/*
+ * Copyright 2026 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.firebase.example;
+
+import com.google.firebase.FirebaseApp;
+import com.google.firebase.messaging.FirebaseMessaging;
+import com.google.firebase.messaging.MessagingErrorCode;
+import com.google.firebase.messaging.MulticastMessage;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Drives {@link MulticastFanOut} and {@link TopicSubscriptionManager} through the Admin SDK
+ * against a {@link LocalFcmServer}, using {@link LocalFcmServer#newHttpTransport()} so the SDK
+ * parses the server's multipart batch and Instance ID responses. Every invocation checks that
+ * the unregistered tokens, and only those, come back as failures.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class FcmSdkSenderBenchmark {
+
+  private static final int TOKENS = 1000;
+  private static final int UNREGISTERED_EVERY = 100;
+
+  private final List<String> tokens = new ArrayList<>(TOKENS);
+  private final List<String> unregistered = new ArrayList<>();
+  private LocalFcmServer server;
+  private FirebaseApp app;
+  private MulticastFanOut fanOut;
+  private TopicSubscriptionManager topicManager;
+
+  @Setup
+  public void setUp() throws Exception {
+    for (int i = 0; i < TOKENS; i++) {
+      String token = "registration-token-" + i;
+      tokens.add(token);
+      if (i % UNREGISTERED_EVERY == 0) {
+        unregistered.add(token);
+      }
+    }
+    server = LocalFcmServer.builder().addUnregisteredTokens(unregistered).start();
+    app = BenchmarkProject.initializeApp("fcm-sdk-senders", server.newHttpTransport());
+    FirebaseMessaging messaging = FirebaseMessaging.getInstance(app);
+    fanOut = MulticastFanOut.builder(messaging, shard -> MulticastMessage.builder()
+        .addAllTokens(shard)
+        .putData("score", "850")
+        .build()).build();
+    topicManager = TopicSubscriptionManager.builder(messaging)
+        .setRequestsPerSecond(1_000_000)
+        .build();
+  }
+
+  @TearDown
+  public void tearDown() throws Exception {
+    System.out.println("LocalFcmServer batch requests: " + server.getBatchRequestCount()
+        + ", topic requests: " + server.getTopicRequestCount());
+    app.delete();
+    server.close();
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(TOKENS)
+  public MulticastFanOut.Result multicastFanOut() throws Exception {
+    MulticastFanOut.Result result = fanOut.send(tokens.iterator());
+    check(result.getDelivered() == TOKENS - unregistered.size()
+        && result.getFailures().size() == unregistered.size(), result);
+    for (MulticastFanOut.Failure failure : result.getFailures()) {
+      check(failure.getErrorCode() == MessagingErrorCode.UNREGISTERED
+          && unregistered.contains(failure.getToken()), failure);
+    }
+    return result;
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(TOKENS)
+  public TopicSubscriptionManager.Result subscribeToTopic() throws Exception {
+    TopicSubscriptionManager.Result result = topicManager.subscribe(tokens.iterator(), "scores");
+    check(result.getSucceeded() == TOKENS - unregistered.size()
+        && result.getInvalidTokens().equals(unregistered)
+        && result.getFailures().isEmpty(), result);
+    return result;
+  }
+
+  private static void check(boolean condition, Object result) {
+    if (!condition) {
+      throw new IllegalStateException("Unexpected result from LocalFcmServer: " + result);
+    }
+  }
+}
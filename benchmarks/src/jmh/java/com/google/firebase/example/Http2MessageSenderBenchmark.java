@@ -0,0 +1,116 @@
+/*
+ * Copyright 2026 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.firebase.example;
+
+import com.google.api.core.ApiFuture;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Compares sending v1 requests one {@code HttpURLConnection} at a time with concurrent sends
+ * through {@link Http2MessageSender}, against a {@link LocalFcmServer}. The number of
+ * connections the sender opened is printed at the end of each trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class Http2MessageSenderBenchmark {
+
+  private static final int REQUESTS = 100;
+  private static final String PATH =
+      "/v1/projects/" + BenchmarkProject.PROJECT_ID + "/messages:send";
+
+  private LocalFcmServer server;
+  private CachedAccessTokenProvider tokenProvider;
+  private Http2MessageSender sender;
+  private byte[] requestBody;
+
+  @Setup
+  public void setUp() throws Exception {
+    server = LocalFcmServer.builder().start();
+    tokenProvider = BenchmarkProject.newAccessTokenProvider();
+    sender = Http2MessageSender.builder(BenchmarkProject.PROJECT_ID, tokenProvider)
+        .setBaseUrl(server.getHttp2BaseUrl())
+        .setMaxConcurrentStreams(REQUESTS)
+        .build();
+    requestBody = "{\"message\":{\"token\":\"registration-token\",\"data\":{\"score\":\"850\"}}}"
+        .getBytes(StandardCharsets.UTF_8);
+  }
+
+  @TearDown
+  public void tearDown() throws Exception {
+    System.out.println("Http2MessageSender connections opened: "
+        + sender.getConnectionsOpened());
+    sender.close();
+    tokenProvider.close();
+    server.close();
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(REQUESTS)
+  public int httpUrlConnection() throws Exception {
+    int bytes = 0;
+    for (int i = 0; i < REQUESTS; i++) {
+      HttpURLConnection connection =
+          (HttpURLConnection) new URL(server.getBaseUrl() + PATH).openConnection();
+      connection.setRequestMethod("POST");
+      connection.setDoOutput(true);
+      connection.setRequestProperty(
+          "Authorization", "Bearer " + tokenProvider.getAccessToken());
+      connection.setRequestProperty("Content-Type", "application/json; UTF-8");
+      try (OutputStream out = connection.getOutputStream()) {
+        out.write(requestBody);
+      }
+      try (InputStream in = connection.getInputStream()) {
+        while (in.read() != -1) {
+          bytes++;
+        }
+      }
+    }
+    return bytes;
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(REQUESTS)
+  public List<String> http2Sender() throws Exception {
+    List<ApiFuture<String>> responses = new ArrayList<>(REQUESTS);
+    for (int i = 0; i < REQUESTS; i++) {
+      responses.add(sender.send(requestBody));
+    }
+    List<String> names = new ArrayList<>(REQUESTS);
+    for (ApiFuture<String> response : responses) {
+      names.add(response.get());
+    }
+    return names;
+  }
+}
@@ -0,0 +1,606 @@
+/*
+ * Copyright 2026 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.firebase.example;
+
+import com.google.api.client.http.HttpTransport;
+import com.google.api.client.http.LowLevelHttpRequest;
+import com.google.api.client.http.LowLevelHttpResponse;
+import com.google.api.client.testing.http.MockHttpTransport;
+import com.google.api.client.testing.http.MockLowLevelHttpRequest;
+import com.google.api.client.testing.http.MockLowLevelHttpResponse;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.URI;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import okhttp3.Protocol;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+
+/**
+ * A local stand-in for the FCM backend, for load and correctness tests without network access.
+ *
+ * <p>The server answers the endpoints the Admin SDK and the snippets call: v1
+ * {@code messages:send}, the {@code /batch} endpoint behind {@code sendAllAsync} and
+ * {@code sendMulticastAsync}, and the Instance ID {@code batchAdd} and {@code batchRemove}
+ * endpoints behind topic management. Responses have the same shape as FCM's, including
+ * {@code FcmError} details, so SDK error codes come out as in production. Each request can be
+ * delayed by a random latency, and a {@link Fault} can be injected at a configured rate or for
+ * specific tokens.
+ *
+ * <p>The same backend is reachable three ways: over HTTP/1.1 at {@link #getBaseUrl()}, over
+ * cleartext HTTP/2 at {@link #getHttp2BaseUrl()} for {@link Http2MessageSender}, and in-process
+ * through {@link #newHttpTransport()}, which an app passes to
+ * {@code FirebaseOptions.Builder.setHttpTransport} so the SDK's own requests never leave the
+ * JVM.
+ */
+public final class LocalFcmServer implements Closeable {
+
+  /** An error the server can return instead of handling a request. */
+  public enum Fault {
+    /** 404 with error code {@code UNREGISTERED}; per token {@code NOT_FOUND} for topics. */
+    UNREGISTERED(404, "NOT_FOUND"),
+    INVALID_ARGUMENT(400, "INVALID_ARGUMENT"),
+    /** 429 with a {@code Retry-After} header. */
+    QUOTA_EXCEEDED(429, "RESOURCE_EXHAUSTED"),
+    /** 503 with a {@code Retry-After} header. */
+    UNAVAILABLE(503, "UNAVAILABLE"),
+    INTERNAL(500, "INTERNAL");
+
+    private final int statusCode;
+    private final String status;
+
+    Fault(int statusCode, String status) {
+      this.statusCode = statusCode;
+      this.status = status;
+    }
+
+    public int getStatusCode() {
+      return statusCode;
+    }
+
+    // Faults that apply to individual tokens rather than to the whole request.
+    boolean isPerToken() {
+      return this == UNREGISTERED || this == INVALID_ARGUMENT;
+    }
+  }
+
+  private static final String JSON = "application/json; charset=UTF-8";
+  private static final String BATCH_BOUNDARY = "batch_local_fcm_server";
+
+  private final long minLatencyNanos;
+  private final long maxLatencyNanos;
+  private final Map<Fault, Double> faultRates;
+  private final int retryAfterSeconds;
+  private final Set<String> unregisteredTokens = ConcurrentHashMap.newKeySet();
+  private final ConcurrentHashMap<String, Set<String>> topics = new ConcurrentHashMap<>();
+  private final MockWebServer http1Server = new MockWebServer();
+  private final MockWebServer http2Server = new MockWebServer();
+
+  private final AtomicLong messageIds = new AtomicLong();
+  private final LongAdder requests = new LongAdder();
+  private final LongAdder messages = new LongAdder();
+  private final LongAdder batchRequests = new LongAdder();
+  private final LongAdder topicRequests = new LongAdder();
+  private final AtomicLongArray faults = new AtomicLongArray(Fault.values().length);
+
+  private LocalFcmServer(Builder builder) {
+    this.minLatencyNanos = builder.minLatencyNanos;
+    this.maxLatencyNanos = builder.maxLatencyNanos;
+    this.faultRates = new EnumMap<>(builder.faultRates);
+    this.retryAfterSeconds = builder.retryAfterSeconds;
+    this.unregisteredTokens.addAll(builder.unregisteredTokens);
+  }
+
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  private void start() throws IOException {
+    Dispatcher dispatcher = new Dispatcher() {
+      @Override
+      public MockResponse dispatch(RecordedRequest request) throws InterruptedException {
+        Reply reply = handle(request.getMethod(), request.getPath(),
+            request.getHeader("Content-Type"), request.getBody().readUtf8());
+        MockResponse response = new MockResponse()
+            .setResponseCode(reply.statusCode)
+            .setHeader("Content-Type", reply.contentType)
+            .setBody(reply.body);
+        if (reply.retryAfterSeconds >= 0) {
+          response.setHeader("Retry-After", reply.retryAfterSeconds);
+        }
+        return response;
+      }
+    };
+    http1Server.setProtocols(Collections.singletonList(Protocol.HTTP_1_1));
+    http1Server.setDispatcher(dispatcher);
+    http2Server.setProtocols(Collections.singletonList(Protocol.H2_PRIOR_KNOWLEDGE));
+    http2Server.setDispatcher(dispatcher);
+    http1Server.start();
+    try {
+      http2Server.start();
+    } catch (IOException e) {
+      http1Server.shutdown();
+      throw e;
+    }
+  }
+
+  /** Base URL of the HTTP/1.1 listener, for example {@code http://127.0.0.1:50123}. */
+  public String getBaseUrl() {
+    return baseUrl(http1Server);
+  }
+
+  /** Base URL of the cleartext HTTP/2 listener, for {@link Http2MessageSender}. */
+  public String getHttp2BaseUrl() {
+    return baseUrl(http2Server);
+  }
+
+  /**
+   * Returns a transport that hands every request to this server in-process, whatever its host.
+   * Pass it to {@code FirebaseOptions.Builder.setHttpTransport} to point the SDK at the server.
+   */
+  public HttpTransport newHttpTransport() {
+    return new MockHttpTransport() {
+      @Override
+      public LowLevelHttpRequest buildRequest(final String method, final String url) {
+        return new MockLowLevelHttpRequest(url) {
+          @Override
+          public LowLevelHttpResponse execute() throws IOException {
+            URI uri = URI.create(url);
+            Reply reply;
+            try {
+              reply = handle(method, uri.getRawPath(), getContentType(),
+                  getContentAsString());
+            } catch (InterruptedException e) {
+              Thread.currentThread().interrupt();
+              throw new InterruptedIOException("Interrupted while delaying the response");
+            }
+            MockLowLevelHttpResponse response = new MockLowLevelHttpResponse()
+                .setStatusCode(reply.statusCode)
+                .setReasonPhrase(reasonPhrase(reply.statusCode))
+                .setContentType(reply.contentType)
+                .setContent(reply.body);
+            if (reply.retryAfterSeconds >= 0) {
+              response.addHeader("Retry-After", String.valueOf(reply.retryAfterSeconds));
+            }
+            return response;
+          }
+        };
+      }
+    };
+  }
+
+  /** Makes every later send to {@code token} fail with {@link Fault#UNREGISTERED}. */
+  public void unregister(String token) {
+    unregisteredTokens.add(token);
+  }
+
+  /** Returns the tokens currently subscribed to {@code topic}. */
+  public Set<String> getSubscribers(String topic) {
+    Set<String> subscribers = topics.get(topic);
+    return subscribers == null
+        ? Collections.<String>emptySet() : Collections.unmodifiableSet(new HashSet<>(subscribers));
+  }
+
+  /** Number of HTTP requests received, counting a batch request once. */
+  public long getRequestCount() {
+    return requests.sum();
+  }
+
+  /** Number of messages received, whether sent directly or inside a batch. */
+  public long getMessageCount() {
+    return messages.sum();
+  }
+
+  public long getBatchRequestCount() {
+    return batchRequests.sum();
+  }
+
+  public long getTopicRequestCount() {
+    return topicRequests.sum();
+  }
+
+  /** Number of times {@code fault} was returned, whether injected or for a known token. */
+  public long getFaultCount(Fault fault) {
+    return faults.get(fault.ordinal());
+  }
+
+  @Override
+  public void close() throws IOException {
+    try {
+      http1Server.shutdown();
+    } finally {
+      http2Server.shutdown();
+    }
+  }
+
+  private Reply handle(String method, String path, String contentType, String body)
+      throws InterruptedException {
+    requests.increment();
+    delay();
+    if (!"POST".equals(method)) {
+      return Reply.json(405, "{\"error\":\"Method not allowed\"}");
+    }
+    if (path.startsWith("/v1/projects/") && path.endsWith("/messages:send")) {
+      return sendMessage(path, body);
+    } else if (path.equals("/batch")) {
+      return sendBatch(contentType, body);
+    } else if (path.equals("/iid/v1:batchAdd")) {
+      return manageTopic(body, true);
+    } else if (path.equals("/iid/v1:batchRemove")) {
+      return manageTopic(body, false);
+    }
+    return Reply.json(404, "{\"error\":\"Unknown endpoint: " + path + "\"}");
+  }
+
+  private Reply sendMessage(String path, String body) {
+    messages.increment();
+    String projectId = path.substring("/v1/projects/".length(), path.indexOf("/messages:send"));
+    JsonObject message;
+    boolean validateOnly;
+    try {
+      JsonObject request = JsonParser.parseString(body).getAsJsonObject();
+      message = request.getAsJsonObject("message");
+      validateOnly = request.has("validate_only") && request.get("validate_only").getAsBoolean();
+    } catch (JsonParseException | IllegalStateException | ClassCastException e) {
+      return fcmError(Fault.INVALID_ARGUMENT, "Invalid JSON payload received.");
+    }
+    if (message == null) {
+      return fcmError(Fault.INVALID_ARGUMENT, "Request contains no message.");
+    }
+    int targets = (message.has("token") ? 1 : 0) + (message.has("topic") ? 1 : 0)
+        + (message.has("condition") ? 1 : 0);
+    if (targets != 1) {
+      return fcmError(Fault.INVALID_ARGUMENT,
+          "Exactly one of token, topic or condition must be specified.");
+    }
+
+    Fault fault = null;
+    if (message.has("token")) {
+      String token = message.get("token").getAsString();
+      if (token.isEmpty()) {
+        fault = Fault.INVALID_ARGUMENT;
+      } else if (unregisteredTokens.contains(token)) {
+        fault = Fault.UNREGISTERED;
+      }
+    }
+    if (fault == null) {
+      fault = randomFault(message.has("token"));
+    }
+    if (fault != null) {
+      return fcmError(fault, "Injected " + fault.name() + " fault.");
+    }
+    // FCM does not assign an ID to messages sent in dry run mode.
+    String id = validateOnly ? "fake_message_id" : String.valueOf(messageIds.incrementAndGet());
+    return Reply.json(200, "{\"name\":\"projects/" + projectId + "/messages/" + id + "\"}");
+  }
+
+  // Handles a multipart/mixed batch of v1 send requests, as sent by sendAllAsync. Faults are
+  // applied to each part, as FCM does.
+  private Reply sendBatch(String contentType, String body) {
+    batchRequests.increment();
+    String boundary = boundaryOf(contentType);
+    if (boundary == null) {
+      return Reply.json(400, "{\"error\":\"Missing multipart boundary\"}");
+    }
+    StringBuilder response = new StringBuilder();
+    String delimiter = "--" + boundary;
+    int partIndex = 0;
+    int start = body.indexOf(delimiter);
+    while (start >= 0) {
+      start += delimiter.length();
+      if (body.startsWith("--", start)) {
+        break;
+      }
+      int end = body.indexOf(delimiter, start);
+      if (end < 0) {
+        break;
+      }
+      // Drop the line break that ends the delimiter line.
+      int partStart = body.indexOf('\n', start) + 1;
+      Reply reply = sendBatchPart(body.substring(Math.min(partStart, end), end));
+      partIndex++;
+      response.append("--").append(BATCH_BOUNDARY).append("\r\n")
+          .append("Content-Type: application/http\r\n")
+          .append("Content-ID: response-").append(partIndex).append("\r\n\r\n")
+          .append("HTTP/1.1 ").append(reply.statusCode).append(' ')
+          .append(reasonPhrase(reply.statusCode)).append("\r\n")
+          .append("Content-Type: ").append(reply.contentType).append("\r\n");
+      if (reply.retryAfterSeconds >= 0) {
+        response.append("Retry-After: ").append(reply.retryAfterSeconds).append("\r\n");
+      }
+      response.append("\r\n").append(reply.body).append("\r\n");
+      start = end;
+    }
+    response.append("--").append(BATCH_BOUNDARY).append("--\r\n");
+    return new Reply(200, "multipart/mixed; boundary=" + BATCH_BOUNDARY, response.toString(), -1);
+  }
+
+  private Reply sendBatchPart(String part) {
+    // A part holds its own headers, then the embedded request line, headers and JSON body.
+    int requestStart = skipHeaders(part, 0);
+    int lineEnd = part.indexOf('\n', requestStart);
+    if (requestStart < 0 || lineEnd < 0) {
+      return fcmError(Fault.INVALID_ARGUMENT, "Malformed batch part.");
+    }
+    String[] requestLine = part.substring(requestStart, lineEnd).trim().split(" ");
+    int bodyStart = skipHeaders(part, lineEnd + 1);
+    if (requestLine.length < 2 || bodyStart < 0) {
+      return fcmError(Fault.INVALID_ARGUMENT, "Malformed batch part.");
+    }
+    String path = requestLine[1].startsWith("/")
+        ? requestLine[1] : URI.create(requestLine[1]).getRawPath();
+    if (!path.startsWith("/v1/projects/") || !path.endsWith("/messages:send")) {
+      return fcmError(Fault.INVALID_ARGUMENT, "Unsupported batch request: " + path);
+    }
+    return sendMessage(path, part.substring(bodyStart).trim());
+  }
+
+  private Reply manageTopic(String body, boolean subscribe) {
+    topicRequests.increment();
+    String topic;
+    JsonArray tokens;
+    try {
+      JsonObject request = JsonParser.parseString(body).getAsJsonObject();
+      topic = request.get("to").getAsString();
+      tokens = request.getAsJsonArray("registration_tokens");
+    } catch (JsonParseException | IllegalStateException | ClassCastException
+        | NullPointerException e) {
+      return Reply.json(400, "{\"error\":\"InvalidParameters\"}");
+    }
+    Fault fault = randomFault(false);
+    if (fault != null) {
+      recordFault(fault);
+      return new Reply(fault.statusCode, JSON, "{\"error\":\"" + fault.status + "\"}",
+          retryAfter(fault));
+    }
+
+    String name = topic.startsWith("/topics/") ? topic.substring("/topics/".length()) : topic;
+    Set<String> subscribers = topics.computeIfAbsent(name, k -> ConcurrentHashMap.newKeySet());
+    StringBuilder results = new StringBuilder("{\"results\":[");
+    for (int i = 0; i < tokens.size(); i++) {
+      if (i > 0) {
+        results.append(',');
+      }
+      String token = tokens.get(i).getAsString();
+      Fault tokenFault = null;
+      if (token.isEmpty()) {
+        tokenFault = Fault.INVALID_ARGUMENT;
+      } else if (unregisteredTokens.contains(token)) {
+        tokenFault = Fault.UNREGISTERED;
+      }
+      if (tokenFault != null) {
+        recordFault(tokenFault);
+        results.append("{\"error\":\"").append(tokenFault.status).append("\"}");
+        continue;
+      }
+      if (subscribe) {
+        subscribers.add(token);
+      } else {
+        subscribers.remove(token);
+      }
+      results.append("{}");
+    }
+    return Reply.json(200, results.append("]}").toString());
+  }
+
+  private Reply fcmError(Fault fault, String message) {
+    recordFault(fault);
+    String body = "{\"error\":{\"code\":" + fault.statusCode + ",\"message\":\"" + message
+        + "\",\"status\":\"" + fault.status + "\",\"details\":[{\"@type\":"
+        + "\"type.googleapis.com/google.firebase.fcm.v1.FcmError\",\"errorCode\":\""
+        + fault.name() + "\"}]}}";
+    return new Reply(fault.statusCode, JSON, body, retryAfter(fault));
+  }
+
+  private int retryAfter(Fault fault) {
+    return fault == Fault.QUOTA_EXCEEDED || fault == Fault.UNAVAILABLE ? retryAfterSeconds : -1;
+  }
+
+  private void recordFault(Fault fault) {
+    faults.incrementAndGet(fault.ordinal());
+  }
+
+  private Fault randomFault(boolean includePerToken) {
+    if (faultRates.isEmpty()) {
+      return null;
+    }
+    double roll = ThreadLocalRandom.current().nextDouble();
+    double cumulative = 0;
+    for (Map.Entry<Fault, Double> entry : faultRates.entrySet()) {
+      if (!includePerToken && entry.getKey().isPerToken()) {
+        continue;
+      }
+      cumulative += entry.getValue();
+      if (roll < cumulative) {
+        return entry.getKey();
+      }
+    }
+    return null;
+  }
+
+  private void delay() throws InterruptedException {
+    long nanos = minLatencyNanos;
+    if (maxLatencyNanos > minLatencyNanos) {
+      nanos += ThreadLocalRandom.current().nextLong(maxLatencyNanos - minLatencyNanos + 1);
+    }
+    if (nanos > 0) {
+      TimeUnit.NANOSECONDS.sleep(nanos);
+    }
+  }
+
+  private static String baseUrl(MockWebServer server) {
+    String url = server.url("/").toString();
+    return url.substring(0, url.length() - 1);
+  }
+
+  private static String boundaryOf(String contentType) {
+    if (contentType == null) {
+      return null;
+    }
+    int index = contentType.indexOf("boundary=");
+    if (index < 0) {
+      return null;
+    }
+    String boundary = contentType.substring(index + "boundary=".length());
+    int semicolon = boundary.indexOf(';');
+    if (semicolon >= 0) {
+      boundary = boundary.substring(0, semicolon);
+    }
+    return boundary.replace("\"", "").trim();
+  }
+
+  // Returns the index just past the blank line that ends the headers starting at from, or -1.
+  private static int skipHeaders(String text, int from) {
+    int index = from;
+    while (index < text.length()) {
+      int lineEnd = text.indexOf('\n', index);
+      if (lineEnd < 0) {
+        return -1;
+      }
+      boolean blank = text.substring(index, lineEnd).trim().isEmpty();
+      index = lineEnd + 1;
+      if (blank) {
+        return index;
+      }
+    }
+    return -1;
+  }
+
+  private static String reasonPhrase(int statusCode) {
+    switch (statusCode) {
+      case 200:
+        return "OK";
+      case 400:
+        return "Bad Request";
+      case 404:
+        return "Not Found";
+      case 405:
+        return "Method Not Allowed";
+      case 429:
+        return "Too Many Requests";
+      case 503:
+        return "Service Unavailable";
+      default:
+        return "Internal Server Error";
+    }
+  }
+
+  private static final class Reply {
+
+    final int statusCode;
+    final String contentType;
+    final String body;
+    final int retryAfterSeconds;
+
+    Reply(int statusCode, String contentType, String body, int retryAfterSeconds) {
+      this.statusCode = statusCode;
+      this.contentType = contentType;
+      this.body = body;
+      this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    static Reply json(int statusCode, String body) {
+      return new Reply(statusCode, JSON, body, -1);
+    }
+  }
+
+  public static final class Builder {
+
+    private long minLatencyNanos;
+    private long maxLatencyNanos;
+    private final Map<Fault, Double> faultRates = new EnumMap<>(Fault.class);
+    private int retryAfterSeconds = 1;
+    private final Set<String> unregisteredTokens = new HashSet<>();
+
+    private Builder() {
+    }
+
+    /** Delays every response by a uniformly random time between the two bounds. */
+    public Builder setLatency(long minLatency, long maxLatency, TimeUnit unit) {
+      if (minLatency < 0 || maxLatency < minLatency) {
+        throw new IllegalArgumentException("latency bounds must satisfy 0 <= min <= max");
+      }
+      this.minLatencyNanos = unit.toNanos(minLatency);
+      this.maxLatencyNanos = unit.toNanos(maxLatency);
+      return this;
+    }
+
+    /**
+     * Returns {@code fault} for the given fraction of messages, or of topic requests for faults
+     * that are not tied to a token. The rates of all faults must add up to at most 1.
+     */
+    public Builder setFaultRate(Fault fault, double rate) {
+      if (!(rate >= 0 && rate <= 1)) {
+        throw new IllegalArgumentException("rate must be between 0 and 1");
+      }
+      if (rate == 0) {
+        faultRates.remove(fault);
+      } else {
+        faultRates.put(fault, rate);
+      }
+      double total = 0;
+      for (double value : faultRates.values()) {
+        total += value;
+      }
+      if (total > 1) {
+        throw new IllegalArgumentException("fault rates must add up to at most 1");
+      }
+      return this;
+    }
+
+    /** Sets the {@code Retry-After} sent with 429 and 503 responses. Defaults to 1 second. */
+    public Builder setRetryAfterSeconds(int retryAfterSeconds) {
+      if (retryAfterSeconds < 0) {
+        throw new IllegalArgumentException("retryAfterSeconds must not be negative");
+      }
+      this.retryAfterSeconds = retryAfterSeconds;
+      return this;
+    }
+
+    /** Makes sends to these tokens fail with {@link Fault#UNREGISTERED}. */
+    public Builder addUnregisteredTokens(Collection<String> tokens) {
+      unregisteredTokens.addAll(tokens);
+      return this;
+    }
+
+    /** Starts the server on ephemeral local ports. */
+    public LocalFcmServer start() throws IOException {
+      LocalFcmServer server = new LocalFcmServer(this);
+      server.start();
+      return server;
+    }
+  }
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright 2026 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.firebase.example;
+
+import com.google.api.client.json.JsonFactory;
+import com.google.api.client.json.gson.GsonFactory;
+import com.google.firebase.messaging.AndroidConfig;
+import com.google.firebase.messaging.AndroidNotification;
+import com.google.firebase.messaging.ApnsConfig;
+import com.google.firebase.messaging.Aps;
+import com.google.firebase.messaging.Message;
+import com.google.firebase.messaging.Notification;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Compares producing a per-recipient send request body by building and serializing a
+ * {@link Message}, as the SDK does for every send, with rendering a {@link MessageTemplate}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class MessageTemplateBenchmark {
+
+  private static final int RECIPIENTS = 1024;
+
+  private final JsonFactory jsonFactory = GsonFactory.getDefaultInstance();
+  private final String[] tokens = new String[RECIPIENTS];
+  private final String[] scores = new String[RECIPIENTS];
+  private MessageTemplate.Renderer renderer;
+  private int tokenSlot;
+  private int scoreSlot;
+  private int next;
+
+  @Setup
+  public void setUp() {
+    for (int i = 0; i < RECIPIENTS; i++) {
+      tokens[i] = "registration-token-" + i + "-abcdefghijklmnopqrstuvwxyz0123456789";
+      scores[i] = Integer.toString(i * 7);
+    }
+    MessageTemplate template = MessageTemplate.compile(
+        newMessage(MessageTemplate.placeholder("token"), MessageTemplate.placeholder("score")));
+    renderer = template.newRenderer();
+    tokenSlot = template.slotOf("token");
+    scoreSlot = template.slotOf("score");
+  }
+
+  @Benchmark
+  public byte[] builder() throws Exception {
+    int i = next++ & (RECIPIENTS - 1);
+    String json = "{\"message\":" + jsonFactory.toString(newMessage(tokens[i], scores[i])) + "}";
+    return json.getBytes(StandardCharsets.UTF_8);
+  }
+
+  @Benchmark
+  public int template() {
+    int i = next++ & (RECIPIENTS - 1);
+    return renderer.set(tokenSlot, tokens[i]).set(scoreSlot, scores[i]).render().length();
+  }
+
+  private static Message newMessage(String token, String score) {
+    return Message.builder()
+        .setNotification(Notification.builder()
+            .setTitle("$GOOG up 1.43% on the day")
+            .setBody("$GOOG gained 11.80 points to close at 835.67, up 1.43% on the day.")
+            .build())
+        .setAndroidConfig(AndroidConfig.builder()
+            .setTtl(3600 * 1000)
+            .setNotification(AndroidNotification.builder()
+                .setIcon("stock_ticker_update")
+                .setColor("#f45342")
+                .build())
+            .build())
+        .setApnsConfig(ApnsConfig.builder()
+            .setAps(Aps.builder()
+                .setBadge(42)
+                .build())
+            .build())
+        .putData("score", score)
+        .setToken(token)
+        .build();
+  }
+}
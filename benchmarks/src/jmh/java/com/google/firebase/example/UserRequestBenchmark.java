@@ -0,0 +1,71 @@
+/*
+ * Copyright 2026 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.firebase.example;
+
+import com.google.firebase.auth.UserRecord.CreateRequest;
+import com.google.firebase.auth.UserRecord.UpdateRequest;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measures building and validating the user requests from {@link FirebaseAuthSnippets}, which
+ * the SDK does on the calling thread before any network I/O.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class UserRequestBenchmark {
+
+  private final Map<String, Object> claims = new HashMap<>();
+
+  {
+    claims.put("admin", true);
+    claims.put("accessLevel", 5);
+  }
+
+  @Benchmark
+  public CreateRequest createRequest() {
+    return new CreateRequest()
+        .setUid("some-uid")
+        .setEmail("user@example.com")
+        .setEmailVerified(false)
+        .setPassword("secretPassword")
+        .setPhoneNumber("+11234567890")
+        .setDisplayName("John Doe")
+        .setPhotoUrl("http://www.example.com/12345678/photo.png")
+        .setDisabled(false);
+  }
+
+  @Benchmark
+  public UpdateRequest updateRequest() {
+    return new UpdateRequest("some-uid")
+        .setEmail("user@example.com")
+        .setPhoneNumber("+11234567890")
+        .setEmailVerified(true)
+        .setDisplayName("Jane Doe")
+        .setPhotoUrl("http://www.example.com/12345678/photo.png")
+        .setCustomClaims(claims);
+  }
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright 2026 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.firebase.example;
+
+import com.google.firebase.FirebaseApp;
+import com.google.firebase.auth.FirebaseAuth;
+import com.google.firebase.auth.FirebaseToken;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Measures ID token verification against a local key endpoint, with and without
+ * {@link IdTokenCache}. Sample time mode reports latency percentiles.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class VerifyIdTokenBenchmark {
+
+  private FirebaseApp app;
+  private FirebaseAuth auth;
+  private IdTokenCache idTokenCache;
+  private String idToken;
+
+  @Setup
+  public void setUp() throws Exception {
+    BenchmarkProject project = new BenchmarkProject();
+    app = project.initializeApp("verify-id-token-benchmark");
+    auth = FirebaseAuth.getInstance(app);
+    idTokenCache = new IdTokenCache(auth, 1000);
+    idToken = project.createIdToken("some-uid");
+
+    // Fetch and cache the public keys before measuring.
+    auth.verifyIdTokenAsync(idToken).get();
+  }
+
+  @TearDown
+  public void tearDown() {
+    app.delete();
+  }
+
+  @Benchmark
+  public FirebaseToken verifyIdToken() throws Exception {
+    return auth.verifyIdTokenAsync(idToken).get();
+  }
+
+  @Benchmark
+  public FirebaseToken verifyIdTokenCached() throws Exception {
+    return idTokenCache.verifyIdTokenAsync(idToken).get();
+  }
+}